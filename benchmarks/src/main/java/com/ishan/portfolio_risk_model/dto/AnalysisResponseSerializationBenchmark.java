@@ -0,0 +1,94 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of AnalysisResponse (mostly BigDecimal fields), on its own and as a full
+ * history page. Uses Jackson 3, the same library Spring MVC writes responses with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AnalysisResponseSerializationBenchmark {
+
+    // default history page size
+    private static final int PAGE_SIZE = 50;
+
+    private JsonMapper jsonMapper;
+    private AnalysisResponse response;
+    private List<AnalysisResponse> page;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        response = newResponse(1L);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(newResponse(i + 1L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    private AnalysisResponse newResponse(Long id) {
+        Map<String, BigDecimal> tStats = new LinkedHashMap<>();
+        tStats.put("alpha", new BigDecimal("1.2345"));
+        tStats.put("mkt", new BigDecimal("15.6789"));
+        tStats.put("smb", new BigDecimal("2.3456"));
+        tStats.put("hml", new BigDecimal("-0.9876"));
+        tStats.put("rmw", new BigDecimal("0.5432"));
+        tStats.put("cma", new BigDecimal("-0.2109"));
+        Map<String, BigDecimal> stdErrors = new LinkedHashMap<>();
+        stdErrors.put("alpha", new BigDecimal("0.000190"));
+        stdErrors.put("mkt", new BigDecimal("0.054622"));
+        stdErrors.put("smb", new BigDecimal("0.052632"));
+        stdErrors.put("hml", new BigDecimal("0.046252"));
+        stdErrors.put("rmw", new BigDecimal("0.059177"));
+        stdErrors.put("cma", new BigDecimal("0.058535"));
+
+        return new AnalysisResponse(
+                id,
+                LocalDateTime.of(2025, 1, 2, 9, 30),
+                new BigDecimal("0.000234"),
+                new BigDecimal("0.856420"),
+                new BigDecimal("0.123456"),
+                new BigDecimal("-0.045678"),
+                new BigDecimal("0.032145"),
+                new BigDecimal("-0.012345"),
+                new BigDecimal("0.876543"),
+                tStats,
+                stdErrors,
+                new BigDecimal("0.000042"),
+                752
+        );
+    }
+}
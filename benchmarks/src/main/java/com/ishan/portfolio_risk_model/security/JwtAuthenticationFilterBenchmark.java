@@ -0,0 +1,76 @@
+package com.ishan.portfolio_risk_model.security;
+
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole JwtAuthenticationFilter path for one request, with the user lookup stubbed out
+ * so only token handling, metrics and the security context are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest malformedRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = JwtServiceBenchmark.newJwtService();
+        UserEntity user = JwtServiceBenchmark.newUser();
+        UserDetailsService userDetailsService = email -> user;
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, new SimpleMeterRegistry());
+
+        // the filter removes its already-filtered marker when it finishes, so requests can be reused
+        validRequest = new MockHttpServletRequest("GET", "/api/v1/holdings");
+        validRequest.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        malformedRequest = new MockHttpServletRequest("GET", "/api/v1/holdings");
+        malformedRequest.addHeader("Authorization", "Bearer not-a-token");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication validToken() throws Exception {
+        filter.doFilter(validRequest, response, NO_OP_CHAIN);
+        return takeAuthentication();
+    }
+
+    @Benchmark
+    public Authentication malformedToken() throws Exception {
+        filter.doFilter(malformedRequest, response, NO_OP_CHAIN);
+        return takeAuthentication();
+    }
+
+    // an authenticated context makes the next call skip the user lookup, so reset it every time
+    private Authentication takeAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
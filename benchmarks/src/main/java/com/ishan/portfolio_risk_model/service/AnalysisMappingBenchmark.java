@@ -0,0 +1,98 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DTO mapping in AnalysisService: holdings to the flask request at several portfolio sizes,
+ * and a saved result to the API response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AnalysisMappingBenchmark {
+
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2025, 1, 1);
+
+    @Param({"1", "10", "100", "1000"})
+    public int holdingCount;
+
+    private AnalysisService analysisService;
+    private List<HoldingsResponse> holdings;
+    private FactorAnalysisResultsEntity result;
+
+    @Setup
+    public void setUp() {
+        // the mapping methods don't touch any collaborators
+        analysisService = new AnalysisService(null, null, null, null);
+
+        holdings = new ArrayList<>(holdingCount);
+        for (int i = 0; i < holdingCount; i++) {
+            holdings.add(new HoldingsResponse((long) i, "T" + i, new BigDecimal(10 + i % 90)));
+        }
+        result = newResult();
+    }
+
+    @Benchmark
+    public FlaskAnalysisRequest buildFlaskRequest() {
+        return analysisService.buildFlaskRequest(holdings, START_DATE, END_DATE);
+    }
+
+    // doesn't depend on holdingCount, but cheap enough to run at each size
+    @Benchmark
+    public AnalysisResponse toResponse() {
+        return analysisService.toResponse(result);
+    }
+
+    private FactorAnalysisResultsEntity newResult() {
+        FactorAnalysisResultsEntity entity = new FactorAnalysisResultsEntity();
+        entity.setId(1L);
+        entity.setAnalysisDate(LocalDateTime.of(2025, 1, 2, 9, 30));
+        entity.setAlpha(new BigDecimal("0.000234"));
+        entity.setBetaMkt(new BigDecimal("0.856420"));
+        entity.setBetaSmb(new BigDecimal("0.123456"));
+        entity.setBetaHml(new BigDecimal("-0.045678"));
+        entity.setBetaRmw(new BigDecimal("0.032145"));
+        entity.setBetaCma(new BigDecimal("-0.012345"));
+        entity.setRSquared(new BigDecimal("0.876543"));
+        entity.setTStatAlpha(new BigDecimal("1.2345"));
+        entity.setTStatMkt(new BigDecimal("15.6789"));
+        entity.setTStatSmb(new BigDecimal("2.3456"));
+        entity.setTStatHml(new BigDecimal("-0.9876"));
+        entity.setTStatRmw(new BigDecimal("0.5432"));
+        entity.setTStatCma(new BigDecimal("-0.2109"));
+        entity.setStdErrAlpha(new BigDecimal("0.000190"));
+        entity.setStdErrMkt(new BigDecimal("0.054622"));
+        entity.setStdErrSmb(new BigDecimal("0.052632"));
+        entity.setStdErrHml(new BigDecimal("0.046252"));
+        entity.setStdErrRmw(new BigDecimal("0.059177"));
+        entity.setStdErrCma(new BigDecimal("0.058535"));
+        entity.setResidualVariance(new BigDecimal("0.000042"));
+        entity.setNObservations(752);
+        return entity;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Monte Carlo VaR request (100,000 paths, 1- and 10-day horizons) at several pool sizes, to show
+ * how the simulation scales with cores. Compare the parallelism rows against each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonteCarloVarBenchmark {
+
+    private static final int[] HORIZONS = {1, 10};
+    private static final double[] CONFIDENCES = {0.95, 0.99};
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"100000"})
+    public int paths;
+
+    private RiskComputePool pool;
+    private MonteCarloVarEngine engine;
+    private MonteCarloVarEngine.Model model;
+
+    @Setup
+    public void setUp() {
+        pool = new RiskComputePool(parallelism);
+        engine = new MonteCarloVarEngine(pool);
+        model = new MonteCarloVarEngine.Model(
+                0.0001,
+                new double[]{1.1, 0.3, -0.2, 0.1, 0.05},
+                new double[]{0.0003, 0.0001, 0.0, 0.0001, 0.0},
+                new double[][]{
+                        {0.010, 0, 0, 0, 0},
+                        {0.002, 0.005, 0, 0, 0},
+                        {-0.001, 0.001, 0.005, 0, 0},
+                        {0, 0, 0.001, 0.004, 0},
+                        {0, 0, 0.002, 0, 0.004}},
+                0.006);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public List<RiskEstimate> simulate() {
+        return engine.simulate(model, HORIZONS, CONFIDENCES, paths, 42);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * PostgreSQL COPY ... FROM STDIN in csv format, several times faster than batched inserts.
+ * None of the generated values contain commas, quotes or newlines, so nothing needs quoting;
+ * an empty field is NULL.
+ */
+class CopyRowWriter implements RowWriter {
+
+    @Override
+    public <E> void write(Connection connection, EntityTable<E> table, List<E> rows) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * table.columns().size() * 12);
+        for (E row : rows) {
+            Object[] values = table.values().apply(row);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof BigDecimal decimal) {
+                    csv.append(decimal.toPlainString());
+                } else if (value != null) {
+                    csv.append(value);
+                }
+            }
+            csv.append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(table.copySql(), new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into " + table.name() + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills a database with synthetic users, holdings, analysis results and factor history for scale testing.
+ * Brings the schema up to date with the app's flyway migrations first, then writes the factor history and
+ * the user blocks (each block with its holdings and results in one transaction), and finally moves the id
+ * sequences past the generated ids so the app can keep inserting. See {@link DataGenOptions#USAGE}.
+ */
+public class DataGen {
+
+    // children before parents
+    private static final List<String> TABLES = List.of(
+            "factor_analysis_results", "holdings", "reanalysis_checkpoints", "users", "fama_french_factors");
+
+    public static void main(String[] args) throws Exception {
+        DataGenOptions options;
+        try {
+            options = DataGenOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(DataGenOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(options.url());
+            dataSource.setUsername(options.username());
+            dataSource.setPassword(options.password());
+            dataSource.setMaximumPoolSize(options.parallelism());
+
+            // same settings as spring.flyway in application.yaml
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .load()
+                    .migrate();
+
+            boolean postgres;
+            try (Connection connection = dataSource.getConnection()) {
+                postgres = connection.isWrapperFor(PGConnection.class);
+                prepareTables(connection, options.truncate(), postgres);
+            }
+            RowWriter writer = writer(options.mode(), postgres);
+            new DataGen(options, dataSource, writer, postgres).run();
+        }
+    }
+
+    private final DataGenOptions options;
+    private final DataSource dataSource;
+    private final RowWriter writer;
+    private final boolean postgres;
+    private final DataGenerator generator;
+
+    private final AtomicInteger blocksDone = new AtomicInteger();
+    private final AtomicLong usersWritten = new AtomicLong();
+    private final AtomicLong holdingsWritten = new AtomicLong();
+    private final AtomicLong resultsWritten = new AtomicLong();
+    private long startNanos;
+
+    private DataGen(DataGenOptions options, DataSource dataSource, RowWriter writer, boolean postgres) {
+        this.options = options;
+        this.dataSource = dataSource;
+        this.writer = writer;
+        this.postgres = postgres;
+        this.generator = new DataGenerator(options);
+    }
+
+    private void run() throws Exception {
+        startNanos = System.nanoTime();
+        System.out.printf("writing with %s: %d users in %d blocks, %d years of factors, seed %d%n",
+                writer.getClass().getSimpleName(), options.users(), generator.blockCount(),
+                options.factorYears(), options.seed());
+
+        int factors = writeFactors();
+        System.out.printf("factors: %d days%n", factors);
+
+        List<Future<?>> blocks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(options.parallelism())) {
+            for (int block = 0; block < generator.blockCount(); block++) {
+                int index = block;
+                blocks.add(executor.submit(() -> {
+                    writeBlock(index);
+                    return null;
+                }));
+            }
+            // surfaces the first failure; the other blocks still finish or fail on their own
+            for (Future<?> block : blocks) {
+                block.get();
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            restartIds(statement, factors);
+            if (postgres) {
+                // fresh planner statistics, so query plans reflect the new volume straight away
+                for (String table : TABLES) {
+                    statement.execute("ANALYZE " + table);
+                }
+            }
+        }
+        System.out.printf("done in %ds: %d users, %d holdings, %d results, %d factor days%n",
+                elapsedSeconds(), usersWritten.get(), holdingsWritten.get(), resultsWritten.get(), factors);
+    }
+
+    private int writeFactors() throws SQLException {
+        List<FamaFrenchFactorEntity> factors = generator.factors();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            writer.write(connection, EntityTable.FACTORS, factors);
+            connection.commit();
+        }
+        return factors.size();
+    }
+
+    private void writeBlock(int index) throws SQLException {
+        DataGenerator.Block block = generator.block(index);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            writer.write(connection, EntityTable.USERS, block.users());
+            writer.write(connection, EntityTable.HOLDINGS, block.holdings());
+            writer.write(connection, EntityTable.RESULTS, block.results());
+            connection.commit();
+        }
+        usersWritten.addAndGet(block.users().size());
+        holdingsWritten.addAndGet(block.holdings().size());
+        resultsWritten.addAndGet(block.results().size());
+        long rows = usersWritten.get() + holdingsWritten.get() + resultsWritten.get();
+        System.out.printf("block %d/%d: %d users, %d holdings, %d results (%.0f rows/s)%n",
+                blocksDone.incrementAndGet(), generator.blockCount(), usersWritten.get(), holdingsWritten.get(),
+                resultsWritten.get(), rows / Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9));
+    }
+
+    // the generator picks ids itself, so move the identity columns and sequences past them. holdings
+    // and factors ids come from pooled sequences (allocationSize 50), where hibernate treats the value it
+    // reads as the top of its next 50 ids, so those restart a full allocation above the highest id
+    private void restartIds(Statement statement, int factors) throws SQLException {
+        statement.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (generator.maxUserId() + 1));
+        statement.execute("ALTER TABLE factor_analysis_results ALTER COLUMN id RESTART WITH "
+                + (generator.maxResultId() + 1));
+        statement.execute("ALTER SEQUENCE user_id_seq RESTART WITH " + (generator.maxHoldingId() + 50));
+        statement.execute("ALTER SEQUENCE factors_id_seq RESTART WITH " + (factors + 50));
+    }
+
+    private static void prepareTables(Connection connection, boolean truncate, boolean postgres) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                if (postgres) {
+                    statement.execute("TRUNCATE TABLE " + String.join(", ", TABLES));
+                } else {
+                    for (String table : TABLES) {
+                        statement.execute("DELETE FROM " + table);
+                    }
+                }
+                return;
+            }
+            // generated ids start at 1, so they would collide with existing rows
+            for (String table : TABLES) {
+                try (ResultSet rows = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+                    rows.next();
+                    if (rows.getBoolean(1)) {
+                        throw new IllegalStateException(table + " is not empty; pass --truncate=true to clear it first");
+                    }
+                }
+            }
+        }
+    }
+
+    private static RowWriter writer(DataGenOptions.WriteMode mode, boolean postgres) {
+        return switch (mode) {
+            case COPY -> {
+                if (!postgres) {
+                    throw new IllegalStateException("--mode=copy needs PostgreSQL");
+                }
+                yield new CopyRowWriter();
+            }
+            case JDBC -> new JdbcBatchRowWriter();
+            case AUTO -> postgres ? new CopyRowWriter() : new JdbcBatchRowWriter();
+        };
+    }
+
+    private long elapsedSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link DataGen}, all given as {@code --name=value}.
+ */
+record DataGenOptions(
+        String url,
+        String username,
+        String password,
+        WriteMode mode,
+        boolean truncate,
+        int users,
+        int maxHoldings,
+        int maxResults,
+        int tickers,
+        double tickerSkew,
+        int factorYears,
+        LocalDate endDate,
+        long seed,
+        int blockSize,
+        int parallelism
+) {
+
+    enum WriteMode {
+        // COPY on PostgreSQL, JDBC batches anywhere else
+        AUTO,
+        COPY,
+        JDBC
+    }
+
+    static final String USAGE = """
+            Options (--name=value):
+              --url=jdbc:postgresql://localhost:5432/portfolio-risk
+              --username=portfolio --password=$DB_PASSWORD
+              --mode=auto               copy (PostgreSQL only), jdbc (batched inserts) or auto
+              --truncate=false          empty the tables first; otherwise they must already be empty
+              --users=1000000
+              --max-holdings=24         holdings per user are uniform in 1..max (mean ~12)
+              --max-results=20          analysis results per user are uniform in 0..max (mean 10)
+              --tickers=5000            size of the ticker universe
+              --ticker-skew=1.1         zipf exponent of ticker popularity (0 = uniform)
+              --factor-years=60         weekdays of factor history ending at --end-date
+              --end-date=2025-12-31     latest factor date; analysis dates fall in the 3 years before it
+              --seed=42                 same seed and options, same rows
+              --block-size=2000         users written (with their holdings and results) per transaction
+              --parallelism=4           blocks written concurrently""";
+
+    static DataGenOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("url", "jdbc:postgresql://localhost:5432/portfolio-risk");
+        values.put("username", "portfolio");
+        values.put("password", System.getenv().getOrDefault("DB_PASSWORD", "changemelater"));
+        values.put("mode", "auto");
+        values.put("truncate", "false");
+        values.put("users", "1000000");
+        values.put("max-holdings", "24");
+        values.put("max-results", "20");
+        values.put("tickers", "5000");
+        values.put("ticker-skew", "1.1");
+        values.put("factor-years", "60");
+        values.put("end-date", "2025-12-31");
+        values.put("seed", "42");
+        values.put("block-size", "2000");
+        values.put("parallelism", "4");
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("unknown option --" + name);
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+
+        DataGenOptions options = new DataGenOptions(
+                values.get("url"),
+                values.get("username"),
+                values.get("password"),
+                WriteMode.valueOf(values.get("mode").toUpperCase()),
+                Boolean.parseBoolean(values.get("truncate")),
+                Integer.parseInt(values.get("users")),
+                Integer.parseInt(values.get("max-holdings")),
+                Integer.parseInt(values.get("max-results")),
+                Integer.parseInt(values.get("tickers")),
+                Double.parseDouble(values.get("ticker-skew")),
+                Integer.parseInt(values.get("factor-years")),
+                LocalDate.parse(values.get("end-date")),
+                Long.parseLong(values.get("seed")),
+                Integer.parseInt(values.get("block-size")),
+                Integer.parseInt(values.get("parallelism"))
+        );
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (users < 0 || maxResults < 0 || factorYears < 0) {
+            throw new IllegalArgumentException("users, max-results and factor-years must not be negative");
+        }
+        if (maxHoldings < 1 || maxHoldings > tickers) {
+            throw new IllegalArgumentException("max-holdings must be between 1 and the number of tickers");
+        }
+        if (tickerSkew < 0) {
+            throw new IllegalArgumentException("ticker-skew must not be negative");
+        }
+        if (blockSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("block-size and parallelism must be at least 1");
+        }
+    }
+}
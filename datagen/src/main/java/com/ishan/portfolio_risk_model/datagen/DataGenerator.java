@@ -0,0 +1,185 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the synthetic entities. Users are generated in blocks, each from its own random stream
+ * seeded by the block number, so the rows don't depend on how many blocks run at once. Ids are
+ * assigned here rather than by the database so the output is the same on every run.
+ */
+class DataGenerator {
+
+    // bcrypt of "password123", the same for every user so any of them can log in
+    static final String PASSWORD_HASH = "$2a$10$2GssDPjbYFOQKb74ECSz7.t6lrRYE.FmLSrVNWJDrQYnIQADsDHke";
+
+    private static final int ANALYSIS_YEARS = 3;
+    // three years of daily returns
+    private static final int OBSERVATIONS = 756;
+    private static final long FACTOR_STREAM = -1;
+
+    private final DataGenOptions options;
+    private final TickerUniverse tickers;
+
+    DataGenerator(DataGenOptions options) {
+        this.options = options;
+        this.tickers = new TickerUniverse(options.tickers(), options.tickerSkew());
+    }
+
+    record Block(List<UserEntity> users, List<HoldingsEntity> holdings, List<FactorAnalysisResultsEntity> results) {
+    }
+
+    int blockCount() {
+        return (options.users() + options.blockSize() - 1) / options.blockSize();
+    }
+
+    // highest ids the generator can hand out, for moving the id sequences past them
+    long maxUserId() {
+        return options.users();
+    }
+
+    long maxHoldingId() {
+        return (long) options.users() * options.maxHoldings();
+    }
+
+    long maxResultId() {
+        return (long) options.users() * options.maxResults();
+    }
+
+    Block block(int index) {
+        SplittableRandom random = new SplittableRandom(options.seed() * 31 + index);
+        int first = index * options.blockSize();
+        int last = Math.min(first + options.blockSize(), options.users());
+
+        List<UserEntity> users = new ArrayList<>(last - first);
+        List<HoldingsEntity> holdings = new ArrayList<>();
+        List<FactorAnalysisResultsEntity> results = new ArrayList<>();
+        for (int i = first; i < last; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(i + 1L);
+            user.setEmail("user" + user.getId() + "@scale.test");
+            user.setPasswordHash(PASSWORD_HASH);
+            user.setRole(UserEntity.Role.USER);
+            users.add(user);
+
+            // user i owns holding ids i * maxHoldings + 1.. and result ids i * maxResults + 1..
+            long holdingId = (long) i * options.maxHoldings();
+            for (String ticker : tickers.sampleDistinct(1 + random.nextInt(options.maxHoldings()), random)) {
+                holdings.add(holding(++holdingId, user, ticker, random));
+            }
+            long resultId = (long) i * options.maxResults();
+            for (LocalDateTime date : analysisDates(random.nextInt(options.maxResults() + 1), random)) {
+                results.add(result(++resultId, user, date, random));
+            }
+        }
+        return new Block(users, holdings, results);
+    }
+
+    // weekdays (holidays aren't skipped) over factorYears up to endDate
+    List<FamaFrenchFactorEntity> factors() {
+        SplittableRandom random = new SplittableRandom(options.seed() * 31 + FACTOR_STREAM);
+        List<FamaFrenchFactorEntity> factors = new ArrayList<>();
+        LocalDate end = options.endDate();
+        long id = 0;
+        for (LocalDate date = end.minusYears(options.factorYears()).plusDays(1); !date.isAfter(end);
+             date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            FamaFrenchFactorEntity row = new FamaFrenchFactorEntity();
+            row.setId(++id);
+            row.setFactorDate(date);
+            // daily returns as fractions, roughly the size of the published series
+            row.setMktRf(decimal(0.0003 + 0.01 * random.nextGaussian(), 10));
+            row.setSmb(decimal(0.005 * random.nextGaussian(), 10));
+            row.setHml(decimal(0.005 * random.nextGaussian(), 10));
+            row.setRmw(decimal(0.004 * random.nextGaussian(), 10));
+            row.setCma(decimal(0.004 * random.nextGaussian(), 10));
+            row.setRf(decimal(0.0001 + 0.00002 * Math.abs(random.nextGaussian()), 10));
+            factors.add(row);
+        }
+        return factors;
+    }
+
+    private HoldingsEntity holding(long id, UserEntity user, String ticker, SplittableRandom random) {
+        HoldingsEntity holding = new HoldingsEntity();
+        holding.setId(id);
+        holding.setUser(user);
+        holding.setTicker(ticker);
+        // log-uniform between 1 and 1000 shares: mostly small positions
+        holding.setQuantity(BigDecimal.valueOf((long) Math.exp(random.nextDouble() * Math.log(1000)) + 1));
+        return holding;
+    }
+
+    // oldest first, so result ids grow with the analysis date as they do in the app
+    private List<LocalDateTime> analysisDates(int count, SplittableRandom random) {
+        LocalDateTime end = options.endDate().atStartOfDay();
+        long window = ChronoUnit.SECONDS.between(end.minusYears(ANALYSIS_YEARS), end);
+        List<LocalDateTime> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dates.add(end.minusSeconds(random.nextLong(window)));
+        }
+        dates.sort(null);
+        return dates;
+    }
+
+    private FactorAnalysisResultsEntity result(long id, UserEntity user, LocalDateTime date, SplittableRandom random) {
+        double alpha = 0.0003 * random.nextGaussian();
+        double[] betas = {
+                1 + 0.25 * random.nextGaussian(),
+                0.3 * random.nextGaussian(),
+                0.3 * random.nextGaussian(),
+                0.3 * random.nextGaussian(),
+                0.3 * random.nextGaussian()
+        };
+        double alphaError = random.nextDouble(0.0001, 0.0003);
+        double[] errors = new double[betas.length];
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = random.nextDouble(0.03, 0.09);
+        }
+
+        FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+        result.setId(id);
+        result.setUser(user);
+        result.setAnalysisDate(date);
+        result.setAlpha(decimal(alpha, 10));
+        result.setBetaMkt(decimal(betas[0], 10));
+        result.setBetaSmb(decimal(betas[1], 10));
+        result.setBetaHml(decimal(betas[2], 10));
+        result.setBetaRmw(decimal(betas[3], 10));
+        result.setBetaCma(decimal(betas[4], 10));
+        result.setRSquared(decimal(random.nextDouble(0.3, 0.98), 6));
+        result.setTStatAlpha(decimal(alpha / alphaError, 10));
+        result.setTStatMkt(decimal(betas[0] / errors[0], 10));
+        result.setTStatSmb(decimal(betas[1] / errors[1], 10));
+        result.setTStatHml(decimal(betas[2] / errors[2], 10));
+        result.setTStatRmw(decimal(betas[3] / errors[3], 10));
+        result.setTStatCma(decimal(betas[4] / errors[4], 10));
+        result.setStdErrAlpha(decimal(alphaError, 10));
+        result.setStdErrMkt(decimal(errors[0], 10));
+        result.setStdErrSmb(decimal(errors[1], 10));
+        result.setStdErrHml(decimal(errors[2], 10));
+        result.setStdErrRmw(decimal(errors[3], 10));
+        result.setStdErrCma(decimal(errors[4], 10));
+        result.setResidualVariance(decimal(random.nextDouble(0.00002, 0.0001), 12));
+        result.setNObservations(OBSERVATIONS);
+        return result;
+    }
+
+    // rounded to the column's scale
+    private static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * How an entity is laid out as a row of its table, for writing entities without going through JPA.
+ * Columns follow the flyway migrations; ids are set by the generator.
+ */
+record EntityTable<E>(String name, List<String> columns, Function<E, Object[]> values) {
+
+    static final EntityTable<UserEntity> USERS = new EntityTable<>("users",
+            List.of("id", "email", "password_hash", "role"),
+            user -> new Object[]{user.getId(), user.getEmail(), user.getPasswordHash(), user.getRole().name()});
+
+    static final EntityTable<HoldingsEntity> HOLDINGS = new EntityTable<>("holdings",
+            List.of("id", "user_id", "ticker", "quantity"),
+            holding -> new Object[]{holding.getId(), holding.getUser().getId(), holding.getTicker(),
+                    holding.getQuantity()});
+
+    static final EntityTable<FactorAnalysisResultsEntity> RESULTS = new EntityTable<>("factor_analysis_results",
+            List.of("id", "user_id", "analysis_date", "alpha", "beta_mkt", "beta_smb", "beta_hml", "beta_rmw",
+                    "beta_cma", "r_squared", "t_stat_alpha", "t_stat_mkt", "t_stat_smb", "t_stat_hml", "t_stat_rmw",
+                    "t_stat_cma", "std_err_alpha", "std_err_mkt", "std_err_smb", "std_err_hml", "std_err_rmw",
+                    "std_err_cma", "residual_variance", "n_observations"),
+            result -> new Object[]{result.getId(), result.getUser().getId(), result.getAnalysisDate(),
+                    result.getAlpha(), result.getBetaMkt(), result.getBetaSmb(), result.getBetaHml(),
+                    result.getBetaRmw(), result.getBetaCma(), result.getRSquared(),
+                    result.getTStatAlpha(), result.getTStatMkt(), result.getTStatSmb(), result.getTStatHml(),
+                    result.getTStatRmw(), result.getTStatCma(),
+                    result.getStdErrAlpha(), result.getStdErrMkt(), result.getStdErrSmb(), result.getStdErrHml(),
+                    result.getStdErrRmw(), result.getStdErrCma(),
+                    result.getResidualVariance(), result.getNObservations()});
+
+    static final EntityTable<FamaFrenchFactorEntity> FACTORS = new EntityTable<>("fama_french_factors",
+            List.of("id", "factor_date", "mkt_rf", "smb", "hml", "rmw", "cma", "rf"),
+            factors -> new Object[]{factors.getId(), factors.getFactorDate(), factors.getMktRf(), factors.getSmb(),
+                    factors.getHml(), factors.getRmw(), factors.getCma(), factors.getRf()});
+
+    String insertSql() {
+        String[] placeholders = new String[columns.size()];
+        Arrays.fill(placeholders, "?");
+        return "INSERT INTO " + name + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", placeholders) + ")";
+    }
+
+    String copySql() {
+        return "COPY " + name + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+    }
+}
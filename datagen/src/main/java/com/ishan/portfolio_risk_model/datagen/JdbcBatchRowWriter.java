@@ -0,0 +1,35 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Batched INSERTs, for databases without COPY.
+ */
+class JdbcBatchRowWriter implements RowWriter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public <E> void write(Connection connection, EntityTable<E> table, List<E> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(table.insertSql())) {
+            int pending = 0;
+            for (E row : rows) {
+                Object[] values = table.values().apply(row);
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
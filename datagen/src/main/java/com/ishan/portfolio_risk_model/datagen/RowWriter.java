@@ -0,0 +1,13 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk-writes entities into their table on the given connection. Committing is up to the caller.
+ */
+interface RowWriter {
+
+    <E> void write(Connection connection, EntityTable<E> table, List<E> rows) throws SQLException;
+}
@@ -0,0 +1,60 @@
+package com.ishan.portfolio_risk_model.datagen;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+/**
+ * Synthetic tickers whose popularity follows a zipf distribution: the ticker of rank k is held with
+ * probability proportional to 1 / k^skew, so a skew around 1 gives a few very widely held names and
+ * a long tail, and 0 makes every ticker equally likely.
+ */
+class TickerUniverse {
+
+    private final String[] names;
+    private final double[] cumulative;
+
+    TickerUniverse(int size, double skew) {
+        names = new String[size];
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            names[rank] = name(rank);
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    String sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // binarySearch returns -(insertion point) - 1 when the draw falls between two entries
+        return names[Math.min(index >= 0 ? index : -index - 1, names.length - 1)];
+    }
+
+    // distinct tickers for one portfolio (a user holds each ticker at most once)
+    Set<String> sampleDistinct(int count, RandomGenerator random) {
+        Set<String> tickers = new LinkedHashSet<>();
+        int attempts = 0;
+        while (tickers.size() < count && attempts++ < count * 20) {
+            tickers.add(sample(random));
+        }
+        // with a steep skew the popular names keep coming up; fill the rest from the top of the list
+        for (int rank = 0; tickers.size() < count; rank++) {
+            tickers.add(names[rank]);
+        }
+        return tickers;
+    }
+
+    // 0 -> A, 25 -> Z, 26 -> AA, ...
+    private static String name(int rank) {
+        StringBuilder name = new StringBuilder();
+        for (int n = rank + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (microseconds, 3 significant digits) and failures for one endpoint. Latency is measured from
+ * when the request was due, not when it was sent, so a stalled app shows up in the percentiles
+ * instead of silently lowering the request rate.
+ */
+class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    void success(long latencyNanos) {
+        latencies.recordValue(latencyNanos / 1000);
+    }
+
+    // reason is the http status, or the exception type when no response came back
+    void failure(long latencyNanos, String reason) {
+        latencies.recordValue(latencyNanos / 1000);
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long failureCount() {
+        return failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> failuresByReason() {
+        Map<String, Long> byReason = new TreeMap<>();
+        failures.forEach((reason, count) -> byReason.put(reason, count.sum()));
+        return byReason;
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the flask /api/analysis/factor-regression endpoint. Every call waits for a
+ * log-normal latency fitted to the configured median and p99, then either fails with one of the
+ * configured statuses or returns a fixed regression result.
+ */
+class FlaskStub implements AutoCloseable {
+
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.326348;
+
+    private static final String RESPONSE = """
+            {"alpha": 0.000234, "betaMkt": 0.85642, "betaSmb": 0.123456, "betaHml": -0.045678,
+             "betaRmw": 0.032145, "betaCma": -0.012345, "rSquared": 0.876543,
+             "tStats": {"alpha": 1.2345, "mkt": 15.6789}, "stdErrors": {"mkt": 0.054622},
+             "residualVariance": 0.000042, "nObservations": 752}""";
+
+    private final HttpServer server;
+    private final Random random;
+    private final double medianNanos;
+    private final double sigma;
+    private final Map<Integer, Double> errors;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    FlaskStub(Duration median, Duration p99, Map<Integer, Double> errors, long seed) throws IOException {
+        this.random = new Random(seed);
+        this.medianNanos = median.toNanos();
+        // p99 = median * e^(sigma * z99)
+        this.sigma = median.equals(p99) ? 0 : Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        this.errors = errors;
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // calls mostly sleep, so one virtual thread each
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/analysis/factor-regression", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        calls.incrementAndGet();
+
+        // both draws come from the seeded generator so a run can be repeated
+        long latencyNanos;
+        int status;
+        synchronized (random) {
+            latencyNanos = (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+            status = pickStatus(random.nextDouble());
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(latencyNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body;
+        if (status == 200) {
+            body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        } else {
+            failures.incrementAndGet();
+            body = ("{\"error\": \"injected " + status + " from the flask stub\"}").getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    // walk the error shares; whatever is left over succeeds
+    private int pickStatus(double draw) {
+        double cumulative = 0;
+        for (Map.Entry<Integer, Double> error : errors.entrySet()) {
+            cumulative += error.getValue();
+            if (draw < cumulative) {
+                return error.getKey();
+            }
+        }
+        return 200;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
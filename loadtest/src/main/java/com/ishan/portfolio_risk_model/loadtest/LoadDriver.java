@@ -0,0 +1,166 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests to the app at a fixed rate (an open model: requests are due on schedule whether or
+ * not earlier ones have finished) and records each one under its scenario.
+ */
+class LoadDriver {
+
+    private static final String PASSWORD = "password123";
+    private static final List<String> TICKERS = List.of(
+            "AAPL", "MSFT", "AMZN", "NVDA", "GOOGL", "META", "TSLA", "BRK.B", "JPM", "JNJ",
+            "V", "PG", "XOM", "UNH", "HD", "MA", "KO", "PEP", "COST", "WMT");
+    private static final int MAX_HOLDINGS = 8;
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    // numbers the accounts created by the register scenario
+    private final AtomicLong registrations = new AtomicLong();
+
+    LoadDriver(HttpClient httpClient, String baseUrl) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+    }
+
+    // register users one by one and give each a few holdings
+    List<LoadUser> createUsers(int count, Random random) throws Exception {
+        List<LoadUser> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = "load-user-" + i + "@example.com";
+            HttpResponse<String> registered = send(post("/api/v1/auth/register", null, credentials(email)));
+            String token = jsonMapper.readTree(registered.body()).get("token").asString();
+
+            List<String> tickers = new ArrayList<>(TICKERS);
+            Collections.shuffle(tickers, random);
+            tickers = List.copyOf(tickers.subList(0, 1 + random.nextInt(MAX_HOLDINGS)));
+            send(post("/api/v1/holdings/import", token, holdingsBody(tickers, random)));
+            users.add(new LoadUser(email, token, tickers));
+        }
+        return users;
+    }
+
+    Map<Scenario, EndpointStats> run(Map<Scenario, Integer> mix, double rps, Duration length,
+                                     List<LoadUser> users, Random random) {
+        Map<Scenario, EndpointStats> stats = new EnumMap<>(Scenario.class);
+        mix.keySet().forEach(scenario -> stats.put(scenario, new EndpointStats()));
+        List<Scenario> weighted = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+
+        long intervalNanos = (long) (1_000_000_000L / rps);
+        long lengthNanos = length.toNanos();
+        // closing the executor waits for the requests still in flight
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i * intervalNanos < lengthNanos; i++) {
+                long due = start + i * intervalNanos;
+                // everything random is drawn here, on one thread, so a seed gives the same sequence of requests
+                Scenario scenario = weighted.get(random.nextInt(weighted.size()));
+                HttpRequest request = request(scenario, users.get(random.nextInt(users.size())), random);
+                waitUntil(due);
+                EndpointStats endpoint = stats.get(scenario);
+                executor.execute(() -> execute(request, due, endpoint));
+            }
+        }
+        return stats;
+    }
+
+    private void execute(HttpRequest request, long due, EndpointStats stats) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - due;
+            if (response.statusCode() / 100 == 2) {
+                stats.success(latency);
+            } else {
+                stats.failure(latency, String.valueOf(response.statusCode()));
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            stats.failure(System.nanoTime() - due, e.getClass().getSimpleName());
+        }
+    }
+
+    private HttpRequest request(Scenario scenario, LoadUser user, Random random) {
+        return switch (scenario) {
+            case REGISTER -> post("/api/v1/auth/register", null,
+                    credentials("load-new-" + registrations.incrementAndGet() + "@example.com"));
+            case LOGIN -> post("/api/v1/auth/login", null, credentials(user.email()));
+            case HOLDINGS -> builder("/api/v1/holdings", user.token()).GET().build();
+            case SYNC -> builder("/api/v1/holdings", user.token())
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(holdingsBody(user.tickers(), random)))
+                    .build();
+            case ANALYSIS -> post("/api/v1/analysis/run", user.token(), "");
+        };
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String credentials(String email) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("email", email);
+        body.put("password", PASSWORD);
+        return jsonMapper.writeValueAsString(body);
+    }
+
+    private String holdingsBody(List<String> tickers, Random random) {
+        List<Map<String, Object>> holdings = new ArrayList<>();
+        for (String ticker : tickers) {
+            holdings.add(Map.of("ticker", ticker, "quantity", 1 + random.nextInt(500)));
+        }
+        return jsonMapper.writeValueAsString(holdings);
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import com.ishan.portfolio_risk_model.PortfolioRiskModelApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end load test: starts the app on an in-memory H2 database (schema built by the flyway
+ * migrations) with a {@link FlaskStub} in place of the flask service, registers users, then drives
+ * the scenario mix at the target rate and prints latency percentiles and failures per endpoint.
+ * See {@link LoadTestOptions#USAGE} for the options.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (FlaskStub flask = new FlaskStub(options.flaskMedian(), options.flaskP99(),
+                     options.flaskErrors(), options.seed());
+             ConfigurableApplicationContext app = startApp(flask, options.appArgs());
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver(httpClient, baseUrl);
+            Random random = new Random(options.seed());
+
+            System.out.printf("registering %d users%n", options.users());
+            List<LoadUser> users = driver.createUsers(options.users(), random);
+
+            if (!options.warmup().isZero()) {
+                System.out.printf("warming up for %s%n", options.warmup());
+                driver.run(options.mix(), options.rps(), options.warmup(), users, random);
+            }
+
+            System.out.printf("running %.1f req/s for %s%n", options.rps(), options.duration());
+            long flaskCallsBefore = flask.calls();
+            long flaskFailuresBefore = flask.failures();
+            Map<Scenario, EndpointStats> stats = driver.run(options.mix(), options.rps(), options.duration(),
+                    users, random);
+
+            printReport(options, stats);
+            System.out.printf("flask stub: %d calls, %d injected failures%n",
+                    flask.calls() - flaskCallsBefore, flask.failures() - flaskFailuresBefore);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApp(FlaskStub flask, List<String> appArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // postgres mode so the flyway migrations run as they do in production
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.security.debug=false",
+                "--analysis.reanalysis.cron=-",
+                "--logging.level.root=WARN",
+                // the report covers slow requests; one log line each would bury it
+                "--request-timing.slow-threshold=0",
+                "--flask.service.base-url=" + flask.baseUrl()));
+        // later arguments win, so the caller can override any of the above
+        args.addAll(appArgs);
+        return new SpringApplicationBuilder(PortfolioRiskModelApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static void printReport(LoadTestOptions options, Map<Scenario, EndpointStats> stats) {
+        double seconds = options.duration().toNanos() / 1e9;
+        System.out.println();
+        System.out.printf("%-28s %8s %8s %8s %9s %9s %9s %9s %9s  %s%n", "endpoint", "requests", "req/s",
+                "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "failures");
+        stats.forEach((scenario, endpoint) -> {
+            long count = endpoint.count();
+            String failures = endpoint.failuresByReason().entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(" "));
+            System.out.printf("%-28s %8d %8.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                    scenario.endpoint(), count, count / seconds,
+                    count == 0 ? 0 : 100.0 * endpoint.failureCount() / count,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(90), endpoint.percentileMillis(99),
+                    endpoint.percentileMillis(99.9), endpoint.maxMillis(), failures);
+        });
+        System.out.println();
+    }
+
+    private LoadTest() {
+    }
+}
@@ -0,0 +1,143 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link LoadTest}, all given as {@code --name=value}.
+ * Anything the harness doesn't recognise is passed on to the app, so app properties
+ * (e.g. {@code --spring.threads.virtual.enabled=false}) can be changed per run.
+ */
+record LoadTestOptions(
+        double rps,
+        Duration duration,
+        Duration warmup,
+        int users,
+        long seed,
+        Map<Scenario, Integer> mix,
+        Duration flaskMedian,
+        Duration flaskP99,
+        Map<Integer, Double> flaskErrors,
+        List<String> appArgs
+) {
+
+    static final String USAGE = """
+            Options (--name=value):
+              --rps=50                  target request rate, spread over the scenario mix
+              --duration=60s            measured run length
+              --warmup=15s              run at the target rate first, results discarded
+              --users=100               users registered (with holdings) before the run
+              --seed=42                 seeds scenario choice, holdings and the flask stub
+              --mix=register:1,login:1,holdings:4,sync:1,analysis:2
+                                        relative weight of each scenario
+              --flask-median=500ms      median flask regression latency (log-normal)
+              --flask-p99=2s            99th percentile flask regression latency
+              --flask-errors=500:0.01,404:0.01,429:0.005
+                                        share of flask calls failing with each status
+            Other --options are passed to the app.""";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("rps", "50");
+        values.put("duration", "60s");
+        values.put("warmup", "15s");
+        values.put("users", "100");
+        values.put("seed", "42");
+        values.put("mix", "register:1,login:1,holdings:4,sync:1,analysis:2");
+        values.put("flask-median", "500ms");
+        values.put("flask-p99", "2s");
+        values.put("flask-errors", "500:0.01,404:0.01,429:0.005");
+
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (values.containsKey(name)) {
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.get("rps")),
+                DurationStyle.detectAndParse(values.get("duration")),
+                DurationStyle.detectAndParse(values.get("warmup")),
+                Integer.parseInt(values.get("users")),
+                Long.parseLong(values.get("seed")),
+                parseMix(values.get("mix")),
+                DurationStyle.detectAndParse(values.get("flask-median")),
+                DurationStyle.detectAndParse(values.get("flask-p99")),
+                parseErrors(values.get("flask-errors")),
+                List.copyOf(appArgs)
+        );
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (rps <= 0) {
+            throw new IllegalArgumentException("rps must be positive");
+        }
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be at least 1");
+        }
+        if (flaskP99.compareTo(flaskMedian) < 0) {
+            throw new IllegalArgumentException("flask-p99 must not be below flask-median");
+        }
+        double errorShare = flaskErrors.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (errorShare > 1) {
+            throw new IllegalArgumentException("flask-errors add up to more than 1");
+        }
+    }
+
+    // "register:1,analysis:2" -> weights; scenarios left out don't run
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String[] pair : pairs(value)) {
+            int weight = Integer.parseInt(pair[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("mix weights must not be negative");
+            }
+            if (weight > 0) {
+                mix.put(Scenario.fromName(pair[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix needs at least one scenario");
+        }
+        return mix;
+    }
+
+    // "500:0.01,429:0.005" -> status to share of calls; empty for no errors
+    private static Map<Integer, Double> parseErrors(String value) {
+        Map<Integer, Double> errors = new LinkedHashMap<>();
+        for (String[] pair : pairs(value)) {
+            errors.put(Integer.parseInt(pair[0]), Double.parseDouble(pair[1]));
+        }
+        return errors;
+    }
+
+    private static List<String[]> pairs(String value) {
+        List<String[]> pairs = new ArrayList<>();
+        if (value.isBlank()) {
+            return pairs;
+        }
+        for (String entry : value.split(",")) {
+            String[] pair = entry.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("expected name:value but got " + entry);
+            }
+            pairs.add(pair);
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import java.util.List;
+
+/**
+ * A user registered before the run, with the tickers it holds.
+ */
+record LoadUser(String email, String token, List<String> tickers) {
+}
@@ -0,0 +1,34 @@
+package com.ishan.portfolio_risk_model.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * What a single load-test request does. Each scenario is one API call, reported as its own endpoint.
+ */
+enum Scenario {
+
+    REGISTER("register", "POST /api/v1/auth/register"),
+    LOGIN("login", "POST /api/v1/auth/login"),
+    HOLDINGS("holdings", "GET /api/v1/holdings"),
+    SYNC("sync", "PUT /api/v1/holdings"),
+    ANALYSIS("analysis", "POST /api/v1/analysis/run");
+
+    private final String optionName;
+    private final String endpoint;
+
+    Scenario(String optionName, String endpoint) {
+        this.optionName = optionName;
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Scenario fromName(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.optionName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("unknown scenario " + name));
+    }
+}
@@ -2,12 +2,20 @@ package com.ishan.portfolio_risk_model;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PortfolioRiskModelApplication {
 
+	// startup steps kept for /actuator/startup and the startup report; a few per bean, so plenty
+	private static final int STARTUP_STEPS = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(PortfolioRiskModelApplication.class, args);
+		SpringApplication application = new SpringApplication(PortfolioRiskModelApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
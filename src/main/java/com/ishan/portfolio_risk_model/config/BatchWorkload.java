@@ -0,0 +1,16 @@
+package com.ishan.portfolio_risk_model.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// runs the annotated bean method (or every method of the annotated bean) on the batch connection
+// pool, so long-running jobs queue for their own connections instead of taking interactive ones.
+// applied before @Transactional opens its connection
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchWorkload {
+}
@@ -0,0 +1,92 @@
+package com.ishan.portfolio_risk_model.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// connection pools for the primary database: "interactive" (spring.datasource.hikari) serves
+// requests, "batch" (datasource.batch.hikari) serves @BatchWorkload jobs. each hikari pool
+// reports its own hikaricp.* metrics tagged with the pool name
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("interactive");
+        return dataSource;
+    }
+
+    // small by default and patient: batch jobs wait for each other, not for request traffic
+    @Bean
+    @ConfigurationProperties("datasource.batch.hikari")
+    public HikariDataSource batchDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("batch");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(Duration.ofMinutes(2).toMillis());
+        return dataSource;
+    }
+
+    // the lazy proxy defers picking a pool until the first statement, by which point the
+    // workload is known and the transaction manager has marked the connection read-only (or not).
+    // read-only work goes to the replica when one is configured (see ReplicaDataSourceConfig)
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactiveDataSource") DataSource interactive,
+                                 @Qualifier("batchDataSource") DataSource batch,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> lagMonitor) {
+        DataSource primary = new WorkloadRoutingDataSource(interactive, batch);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+
+        DataSource replicaDataSource = replica.getIfAvailable();
+        if (replicaDataSource != null) {
+            proxy.setReadOnlyDataSource(
+                    new ReplicaRoutingDataSource(primary, replicaDataSource, lagMonitor.getObject()));
+        }
+        return proxy;
+    }
+
+    // switches to the batch pool around @BatchWorkload methods. ordered ahead of the transaction
+    // interceptor so the workload is set before a transaction takes its connection
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor batchWorkloadAdvisor() {
+        MethodInterceptor interceptor = invocation -> {
+            Workload previous = WorkloadRoutingDataSource.switchTo(Workload.BATCH);
+            try {
+                return invocation.proceed();
+            } finally {
+                WorkloadRoutingDataSource.restore(previous);
+            }
+        };
+
+        Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(BatchWorkload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(BatchWorkload.class));
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
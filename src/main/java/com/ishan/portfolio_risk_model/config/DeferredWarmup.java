@@ -0,0 +1,11 @@
+package com.ishan.portfolio_risk_model.config;
+
+// work that makes the first requests faster but isn't needed to serve them, such as filling caches.
+// DeferredWarmupRunner runs every such bean once at startup, by default after the app reports ready
+public interface DeferredWarmup {
+
+    // short name for logs and the startup.warmup timer
+    String getWarmupName();
+
+    void warmUp();
+}
@@ -0,0 +1,97 @@
+package com.ishan.portfolio_risk_model.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// runs the DeferredWarmup beans once per startup. "deferred" (the default) starts them on a virtual
+// thread once the app is ready, so the readiness probe passes and traffic arrives without waiting
+// for them; "inline" runs them before the app reports ready; "off" skips them. they run one after
+// another to keep startup load on the database low, and a failing one is logged and skipped
+@Slf4j
+@Component
+public class DeferredWarmupRunner {
+
+    public enum Mode {
+        DEFERRED,
+        INLINE,
+        OFF
+    }
+
+    private final List<DeferredWarmup> warmups;
+    private final MeterRegistry meterRegistry;
+    private final Mode mode;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    public DeferredWarmupRunner(List<DeferredWarmup> warmups,
+                                MeterRegistry meterRegistry,
+                                @Value("${startup.warmup.mode:deferred}") Mode mode) {
+        this.warmups = warmups;
+        this.meterRegistry = meterRegistry;
+        this.mode = mode;
+
+        // 1 once this startup's warm-ups are done (or skipped)
+        meterRegistry.gauge("startup.warmup.complete", done, latch -> latch.getCount() == 0 ? 1 : 0);
+    }
+
+    // refreshed but not yet ready: the readiness state is still REFUSING_TRAFFIC
+    @EventListener(ApplicationStartedEvent.class)
+    public void onStarted() {
+        if (mode == Mode.INLINE) {
+            runAll();
+        } else if (mode == Mode.OFF) {
+            done.countDown();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (mode == Mode.DEFERRED) {
+            Thread.ofVirtual().name("deferred-warmup").start(this::runAll);
+        }
+    }
+
+    // waits for this startup's warm-ups to finish; false if they are still running after the timeout
+    public boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        return done.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void runAll() {
+        try {
+            for (DeferredWarmup warmup : warmups) {
+                run(warmup);
+            }
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void run(DeferredWarmup warmup) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            warmup.warmUp();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            log.warn("Warm-up {} failed; its caches fill on demand instead", warmup.getWarmupName(), e);
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("startup.warmup")
+                .tag("name", warmup.getWarmupName())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warm-up {} ({}) took {}ms", warmup.getWarmupName(), mode.name().toLowerCase(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
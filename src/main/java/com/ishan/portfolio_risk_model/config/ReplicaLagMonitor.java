@@ -0,0 +1,76 @@
+package com.ishan.portfolio_risk_model.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// periodically measures replication lag and decides whether the replica may serve reads.
+// the replica counts as unusable until the first successful check
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties) {
+        this.replica = replica;
+        this.lagQuery = properties.getLagQuery();
+        this.maxLag = properties.getMaxLag();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalMillis = properties.getCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    // runs one lag check now; also used when a replica connection fails
+    public void checkLag() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+            if (wasUsable && !usable) {
+                log.warn("Replica lag {}s exceeds {}, routing reads to the primary", lagSeconds, maxLag);
+            }
+        } catch (Exception e) {
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica unavailable, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        if (!wasUsable && usable) {
+            log.info("Replica is within lag tolerance, serving read-only transactions from it");
+        }
+    }
+
+    // mark the replica down until the next successful check
+    void markUnavailable() {
+        usable = false;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ishan.portfolio_risk_model.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// settings for the optional read replica (datasource.replica.*). the replica's own hikari pool
+// is configured under datasource.replica.hikari
+@ConfigurationProperties("datasource.replica")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+
+    // replication lag above this sends read-only work back to the primary
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // how often the lag query runs
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    // returns the replica's lag in seconds; the default works on a postgres streaming replica. the age of
+    // the last replayed transaction only means lag while there is WAL left to replay: with a quiet primary
+    // it grows forever, so a replica that has replayed everything it received counts as 0
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) END";
+}
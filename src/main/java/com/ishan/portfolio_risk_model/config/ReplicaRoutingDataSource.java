@@ -0,0 +1,52 @@
+package com.ishan.portfolio_risk_model.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+// read-only side of the lazy connection proxy: hands out replica connections while the
+// replica is healthy and within lag tolerance, otherwise (or on any failure) primary ones
+@Slf4j
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        super(primary);
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+    }
+
+    // run a read that must see the latest committed writes (e.g. filling a cache) on the primary,
+    // even inside a read-only transaction. only affects connections acquired inside the call
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (FORCE_PRIMARY.get() || !lagMonitor.isReplicaUsable()) {
+            return super.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica connection failed, falling back to the primary: {}", e.getMessage());
+            lagMonitor.markUnavailable();
+            return super.getConnection();
+        }
+    }
+}
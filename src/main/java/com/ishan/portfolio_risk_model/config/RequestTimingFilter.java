@@ -0,0 +1,86 @@
+package com.ishan.portfolio_risk_model.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// starts a RequestTimings recorder for each request and sends what it collected as a Server-Timing
+// header, so the browser's network panel shows where a slow request spent its time. runs ahead of
+// the security filter chain so token checks are included. requests slower than
+// request-timing.slow-threshold are logged with the same breakdown
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final long slowThresholdNanos;
+
+    public RequestTimingFilter(@Value("${request-timing.slow-threshold:2s}") Duration slowThreshold) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        // headers can only be added until the body starts going out, so add it then; the
+        // timings are complete by that point apart from writing the body itself
+        TimingHeaderResponse timedResponse = new TimingHeaderResponse(response, timings);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            if (!response.isCommitted()) {
+                timedResponse.addTimingHeader();
+            }
+            RequestTimings.clear();
+            logIfSlow(request, timings);
+        }
+    }
+
+    private void logIfSlow(HttpServletRequest request, RequestTimings timings) {
+        long elapsedNanos = timings.elapsedNanos();
+        if (slowThresholdNanos > 0 && elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow request {} {} took {} ms: {}", request.getMethod(), request.getRequestURI(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), timings.toHeaderValue());
+        }
+    }
+
+    private static final class TimingHeaderResponse extends OnCommittedResponseWrapper {
+
+        private final HttpServletResponse response;
+        private final RequestTimings timings;
+        private boolean headerAdded;
+
+        TimingHeaderResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.response = response;
+            this.timings = timings;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addTimingHeader();
+        }
+
+        void addTimingHeader() {
+            if (!headerAdded) {
+                headerAdded = true;
+                response.setHeader(SERVER_TIMING_HEADER, timings.toHeaderValue());
+            }
+        }
+    }
+}
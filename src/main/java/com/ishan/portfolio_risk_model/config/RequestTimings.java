@@ -0,0 +1,83 @@
+package com.ishan.portfolio_risk_model.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// time spent in each stage of the current request (auth, db, flask, ...), collected for the
+// Server-Timing header. RequestTimingFilter starts a recorder per request on the request thread;
+// recording is a thread-local lookup and a map update, and does nothing outside a request.
+// work handed to other threads (multi-window runs, streamed analyses) isn't recorded
+public final class RequestTimings {
+
+    // stages recorded by this app
+    public static final String AUTH = "auth";
+    public static final String USER_LOOKUP = "user-lookup";
+    public static final String DB = "db";
+    public static final String FLASK = "flask";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    // stage name -> total nanos, in the order stages were first recorded
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+    // stage timed by time() that is running now; what is recorded inside it is already part of it
+    private String enclosingStage;
+
+    private RequestTimings() {
+    }
+
+    // add time to a stage of the current request. repeated stages (several queries) add up
+    public static void record(String stage, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null && timings.enclosingStage == null) {
+            timings.stageNanos.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    // run work as a stage of its own, so the repository calls it makes aren't counted in db as well
+    public static <T> T time(String stage, Supplier<T> work) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null || timings.enclosingStage != null) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        timings.enclosingStage = stage;
+        try {
+            return work.get();
+        } finally {
+            timings.enclosingStage = null;
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // Server-Timing value, e.g. "auth;dur=1.2, db;dur=4.0, flask;dur=830.0, total;dur=842.5" (milliseconds)
+    String toHeaderValue() {
+        StringBuilder value = new StringBuilder();
+        stageNanos.forEach((stage, nanos) -> appendMetric(value, stage, nanos));
+        appendMetric(value, "total", elapsedNanos());
+        return value.toString();
+    }
+
+    private void appendMetric(StringBuilder value, String name, long nanos) {
+        if (!value.isEmpty()) {
+            value.append(", ");
+        }
+        value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+    }
+}
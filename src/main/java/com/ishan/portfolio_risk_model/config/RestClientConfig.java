@@ -3,18 +3,38 @@ package com.ishan.portfolio_risk_model.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestClientConfig {
 
     @Value("${flask.service.base-url}")
     private String flaskBaseUrl;
 
+    @Value("${flask.service.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${flask.service.read-timeout:60s}")
+    private Duration readTimeout;
+
+    // the JDK http client blocks by parking rather than holding a monitor, so a request thread
+    // waiting on flask releases its carrier when running on a virtual thread
     @Bean
     public RestClient flaskRestClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
         return RestClient.builder()
                 .baseUrl(flaskBaseUrl)
+                .requestFactory(requestFactory)
                 .build();
     }
 
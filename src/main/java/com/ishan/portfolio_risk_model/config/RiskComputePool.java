@@ -0,0 +1,38 @@
+package com.ishan.portfolio_risk_model.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// fork-join pool for the cpu-bound risk calculations. one worker per core by default; kept apart from
+// the common pool so a large simulation doesn't hold up parallel streams elsewhere. wrapped rather than
+// registered as a bean, since an Executor bean would replace spring's applicationTaskExecutor
+@Component
+public class RiskComputePool {
+
+    private final ForkJoinPool pool;
+
+    public RiskComputePool(@Value("${risk.parallelism:0}") int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("risk.parallelism must not be negative");
+        }
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // runs the task on the pool and waits for it, rethrowing what it threw
+    public <T> T invoke(ForkJoinTask<T> task) {
+        return pool.invoke(task);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -1,9 +1,13 @@
 package com.ishan.portfolio_risk_model.config;
 
+import com.ishan.portfolio_risk_model.controller.AnalysisController;
 import com.ishan.portfolio_risk_model.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -29,13 +33,16 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserDetailsService userDetailsService;
     private final String frontendUrl;
+    private final int managementPort;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                           UserDetailsService userDetailsService,
-                          @Value("${frontend.url:http://localhost:3000}") String frontendUrl) {
+                          @Value("${frontend.url:http://localhost:3000}") String frontendUrl,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.userDetailsService = userDetailsService;
         this.frontendUrl = frontendUrl;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -51,7 +58,15 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // the original request of a streamed response was already authorized; the jwt filter
+                        // doesn't run again on the async dispatch that completes it
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/**", "/api/health").permitAll()
+                        // health probes don't carry user tokens
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // nor does the prometheus scraper, so it is let in only on the management port, which
+                        // stays off the public ingress. on the app's own port it needs a token like the rest
+                        .requestMatchers(this::isScrapeOnManagementPort).permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(ex -> ex
@@ -70,6 +85,11 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean isScrapeOnManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -92,7 +112,10 @@ public class SecurityConfig {
         ));
 
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        // the history ETag has to be readable and sendable back for a browser client to get its 304s
+        config.setAllowedHeaders(List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, HttpHeaders.IF_NONE_MATCH));
+        config.setExposedHeaders(List.of(AnalysisController.NEXT_CURSOR_HEADER, HttpHeaders.CONTENT_DISPOSITION,
+                HttpHeaders.ETAG));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
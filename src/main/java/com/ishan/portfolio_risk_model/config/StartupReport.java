@@ -0,0 +1,101 @@
+package com.ishan.portfolio_risk_model.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// the slowest bean initializations of this startup, logged once the app is ready and served at
+// /actuator/startupreport. built from the steps recorded by the BufferingApplicationStartup set in
+// main (/actuator/startup has the full timeline); without one, as in tests, the bean list is empty.
+// a bean's self time leaves out the beans created while it was being created, so the list points
+// at the bean doing the work rather than everything that depends on it
+@Slf4j
+@Component
+@Endpoint(id = "startupreport")
+public class StartupReport {
+
+    static final String BEAN_STEP = "spring.beans.instantiate";
+
+    public record BeanTiming(String bean, long selfMillis, long totalMillis) {
+    }
+
+    public record Report(long readyMillis, List<BeanTiming> slowestBeans) {
+    }
+
+    private final int topBeans;
+    private volatile Report report = new Report(0, List.of());
+
+    public StartupReport(@Value("${startup.report.top-beans:15}") int topBeans) {
+        this.topBeans = topBeans;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        List<BeanTiming> slowest = startup instanceof BufferingApplicationStartup buffering
+                ? slowestBeans(buffering.getBufferedTimeline(), topBeans)
+                : List.of();
+        report = new Report(event.getTimeTaken().toMillis(), slowest);
+
+        if (!slowest.isEmpty()) {
+            log.info("Ready in {}ms; slowest bean initializations (self/total ms): {}", report.readyMillis(),
+                    slowest.stream()
+                            .map(bean -> bean.bean() + " " + bean.selfMillis() + "/" + bean.totalMillis())
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+
+    @ReadOperation
+    public Report report() {
+        return report;
+    }
+
+    static List<BeanTiming> slowestBeans(StartupTimeline timeline, int limit) {
+        List<StartupTimeline.TimelineEvent> beans = timeline.getEvents().stream()
+                .filter(event -> BEAN_STEP.equals(event.getStartupStep().getName()))
+                .toList();
+
+        // time spent creating each bean's dependencies, keyed by the step that created them
+        Map<Long, Duration> nested = new HashMap<>();
+        for (StartupTimeline.TimelineEvent bean : beans) {
+            Long parentId = bean.getStartupStep().getParentId();
+            if (parentId != null) {
+                nested.merge(parentId, bean.getDuration(), Duration::plus);
+            }
+        }
+
+        return beans.stream()
+                .map(bean -> {
+                    Duration total = bean.getDuration();
+                    Duration self = total.minus(nested.getOrDefault(bean.getStartupStep().getId(), Duration.ZERO));
+                    return new BeanTiming(beanName(bean.getStartupStep()), self.toMillis(), total.toMillis());
+                })
+                .sorted(Comparator.comparingLong(BeanTiming::selfMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "(unnamed)";
+    }
+}
@@ -0,0 +1,7 @@
+package com.ishan.portfolio_risk_model.config;
+
+// kind of work a database connection is for; each has its own connection pool
+public enum Workload {
+    INTERACTIVE,
+    BATCH
+}
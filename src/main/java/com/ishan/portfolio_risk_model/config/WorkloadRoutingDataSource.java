@@ -0,0 +1,50 @@
+package com.ishan.portfolio_risk_model.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// picks the connection pool for the workload running on the current thread (interactive by default)
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Workload> CURRENT = ThreadLocal.withInitial(() -> Workload.INTERACTIVE);
+
+    public WorkloadRoutingDataSource(DataSource interactive, DataSource batch) {
+        setTargetDataSources(Map.of(Workload.INTERACTIVE, interactive, Workload.BATCH, batch));
+        setDefaultTargetDataSource(interactive);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static Workload currentWorkload() {
+        return CURRENT.get();
+    }
+
+    // run work with connections from the given workload's pool
+    public static <T> T runAs(Workload workload, Supplier<T> work) {
+        Workload previous = switchTo(workload);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // set the current thread's workload, returning the one to restore afterwards
+    static Workload switchTo(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(Workload previous) {
+        CURRENT.set(previous);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+}
@@ -1,11 +1,26 @@
 package com.ishan.portfolio_risk_model.controller;
 
+import com.ishan.portfolio_risk_model.dto.AnalysisHistoryPage;
 import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.AnalysisWindow;
+import com.ishan.portfolio_risk_model.dto.BootstrapAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.MultiWindowAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.VarResponse;
+import com.ishan.portfolio_risk_model.service.AnalysisExportFormat;
 import com.ishan.portfolio_risk_model.service.AnalysisService;
+import com.ishan.portfolio_risk_model.service.AnalysisStreamService;
+import com.ishan.portfolio_risk_model.service.BootstrapService;
+import com.ishan.portfolio_risk_model.service.RiskService;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,7 +30,12 @@ import java.util.List;
 @AllArgsConstructor
 public class AnalysisController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AnalysisService analysisService;
+    private final AnalysisStreamService analysisStreamService;
+    private final RiskService riskService;
+    private final BootstrapService bootstrapService;
 
     // run analysis on current user's portfolio
     @PostMapping("/run")
@@ -27,11 +47,80 @@ public class AnalysisController {
         return ResponseEntity.ok(analysisResponse);
     }
 
-    // get past analysis results for user
+    // run analysis and stream its progress as server-sent events: "stage" events as each step completes,
+    // then a "result" event with the AnalysisResponse or an "error" event. a POST because it saves a result,
+    // so clients read it with fetch (EventSource can't send the Authorization header either)
+    @PostMapping(value = "/run/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter runAnalysisStream(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            ) {
+        return analysisStreamService.runAnalysis(startDate, endDate);
+    }
+
+    // run analysis and bootstrap confidence intervals for alpha and the betas, e.g.
+    // ?method=block&iterations=5000&confidence=0.9. the result is saved like a plain run
+    @PostMapping("/run/bootstrap")
+    public ResponseEntity<BootstrapAnalysisResponse> runBootstrap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) Integer iterations,
+            @RequestParam(required = false) Integer blockDays,
+            @RequestParam(required = false) Double confidence,
+            @RequestParam(required = false) Long seed
+            ) {
+        BootstrapAnalysisResponse response = bootstrapService.runBootstrap(startDate, endDate, method, iterations,
+                blockDays, confidence, seed);
+        return ResponseEntity.ok(response);
+    }
+
+    // run several date windows in one request, e.g. 1, 3 and 5 years. holdings are loaded once and the
+    // windows run concurrently; each entry has its own result or error, so one bad window doesn't fail the rest
+    @PostMapping("/run/windows")
+    public ResponseEntity<MultiWindowAnalysisResponse> runAnalysisWindows(@RequestBody List<AnalysisWindow> windows) {
+        MultiWindowAnalysisResponse response = analysisService.runAnalysisWindows(windows);
+        return ResponseEntity.ok(response);
+    }
+
+    // get past analysis results for user, newest first. the body stays a plain list;
+    // when more results exist the cursor for the next page comes back in X-Next-Cursor.
+    // the ETag is the user's history version, checked before the history is queried
     @GetMapping("/history")
-    public ResponseEntity<List<AnalysisResponse>> getHistory() {
-        List<AnalysisResponse> history = analysisService.getHistory();
-        return ResponseEntity.ok(history);
+    public ResponseEntity<List<AnalysisResponse>> getHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest
+            ) {
+        long version = analysisService.getHistoryVersion();
+        String eTag = historyETag(version);
+        if (webRequest.checkNotModified(eTag)) {
+            // 304 already written
+            return null;
+        }
+
+        AnalysisHistoryPage page = analysisService.getHistory(cursor, limit, version);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    // download the user's whole history (?format=ndjson, the default, or csv). the body is streamed
+    // from a database cursor as it is written, on an async request thread
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(@RequestParam(defaultValue = "ndjson") String format) {
+        AnalysisExportFormat exportFormat = AnalysisExportFormat.fromParam(format);
+        StreamingResponseBody body = out -> analysisService.exportHistory(exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("analysis-history." + exportFormat.getFileExtension())
+                        .build().toString())
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -39,4 +128,38 @@ public class AnalysisController {
         AnalysisResponse response = analysisService.getAnalysisById(id);
         return ResponseEntity.ok(response);
     }
+
+    // monte carlo VaR and CVaR of a saved result, e.g. ?confidence=0.95,0.99&horizon=1,10&paths=100000.
+    // the same seed (default: the result id) gives the same numbers
+    @GetMapping("/{id}/var")
+    public ResponseEntity<VarResponse> getValueAtRisk(
+            @PathVariable Long id,
+            @RequestParam(required = false) List<Double> confidence,
+            @RequestParam(required = false) List<Integer> horizon,
+            @RequestParam(required = false) Integer paths,
+            @RequestParam(required = false) Long seed
+            ) {
+        VarResponse response = riskService.monteCarloVar(id, confidence, horizon, paths, seed);
+        return ResponseEntity.ok(response);
+    }
+
+    // historical-simulation VaR and CVaR of a saved result: its factor-implied returns replayed over
+    // startDate..endDate (default: the 3 years before the analysis), e.g. ?confidence=0.99&horizon=1,10
+    @GetMapping("/{id}/var/historical")
+    public ResponseEntity<VarResponse> getHistoricalValueAtRisk(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) List<Double> confidence,
+            @RequestParam(required = false) List<Integer> horizon
+            ) {
+        VarResponse response = riskService.historicalVar(id, startDate, endDate, confidence, horizon);
+        return ResponseEntity.ok(response);
+    }
+
+    // weak, because tomcat only gzips responses without a strong ETag (a compressed body is a
+    // different byte sequence) and full history pages are the payloads worth compressing
+    private static String historyETag(long version) {
+        return "W/\"history-" + version + "\"";
+    }
 }
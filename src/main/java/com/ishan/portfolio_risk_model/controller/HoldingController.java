@@ -1,15 +1,25 @@
 package com.ishan.portfolio_risk_model.controller;
 
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
 import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
 import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsSyncResponse;
 import com.ishan.portfolio_risk_model.service.HoldingService;
+import com.ishan.portfolio_risk_model.service.HoldingsCache;
+import com.ishan.portfolio_risk_model.service.HoldingsCsvParser;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 // REST contorller for all holdings requests
@@ -20,11 +30,20 @@ public class HoldingController {
 
     private final HoldingService holdingService;
 
-    // get all holdings
+    // get all holdings. the ETag is the user's holdings version from the database, so a poll whose
+    // If-None-Match still matches gets a 304 without loading the holdings, whichever instance wrote last
     @GetMapping
-    public ResponseEntity<List<HoldingsResponse>> getHoldings() {
-        List<HoldingsResponse> holdings = holdingService.getHoldings();
-        return ResponseEntity.ok(holdings);
+    public ResponseEntity<List<HoldingsResponse>> getHoldings(@AuthenticationPrincipal UserEntity user,
+                                                              WebRequest webRequest) {
+        if (webRequest.checkNotModified(holdingsETag(user, holdingService.getHoldingsVersion()))) {
+            // 304 already written
+            return null;
+        }
+
+        HoldingsCache.CachedHoldings holdings = holdingService.getHoldingsSnapshot();
+        return ResponseEntity.ok()
+                .eTag(holdingsETag(user, holdings.getVersion()))
+                .body(holdings.getHoldings());
     }
 
     // create a new holding
@@ -34,6 +53,36 @@ public class HoldingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(holding);
     }
 
+    // bulk import from a JSON array
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<HoldingsResponse>> importHoldings(@RequestBody List<HoldingsRequest> requests) {
+        List<HoldingsResponse> holdings = holdingService.importHoldings(requests);
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdings);
+    }
+
+    // bulk import from a raw ticker,quantity CSV body
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<List<HoldingsResponse>> importHoldingsCsv(@RequestBody String csv) {
+        List<HoldingsResponse> holdings = holdingService.importHoldings(HoldingsCsvParser.parse(csv));
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdings);
+    }
+
+    // bulk import from an uploaded CSV file
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<HoldingsResponse>> importHoldingsFile(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        String csv = new String(file.getBytes(), StandardCharsets.UTF_8);
+        List<HoldingsResponse> holdings = holdingService.importHoldings(HoldingsCsvParser.parse(csv));
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdings);
+    }
+
+    // replace all holdings with the given set
+    @PutMapping
+    public ResponseEntity<HoldingsSyncResponse> syncHoldings(@RequestBody List<HoldingsRequest> requests) {
+        HoldingsSyncResponse result = holdingService.syncHoldings(requests);
+        return ResponseEntity.ok(result);
+    }
+
     // update a holding
     @PutMapping("/{id}")
     public ResponseEntity<HoldingsResponse> updateHolding(
@@ -50,4 +99,10 @@ public class HoldingController {
         holdingService.deleteHolding(id);
         return ResponseEntity.noContent().build();
     }
+
+    // strong: the same version always serializes to the same bytes. versions count per user, so the
+    // user id keeps one user's ETag from matching another's
+    private static String holdingsETag(UserEntity user, long version) {
+        return "\"holdings-" + user.getId() + "-" + version + "\"";
+    }
 }
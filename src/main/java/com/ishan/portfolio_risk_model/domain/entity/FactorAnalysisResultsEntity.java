@@ -1,5 +1,6 @@
 package com.ishan.portfolio_risk_model.domain.entity;
 
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisResultView;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,8 +12,8 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Table(name = "factor_analysis_results",
-        indexes = @Index(name = "idx_results_user", columnList = "user_id"))
-public class FactorAnalysisResultsEntity {
+        indexes = @Index(name = "idx_results_user_date", columnList = "user_id, analysis_date DESC, id DESC"))
+public class FactorAnalysisResultsEntity implements AnalysisResultView {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,4 +46,48 @@ public class FactorAnalysisResultsEntity {
 
     @Column(name = "r_squared", precision = 10, scale = 6, nullable = false)
     private BigDecimal rSquared;
+
+    // regression statistics, one column per coefficient so history reads never go back to flask.
+    // nullable because results saved before these columns existed don't have them
+    @Column(name = "t_stat_alpha", precision = 19, scale = 10)
+    private BigDecimal tStatAlpha;
+
+    @Column(name = "t_stat_mkt", precision = 19, scale = 10)
+    private BigDecimal tStatMkt;
+
+    @Column(name = "t_stat_smb", precision = 19, scale = 10)
+    private BigDecimal tStatSmb;
+
+    @Column(name = "t_stat_hml", precision = 19, scale = 10)
+    private BigDecimal tStatHml;
+
+    @Column(name = "t_stat_rmw", precision = 19, scale = 10)
+    private BigDecimal tStatRmw;
+
+    @Column(name = "t_stat_cma", precision = 19, scale = 10)
+    private BigDecimal tStatCma;
+
+    @Column(name = "std_err_alpha", precision = 19, scale = 10)
+    private BigDecimal stdErrAlpha;
+
+    @Column(name = "std_err_mkt", precision = 19, scale = 10)
+    private BigDecimal stdErrMkt;
+
+    @Column(name = "std_err_smb", precision = 19, scale = 10)
+    private BigDecimal stdErrSmb;
+
+    @Column(name = "std_err_hml", precision = 19, scale = 10)
+    private BigDecimal stdErrHml;
+
+    @Column(name = "std_err_rmw", precision = 19, scale = 10)
+    private BigDecimal stdErrRmw;
+
+    @Column(name = "std_err_cma", precision = 19, scale = 10)
+    private BigDecimal stdErrCma;
+
+    @Column(name = "residual_variance", precision = 19, scale = 12)
+    private BigDecimal residualVariance;
+
+    @Column(name = "n_observations")
+    private Integer nObservations;
 }
@@ -10,7 +10,8 @@ import java.time.LocalDate;
 @Entity
 @Getter
 @Setter
-@Table(name = "fama_french_factors")
+@Table(name = "fama_french_factors",
+        indexes = @Index(name = "idx_factors_date", columnList = "factor_date", unique = true))
 public class FamaFrenchFactorEntity {
 
     @Id
@@ -0,0 +1,38 @@
+package com.ishan.portfolio_risk_model.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// how far the re-analysis job has got through the users for one release of factor data
+@Entity
+@Getter
+@Setter
+@Table(name = "reanalysis_checkpoints")
+public class ReanalysisCheckpointEntity {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    // latest factor date the run analyzes against; newer factor data starts a new run
+    @Column(name = "factor_date", nullable = false)
+    private LocalDate factorDate;
+
+    // users are processed in id order, so every user up to this one is done
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // null while the run is unfinished
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
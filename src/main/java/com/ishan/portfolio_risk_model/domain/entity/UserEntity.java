@@ -78,4 +78,9 @@ public class UserEntity implements UserDetails {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Role role;
+
+    // bumped in the database by every holdings write (UserRepository.incrementHoldingsVersion). starts at 0
+    // and is never updated from here, so saving a stale user can't roll it back
+    @Column(name = "holdings_version", nullable = false, updatable = false)
+    private long holdingsVersion;
 }
@@ -0,0 +1,7 @@
+package com.ishan.portfolio_risk_model.domain.projection;
+
+// interface projection returned by the history queries. it adds nothing to AnalysisResultView, but spring data
+// only builds a column projection when the return type is not a supertype of the entity, so it can't be the
+// interface FactorAnalysisResultsEntity implements
+public interface AnalysisHistoryRow extends AnalysisResultView {
+}
@@ -0,0 +1,55 @@
+package com.ishan.portfolio_risk_model.domain.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// read-only view of an analysis result: every column the API returns, nothing else (no user join).
+// FactorAnalysisResultsEntity implements it too so both map through the same code
+public interface AnalysisResultView {
+
+    Long getId();
+
+    LocalDateTime getAnalysisDate();
+
+    BigDecimal getAlpha();
+
+    BigDecimal getBetaMkt();
+
+    BigDecimal getBetaSmb();
+
+    BigDecimal getBetaHml();
+
+    BigDecimal getBetaRmw();
+
+    BigDecimal getBetaCma();
+
+    BigDecimal getRSquared();
+
+    BigDecimal getTStatAlpha();
+
+    BigDecimal getTStatMkt();
+
+    BigDecimal getTStatSmb();
+
+    BigDecimal getTStatHml();
+
+    BigDecimal getTStatRmw();
+
+    BigDecimal getTStatCma();
+
+    BigDecimal getStdErrAlpha();
+
+    BigDecimal getStdErrMkt();
+
+    BigDecimal getStdErrSmb();
+
+    BigDecimal getStdErrHml();
+
+    BigDecimal getStdErrRmw();
+
+    BigDecimal getStdErrCma();
+
+    BigDecimal getResidualVariance();
+
+    Integer getNObservations();
+}
@@ -0,0 +1,9 @@
+package com.ishan.portfolio_risk_model.domain.projection;
+
+// a user's id and holdings version, without loading the user (holdings cache warm-up)
+public interface UserHoldingsVersion {
+
+    Long getId();
+
+    long getHoldingsVersion();
+}
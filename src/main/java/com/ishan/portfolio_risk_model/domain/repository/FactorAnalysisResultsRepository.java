@@ -2,15 +2,81 @@ package com.ishan.portfolio_risk_model.domain.repository;
 
 import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisHistoryRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface FactorAnalysisResultsRepository extends JpaRepository<FactorAnalysisResultsEntity, Long> {
 
+    // columns selected by the history projections, aliased to the AnalysisResultView property names
+    String VIEW_COLUMNS = """
+            r.id as id, r.analysisDate as analysisDate, r.alpha as alpha,
+            r.betaMkt as betaMkt, r.betaSmb as betaSmb, r.betaHml as betaHml,
+            r.betaRmw as betaRmw, r.betaCma as betaCma, r.rSquared as RSquared,
+            r.tStatAlpha as TStatAlpha, r.tStatMkt as TStatMkt, r.tStatSmb as TStatSmb,
+            r.tStatHml as TStatHml, r.tStatRmw as TStatRmw, r.tStatCma as TStatCma,
+            r.stdErrAlpha as stdErrAlpha, r.stdErrMkt as stdErrMkt, r.stdErrSmb as stdErrSmb,
+            r.stdErrHml as stdErrHml, r.stdErrRmw as stdErrRmw, r.stdErrCma as stdErrCma,
+            r.residualVariance as residualVariance, r.nObservations as NObservations
+            """;
+
     List<FactorAnalysisResultsEntity> findByUserOrderByAnalysisDateDesc(UserEntity user);
 
     List<FactorAnalysisResultsEntity> findByUserIdOrderByAnalysisDateDesc(Long userId);
+
+    // the user's newest result id, 0 without results: the history version. served by idx_results_user_id
+    @Transactional(readOnly = true)
+    @Query("select coalesce(max(r.id), 0) from FactorAnalysisResultsEntity r where r.user.id = :userId")
+    long findHistoryVersion(@Param("userId") Long userId);
+
+    // first page of a user's history, newest first; served by idx_results_user_date.
+    // the history page queries run read-only on their own so they can be sent to the replica
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW_COLUMNS + """
+            from FactorAnalysisResultsEntity r
+            where r.user.id = :userId
+            order by r.analysisDate desc, r.id desc
+            """)
+    List<AnalysisHistoryRow> findHistoryPage(@Param("userId") Long userId, Limit limit);
+
+    // next page: everything strictly after the (analysisDate, id) keyset of the last row already returned
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW_COLUMNS + """
+            from FactorAnalysisResultsEntity r
+            where r.user.id = :userId
+              and (r.analysisDate < :analysisDate
+                   or (r.analysisDate = :analysisDate and r.id < :id))
+            order by r.analysisDate desc, r.id desc
+            """)
+    List<AnalysisHistoryRow> findHistoryPageAfter(@Param("userId") Long userId,
+                                                  @Param("analysisDate") LocalDateTime analysisDate,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
+    // owners of the newest results, newest first (ids grow with the analysis date), repeating users
+    // with several recent results. walks the primary key backwards, so it stays cheap on a large table
+    @Query("select r.user.id from FactorAnalysisResultsEntity r order by r.id desc")
+    List<Long> findRecentResultUserIds(Limit limit);
+
+    // a user's whole history, newest first, read through a database cursor in chunks of the fetch size
+    // instead of being loaded at once. must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select " + VIEW_COLUMNS + """
+            from FactorAnalysisResultsEntity r
+            where r.user.id = :userId
+            order by r.analysisDate desc, r.id desc
+            """)
+    Stream<AnalysisHistoryRow> streamHistory(@Param("userId") Long userId);
 }
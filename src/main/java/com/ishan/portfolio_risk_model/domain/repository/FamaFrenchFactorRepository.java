@@ -2,6 +2,7 @@ package com.ishan.portfolio_risk_model.domain.repository;
 
 import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -15,5 +16,12 @@ public interface FamaFrenchFactorRepository extends JpaRepository<FamaFrenchFact
 
     List<FamaFrenchFactorEntity> findByFactorDateBetween(LocalDate startDate, LocalDate endDate);
 
+    // in date order, for replaying the days in sequence
+    List<FamaFrenchFactorEntity> findByFactorDateBetweenOrderByFactorDateAsc(LocalDate startDate, LocalDate endDate);
+
     boolean existsByFactorDate(LocalDate factorDate);
+
+    // date of the newest factor data loaded; empty before any is loaded
+    @Query("select max(f.factorDate) from FamaFrenchFactorEntity f")
+    Optional<LocalDate> findLatestFactorDate();
 }
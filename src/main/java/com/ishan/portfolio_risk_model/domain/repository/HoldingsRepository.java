@@ -2,11 +2,16 @@ package com.ishan.portfolio_risk_model.domain.repository;
 
 import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface HoldingsRepository extends JpaRepository<HoldingsEntity, Long> {
@@ -14,8 +19,22 @@ public interface HoldingsRepository extends JpaRepository<HoldingsEntity, Long>
     List<HoldingsEntity> findByUser(UserEntity user);
 
     List<HoldingsEntity> findByUserId(Long userId);
+
+    // holdings of a whole chunk of users in one query (batch re-analysis)
+    List<HoldingsEntity> findByUserIdIn(Collection<Long> userIds);
+
+    // next users with at least one holding, in id order, for walking every user in chunks
+    @Query("select distinct h.user.id from HoldingsEntity h where h.user.id > :afterId order by h.user.id")
+    List<Long> findUserIdsWithHoldingsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select count(distinct h.user.id) from HoldingsEntity h where h.user.id > :afterId")
+    long countUsersWithHoldingsAfter(@Param("afterId") Long afterId);
     
     Optional<HoldingsEntity> findByUserAndTicker(UserEntity user, String ticker);
 
     boolean existsByUserAndTicker(UserEntity user, String ticker);
+
+    // every ticker the user already holds, for duplicate checks on bulk writes
+    @Query("select h.ticker from HoldingsEntity h where h.user = :user")
+    Set<String> findTickersByUser(@Param("user") UserEntity user);
 }
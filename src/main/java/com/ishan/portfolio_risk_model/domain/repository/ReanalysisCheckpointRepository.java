@@ -0,0 +1,53 @@
+package com.ishan.portfolio_risk_model.domain.repository;
+
+import com.ishan.portfolio_risk_model.domain.entity.ReanalysisCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// every write below is conditional on the row still being where the caller last saw it, and returns the
+// number of rows changed: 0 means another instance got there first. each joins the caller's transaction
+@Repository
+public interface ReanalysisCheckpointRepository extends JpaRepository<ReanalysisCheckpointEntity, String> {
+
+    // first run of the job; fails with a duplicate key when another instance inserted the row first
+    @Transactional
+    @Modifying
+    @Query(value = "insert into reanalysis_checkpoints (job_name, factor_date, last_user_id, started_at, updated_at) "
+            + "values (:jobName, :factorDate, 0, :now, :now)", nativeQuery = true)
+    int insertStarted(@Param("jobName") String jobName, @Param("factorDate") LocalDate factorDate,
+                      @Param("now") LocalDateTime now);
+
+    // start over from the first user for newer factor data, if the row still has the factor date it was read with
+    @Transactional
+    @Modifying
+    @Query("update ReanalysisCheckpointEntity c set c.factorDate = :factorDate, c.lastUserId = 0L, "
+            + "c.startedAt = :now, c.updatedAt = :now, c.completedAt = null "
+            + "where c.jobName = :jobName and c.factorDate = :previousFactorDate")
+    int restart(@Param("jobName") String jobName, @Param("previousFactorDate") LocalDate previousFactorDate,
+                @Param("factorDate") LocalDate factorDate, @Param("now") LocalDateTime now);
+
+    // claims a chunk: moves the checkpoint from expectedUserId past the chunk
+    @Transactional
+    @Modifying
+    @Query("update ReanalysisCheckpointEntity c set c.lastUserId = :lastUserId, c.updatedAt = :now "
+            + "where c.jobName = :jobName and c.factorDate = :factorDate and c.lastUserId = :expectedUserId "
+            + "and c.completedAt is null")
+    int advance(@Param("jobName") String jobName, @Param("factorDate") LocalDate factorDate,
+                @Param("expectedUserId") Long expectedUserId, @Param("lastUserId") Long lastUserId,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update ReanalysisCheckpointEntity c set c.completedAt = :now, c.updatedAt = :now "
+            + "where c.jobName = :jobName and c.factorDate = :factorDate and c.lastUserId = :expectedUserId "
+            + "and c.completedAt is null")
+    int complete(@Param("jobName") String jobName, @Param("factorDate") LocalDate factorDate,
+                 @Param("expectedUserId") Long expectedUserId, @Param("now") LocalDateTime now);
+}
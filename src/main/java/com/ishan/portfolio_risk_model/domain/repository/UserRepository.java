@@ -1,9 +1,16 @@
 package com.ishan.portfolio_risk_model.domain.repository;
 
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.UserHoldingsVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +19,17 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // current version of the user's holdings, read from the database rather than a loaded entity
+    @Query("select u.holdingsVersion from UserEntity u where u.id = :userId")
+    long findHoldingsVersionById(@Param("userId") Long userId);
+
+    // holdings versions of the listed users in one query (cache warm-up)
+    List<UserHoldingsVersion> findHoldingsVersionsByIdIn(Collection<Long> userIds);
+
+    // marks the user's holdings changed; joins the writing transaction when there is one
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.holdingsVersion = u.holdingsVersion + 1 where u.id = :userId")
+    void incrementHoldingsVersion(@Param("userId") Long userId);
 }
@@ -0,0 +1,19 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// one page of analysis history plus the cursor for the next page (null on the last page)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AnalysisHistoryPage {
+
+    private List<AnalysisResponse> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// data of a "stage" event on the analysis progress stream
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AnalysisProgressEvent {
+
+    private String stage;
+    // time since the run started
+    private long elapsedMillis;
+}
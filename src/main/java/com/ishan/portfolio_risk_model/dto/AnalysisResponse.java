@@ -26,4 +26,7 @@ public class AnalysisResponse {
     private BigDecimal betaCma;
     private BigDecimal rSquared;
     private Map<String, BigDecimal> tStats;
+    private Map<String, BigDecimal> stdErrors;
+    private BigDecimal residualVariance;
+    private Integer nObservations;
 }
@@ -0,0 +1,19 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// one date range of a multi-window analysis. missing dates default like /run: today and three years before the end
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AnalysisWindow {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
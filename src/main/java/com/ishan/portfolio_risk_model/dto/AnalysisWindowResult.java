@@ -0,0 +1,25 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// outcome of one window: the saved result, or the error that window failed with (the others still run)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AnalysisWindowResult {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // wall-clock time of this window's flask call and save
+    private long durationMillis;
+    private AnalysisResponse result;
+    private String error;
+    // http status the window would have failed with on its own (e.g. 404 for an unknown ticker)
+    private Integer errorStatus;
+}
@@ -0,0 +1,32 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// a new analysis result with bootstrap confidence intervals for its coefficients
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BootstrapAnalysisResponse {
+
+    // the saved result, as returned by a plain run
+    private AnalysisResponse result;
+    // residual or block
+    private String method;
+    private int iterations;
+    // block resamples that couldn't identify every coefficient, left out of the intervals
+    private int singularResamples;
+    // days per resampled block; null for residual resampling
+    private Integer blockDays;
+    private BigDecimal confidence;
+    private Long seed;
+    // days with both a portfolio return and factor data
+    private int observations;
+    private List<CoefficientInterval> intervals;
+}
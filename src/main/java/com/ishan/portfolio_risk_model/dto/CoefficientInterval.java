@@ -0,0 +1,26 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// bootstrap confidence interval of one regression coefficient
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CoefficientInterval {
+
+    // alpha, mkt, smb, hml, rmw or cma (the keys of tStats)
+    private String coefficient;
+    // least-squares estimate over the days that were resampled
+    private BigDecimal estimate;
+    // percentile interval of the bootstrap estimates; null, like stdError, when every resample was singular
+    private BigDecimal lower;
+    private BigDecimal upper;
+    // standard deviation of the bootstrap estimates
+    private BigDecimal stdError;
+}
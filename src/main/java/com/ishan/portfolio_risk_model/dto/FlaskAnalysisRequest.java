@@ -26,4 +26,10 @@ public class FlaskAnalysisRequest {
     private List<FlaskHolding> holdings;
     private String startDate;
     private String endDate;
+    // also send back the daily portfolio returns the regression ran on (for the bootstrap)
+    private boolean includeDailyReturns;
+
+    public FlaskAnalysisRequest(List<FlaskHolding> holdings, String startDate, String endDate) {
+        this(holdings, startDate, endDate, false);
+    }
 }
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 // response body recieved from the flask analysis service
@@ -15,6 +16,15 @@ import java.util.Map;
 @Setter
 public class FlaskAnalysisResponse {
 
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Setter
+    @Getter
+    public static class DailyReturn {
+        private String date;
+        private BigDecimal portfolioReturn;
+    }
+
     private BigDecimal alpha;
     private BigDecimal betaMkt;
     private BigDecimal betaSmb;
@@ -23,4 +33,9 @@ public class FlaskAnalysisResponse {
     private BigDecimal betaCma;
     private BigDecimal rSquared;
     private Map<String, BigDecimal> tStats;
+    private Map<String, BigDecimal> stdErrors;
+    private BigDecimal residualVariance;
+    private Integer nObservations;
+    // only when the request asked for includeDailyReturns
+    private List<DailyReturn> dailyReturns;
 }
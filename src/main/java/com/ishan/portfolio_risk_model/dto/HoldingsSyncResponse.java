@@ -0,0 +1,19 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// response body for a holdings sync: how many rows each kind of change touched
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class HoldingsSyncResponse {
+
+    private int created;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+}
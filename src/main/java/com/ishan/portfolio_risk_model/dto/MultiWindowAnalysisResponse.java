@@ -0,0 +1,20 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// response body of a multi-window run: one entry per requested window, in request order
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class MultiWindowAnalysisResponse {
+
+    private List<AnalysisWindowResult> windows;
+    // wall-clock time of the whole request; less than the sum of the windows since they run concurrently
+    private long durationMillis;
+}
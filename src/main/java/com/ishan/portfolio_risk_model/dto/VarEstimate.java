@@ -0,0 +1,23 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// value-at-risk and expected shortfall at one horizon and confidence level, as fractions of the
+// portfolio value (0.0321 = a 3.21% loss; negative means a gain even in the tail)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class VarEstimate {
+
+    private int horizonDays;
+    private BigDecimal confidence;
+    private BigDecimal var;
+    // mean loss beyond the VaR (CVaR / expected shortfall)
+    private BigDecimal cvar;
+}
@@ -0,0 +1,28 @@
+package com.ishan.portfolio_risk_model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// risk estimates for a saved analysis result
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class VarResponse {
+
+    private Long analysisId;
+    private String method;
+    // factor history the covariance (or the replayed returns) came from
+    private LocalDate factorStartDate;
+    private LocalDate factorEndDate;
+    private int factorDays;
+    // simulated paths and the seed; null for historical simulation
+    private Integer paths;
+    private Long seed;
+    private List<VarEstimate> estimates;
+}
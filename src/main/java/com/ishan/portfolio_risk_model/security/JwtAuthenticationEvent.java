@@ -0,0 +1,33 @@
+package com.ishan.portfolio_risk_model.security;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR event spanning the token check in JwtAuthenticationFilter, split into parsing the token
+// and loading its user
+@Name(JwtAuthenticationEvent.NAME)
+@Label("JWT Authentication")
+@Category({"Portfolio Risk Model", "Security"})
+@Description("Bearer token check for one request")
+@StackTrace(false)
+class JwtAuthenticationEvent extends Event {
+
+    static final String NAME = "com.ishan.portfolio_risk_model.JwtAuthentication";
+
+    @Label("Outcome")
+    @Description("authenticated, invalid, rejected or skipped")
+    String outcome;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseNanos;
+
+    @Label("User Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long userLoadNanos;
+}
@@ -1,5 +1,8 @@
 package com.ishan.portfolio_risk_model.security;
 
+import com.ishan.portfolio_risk_model.config.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,10 +22,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
     }
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -40,43 +46,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // extract the token (remove bearer prefix)
-        final String token = authHeader.substring(7);
+        // time the token check (parsing, user lookup, validation) but not the rest of the request
+        JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = authenticate(authHeader.substring(7), request, event);
+        event.outcome = outcome;
+        event.commit();
+        long nanos = sample.stop(Timer.builder("jwt.authentication")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        // the user lookup is its own stage
+        RequestTimings.record(RequestTimings.AUTH, nanos - event.userLoadNanos);
 
+        // continue to next filter
+        filterChain.doFilter(request, response);
+    }
+
+    // authenticate the request from its token (bearer prefix removed), returning the outcome for the timer.
+    // time spent parsing the token and loading the user is added to the event
+    private String authenticate(String token, HttpServletRequest request, JwtAuthenticationEvent event) {
         // extract email — if the token is expired or malformed, skip authentication
         final String userEmail;
+        long parseStart = System.nanoTime();
         try {
             userEmail = jwtService.extractEmail(token);
         } catch (Exception e) {
             // any exception during token parsing (expired, malformed, bad key, etc.)
             // means we treat the request as unauthenticated and let Spring Security decide
-            filterChain.doFilter(request, response);
-            return;
+            return "invalid";
+        } finally {
+            event.parseNanos = System.nanoTime() - parseStart;
         }
 
         // if we have an email AND user is not already authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // load user details from database
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (userEmail == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return "skipped";
+        }
 
-            if (jwtService.isTokenValid(token, userDetails)) {
+        // load user details from database
+        long loadStart = System.nanoTime();
+        UserDetails userDetails = RequestTimings.time(RequestTimings.USER_LOOKUP,
+                () -> this.userDetailsService.loadUserByUsername(userEmail));
+        event.userLoadNanos = System.nanoTime() - loadStart;
 
-                // create an authentication token to tell sprin security the user is authenticated
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,  // the user
-                        null,  // credentials (null because we have already verified)
-                        userDetails.getAuthorities()  // user's roles/permissions
-                );
+        // validating parses the token again
+        long validateStart = System.nanoTime();
+        boolean valid = jwtService.isTokenValid(token, userDetails);
+        event.parseNanos += System.nanoTime() - validateStart;
+        if (!valid) {
+            return "rejected";
+        }
 
-                // add request details (ip, session ID, etc.)
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // create an authentication token to tell sprin security the user is authenticated
+        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                userDetails,  // the user
+                null,  // credentials (null because we have already verified)
+                userDetails.getAuthorities()  // user's roles/permissions
+        );
 
-                // set the authentication in Security context so spring know user is authenticated
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
-        }
+        // add request details (ip, session ID, etc.)
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-        // continue to next filter
-        filterChain.doFilter(request, response);
+        // set the authentication in Security context so spring know user is authenticated
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        return "authenticated";
     }
 }
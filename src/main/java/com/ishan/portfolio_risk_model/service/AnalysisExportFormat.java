@@ -0,0 +1,29 @@
+package com.ishan.portfolio_risk_model.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+
+// file formats offered by the history export
+@Getter
+@AllArgsConstructor
+public enum AnalysisExportFormat {
+
+    // one AnalysisResponse JSON object per line
+    NDJSON("application/x-ndjson", "ndjson"),
+    // one flat row per result, regression statistics as their own columns
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    // parse the ?format= query parameter
+    public static AnalysisExportFormat fromParam(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// writes analysis results to an export one row at a time. nothing is collected, so memory use
+// stays the same however many rows the stream produces
+@Component
+@AllArgsConstructor
+public class AnalysisExportWriter {
+
+    // keys of the tStats / stdErrors maps, in column order
+    private static final List<String> STAT_KEYS = List.of("alpha", "mkt", "smb", "hml", "rmw", "cma");
+    private static final List<String> STAT_COLUMN_SUFFIXES = List.of("Alpha", "Mkt", "Smb", "Hml", "Rmw", "Cma");
+
+    private final JsonMapper jsonMapper;
+
+    public void write(Stream<AnalysisResponse> rows, AnalysisExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == AnalysisExportFormat.CSV) {
+            writer.write(csvHeader());
+        }
+
+        Iterator<AnalysisResponse> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            AnalysisResponse row = iterator.next();
+            if (format == AnalysisExportFormat.NDJSON) {
+                // same shape as the JSON api
+                writer.write(jsonMapper.writeValueAsString(row));
+                writer.write('\n');
+            } else {
+                writeCsvRow(writer, row);
+            }
+        }
+        // flush, not close: the caller owns the stream
+        writer.flush();
+    }
+
+    private String csvHeader() {
+        StringBuilder header = new StringBuilder(
+                "id,analysisDate,alpha,betaMkt,betaSmb,betaHml,betaRmw,betaCma,rSquared");
+        STAT_COLUMN_SUFFIXES.forEach(suffix -> header.append(",tStat").append(suffix));
+        STAT_COLUMN_SUFFIXES.forEach(suffix -> header.append(",stdErr").append(suffix));
+        return header.append(",residualVariance,nObservations\n").toString();
+    }
+
+    // every value is a number or an ISO date, so nothing needs quoting
+    private void writeCsvRow(Writer writer, AnalysisResponse row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(row.getAnalysisDate() != null ? row.getAnalysisDate().toString() : "");
+        writeDecimals(writer, row.getAlpha(), row.getBetaMkt(), row.getBetaSmb(), row.getBetaHml(),
+                row.getBetaRmw(), row.getBetaCma(), row.getRSquared());
+        writeStats(writer, row.getTStats());
+        writeStats(writer, row.getStdErrors());
+        writeDecimals(writer, row.getResidualVariance());
+        writer.write(',');
+        writer.write(row.getNObservations() != null ? row.getNObservations().toString() : "");
+        writer.write('\n');
+    }
+
+    private void writeStats(Writer writer, Map<String, BigDecimal> stats) throws IOException {
+        for (String key : STAT_KEYS) {
+            writeDecimals(writer, stats != null ? stats.get(key) : null);
+        }
+    }
+
+    private void writeDecimals(Writer writer, BigDecimal... values) throws IOException {
+        for (BigDecimal value : values) {
+            writer.write(',');
+            if (value != null) {
+                writer.write(value.toPlainString());
+            }
+        }
+    }
+}
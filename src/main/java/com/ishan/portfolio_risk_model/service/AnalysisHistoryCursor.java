@@ -0,0 +1,40 @@
+package com.ishan.portfolio_risk_model.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// opaque keyset cursor for analysis history: the (analysisDate, id) of the last row on a page
+@Getter
+@AllArgsConstructor
+public class AnalysisHistoryCursor {
+
+    private final LocalDateTime analysisDate;
+    private final Long id;
+
+    public String encode() {
+        String raw = analysisDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AnalysisHistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new AnalysisHistoryCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // covers bad base64, a bad id and a bad timestamp alike
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
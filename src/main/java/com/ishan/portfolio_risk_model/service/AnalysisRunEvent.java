@@ -0,0 +1,40 @@
+package com.ishan.portfolio_risk_model.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event spanning one AnalysisService.runAnalysis call, so a flight recording can line our
+// analyses up against GC, lock contention and CPU samples. fields are only filled in while
+// the event is enabled in the recording
+@Name(AnalysisRunEvent.NAME)
+@Label("Analysis Run")
+@Category({"Portfolio Risk Model", "Analysis"})
+@Description("One factor analysis of a user's portfolio")
+@StackTrace(false)
+class AnalysisRunEvent extends Event {
+
+    static final String NAME = "com.ishan.portfolio_risk_model.AnalysisRun";
+
+    @Label("Holdings")
+    @Description("Positions in the portfolio")
+    int holdings;
+
+    @Label("Window Days")
+    @Description("Days between the analysis start and end dates")
+    long windowDays;
+
+    @Label("Backend")
+    @Description("Service that ran the regression")
+    String backend;
+
+    @Label("Holdings Cache Hit")
+    @Description("Whether the holdings came from the in-memory cache")
+    boolean holdingsCacheHit;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -1,74 +1,198 @@
 package com.ishan.portfolio_risk_model.service;
 
+import com.ishan.portfolio_risk_model.config.BatchWorkload;
+import com.ishan.portfolio_risk_model.config.ReplicaRoutingDataSource;
 import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
-import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisHistoryRow;
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisResultView;
 import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
-import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.dto.AnalysisHistoryPage;
 import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.AnalysisWindow;
+import com.ishan.portfolio_risk_model.dto.AnalysisWindowResult;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import com.ishan.portfolio_risk_model.dto.MultiWindowAnalysisResponse;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class AnalysisService {
 
-    private final HoldingsRepository holdingsRepository;
+    // coefficient keys used by the flask service in its tStats / stdErrors maps
+    private static final String ALPHA = "alpha";
+    private static final String MKT = "mkt";
+    private static final String SMB = "smb";
+    private static final String HML = "hml";
+    private static final String RMW = "rmw";
+    private static final String CMA = "cma";
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
+    // reported as the backend of analysis runs in flight recordings
+    private static final String FLASK_BACKEND = "flask";
+
+    // windows per multi-window run; each one is a concurrent flask call
+    static final int MAX_WINDOWS = 10;
+
+    private final HoldingService holdingService;
     private final FactorAnalysisResultsRepository resultsRepository;
     private final FlaskClient flaskClient;
+    private final AnalysisExportWriter exportWriter;
 
     // run factor analysis on the user's portfolio
     public AnalysisResponse runAnalysis(LocalDate startDate, LocalDate endDate) {
-        UserEntity user = getCurrentUser();
+        return runAnalysis(startDate, endDate, stage -> { });
+    }
 
-        List<HoldingsEntity> holdings = holdingsRepository.findByUser(user);
-        if (holdings.isEmpty()) {
-            throw new IllegalArgumentException("No holdings found. Add holdings before running analysis.");
+    // same, telling progress about each stage as it completes (used to stream progress to the client)
+    public AnalysisResponse runAnalysis(LocalDate startDate, LocalDate endDate, Consumer<AnalysisStage> progress) {
+        return runAnalysis(startDate, endDate, false, progress, flaskResponse -> null).result();
+    }
+
+    // same, optionally asking flask for the daily portfolio returns it regressed on. check sees flask's
+    // answer before the result is saved: what it returns comes back with the result, and if it throws
+    // nothing is saved
+    <T> CheckedAnalysis<T> runAnalysis(LocalDate startDate, LocalDate endDate, boolean includeDailyReturns,
+                                       Consumer<AnalysisStage> progress, Function<FlaskAnalysisResponse, T> check) {
+        AnalysisRunEvent event = new AnalysisRunEvent();
+        event.begin();
+        try {
+            UserEntity user = getCurrentUser();
+            if (event.isEnabled()) {
+                // checked before the load below fills the cache
+                event.holdingsCacheHit = holdingService.isHoldingsCached(user);
+            }
+            List<HoldingsResponse> holdings = getHoldingsForAnalysis(user);
+            progress.accept(AnalysisStage.HOLDINGS_LOADED);
+
+            LocalDate end = resolveEndDate(endDate);
+            LocalDate start = resolveStartDate(startDate, end);
+            event.holdings = holdings.size();
+            event.windowDays = ChronoUnit.DAYS.between(start, end);
+            event.backend = FLASK_BACKEND;
+
+            CheckedAnalysis<T> response = analyzeWindow(user, holdings, start, end, includeDailyReturns, progress, check);
+            event.succeeded = true;
+            return response;
+        } finally {
+            event.commit();
         }
+    }
+
+    // run several date windows against one holdings snapshot. windows run concurrently, one virtual thread
+    // each, and a window that fails is reported in its own entry without affecting the others
+    public MultiWindowAnalysisResponse runAnalysisWindows(List<AnalysisWindow> windows) {
+        long start = System.nanoTime();
+        UserEntity user = getCurrentUser();
 
-        if (endDate == null) {
-            endDate = LocalDate.now();
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one window is required");
         }
-        if (startDate == null) {
-            startDate = endDate.minusYears(3);
+        if (windows.size() > MAX_WINDOWS) {
+            throw new IllegalArgumentException("Cannot run more than " + MAX_WINDOWS + " windows at once");
         }
+        List<AnalysisWindow> resolved = resolveWindows(windows);
 
-        FlaskAnalysisRequest request = buildFlaskRequest(holdings, startDate, endDate);
-        FlaskAnalysisResponse flaskResponse = flaskClient.runFactorRegression(request);
+        List<HoldingsResponse> holdings = getHoldingsForAnalysis(user);
 
-        FactorAnalysisResultsEntity entity = new FactorAnalysisResultsEntity();
-        entity.setUser(user);
-        entity.setAnalysisDate(LocalDateTime.now());
-        entity.setAlpha(flaskResponse.getAlpha());
-        entity.setBetaMkt(flaskResponse.getBetaMkt());
-        entity.setBetaSmb(flaskResponse.getBetaSmb());
-        entity.setBetaHml(flaskResponse.getBetaHml());
-        entity.setBetaRmw(flaskResponse.getBetaRmw());
-        entity.setBetaCma(flaskResponse.getBetaCma());
-        entity.setRSquared(flaskResponse.getRSquared());
-        
-        FactorAnalysisResultsEntity saved = resultsRepository.save(entity);
-        
-        return toResponse(saved, flaskResponse.getTStats());
+        List<Future<AnalysisWindowResult>> futures;
+        // closing the executor waits for every window
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = resolved.stream()
+                    .map(window -> executor.submit(() -> runWindow(user, holdings, window)))
+                    .toList();
+        }
+
+        // runWindow catches its own failures, so every future completed normally
+        List<AnalysisWindowResult> results = futures.stream().map(Future::resultNow).toList();
+        return new MultiWindowAnalysisResponse(results, elapsedMillis(start));
     }
 
-    public List<AnalysisResponse> getHistory() {
+    // one page of history, newest first. cursor is the nextCursor of the previous page (null for the first page).
+    // without a limit or a cursor the whole history comes back unpaged, as it did before paging existed.
+    // version is the getHistoryVersion the caller already took from the primary for its ETag.
+    // not one transaction: each query is read-only on its own, so they can go to different databases
+    public AnalysisHistoryPage getHistory(String cursor, Integer limit, long version) {
         UserEntity user = getCurrentUser();
-        return resultsRepository.findByUserOrderByAnalysisDateDesc(user).stream()
-                .map(entity -> toResponse(entity, null))
-                .toList();
+        AnalysisHistoryCursor after = cursor == null || cursor.isBlank() ? null : AnalysisHistoryCursor.decode(cursor);
+        boolean paged = limit != null || after != null;
+        int pageSize = paged ? resolvePageSize(limit) : 0;
+
+        // fetch one extra row to learn whether another page exists without a count query
+        Limit fetchLimit = paged ? Limit.of(pageSize + 1) : Limit.unlimited();
+        Supplier<List<? extends AnalysisResultView>> query = () -> after == null
+                ? resultsRepository.findHistoryPage(user.getId(), fetchLimit)
+                : resultsRepository.findHistoryPageAfter(user.getId(), after.getAnalysisDate(), after.getId(), fetchLimit);
+
+        // right after a new result (saved through any instance) the replica may not have it yet, and the
+        // response carries the primary's history version, so read from the primary until the replica has it
+        List<? extends AnalysisResultView> rows = resultsRepository.findHistoryVersion(user.getId()) < version
+                ? ReplicaRoutingDataSource.onPrimary(query)
+                : query.get();
+
+        String nextCursor = null;
+        if (paged && rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            AnalysisResultView last = rows.get(pageSize - 1);
+            nextCursor = new AnalysisHistoryCursor(last.getAnalysisDate(), last.getId()).encode();
+        }
+
+        List<AnalysisResponse> items = rows.stream().map(this::toResponse).toList();
+        return new AnalysisHistoryPage(items, nextCursor);
     }
 
+    // write the user's whole history, newest first, to out. rows come off a database cursor and are written
+    // one at a time, so memory use doesn't grow with the history. an export can run for as long as the
+    // client takes to download it, so it holds a batch pool connection rather than an interactive one
+    @BatchWorkload
+    @Transactional(readOnly = true)
+    public void exportHistory(AnalysisExportFormat format, OutputStream out) throws IOException {
+        UserEntity user = getCurrentUser();
+        try (Stream<AnalysisHistoryRow> rows = resultsRepository.streamHistory(user.getId())) {
+            exportWriter.write(rows.map(this::toResponse), format, out);
+        }
+    }
+
+    // version of the current user's history: the newest result id on the primary. results are only ever
+    // inserted and ids only grow, so it changes with every new result whichever instance (or the re-analysis
+    // job) saved it. take it before getHistory and pass it in, so it is never newer than the page it is sent with
+    public long getHistoryVersion() {
+        Long userId = getCurrentUser().getId();
+        return ReplicaRoutingDataSource.onPrimary(() -> resultsRepository.findHistoryVersion(userId));
+    }
+
+    @Transactional(readOnly = true)
     public AnalysisResponse getAnalysisById(Long id) {
         UserEntity user = getCurrentUser();
         FactorAnalysisResultsEntity entity = resultsRepository.findById(id)
@@ -78,10 +202,21 @@ public class AnalysisService {
             throw new IllegalArgumentException("Analysis result not found");
         }
 
-        return toResponse(entity, null);
+        return toResponse(entity);
     }
 
-    private AnalysisResponse toResponse(FactorAnalysisResultsEntity entity, Map<String, BigDecimal> tStats) {
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_HISTORY_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    // package-private for the benchmarks module
+    AnalysisResponse toResponse(AnalysisResultView entity) {
         return new AnalysisResponse(
                 entity.getId(),
                 entity.getAnalysisDate(),
@@ -92,11 +227,156 @@ public class AnalysisService {
                 entity.getBetaRmw(),
                 entity.getBetaCma(),
                 entity.getRSquared(),
-                tStats
+                toStatsMap(entity.getTStatAlpha(), entity.getTStatMkt(), entity.getTStatSmb(),
+                        entity.getTStatHml(), entity.getTStatRmw(), entity.getTStatCma()),
+                toStatsMap(entity.getStdErrAlpha(), entity.getStdErrMkt(), entity.getStdErrSmb(),
+                        entity.getStdErrHml(), entity.getStdErrRmw(), entity.getStdErrCma()),
+                entity.getResidualVariance(),
+                entity.getNObservations()
         );
     }
 
-    private FlaskAnalysisRequest buildFlaskRequest(List<HoldingsEntity> holdings, LocalDate startDate, LocalDate endDate) {
+    // copy the per-coefficient statistics from the flask maps into the fixed columns
+    private void setRegressionStatistics(FactorAnalysisResultsEntity entity, FlaskAnalysisResponse flaskResponse) {
+        Map<String, BigDecimal> tStats = flaskResponse.getTStats() != null ? flaskResponse.getTStats() : Map.of();
+        entity.setTStatAlpha(tStats.get(ALPHA));
+        entity.setTStatMkt(tStats.get(MKT));
+        entity.setTStatSmb(tStats.get(SMB));
+        entity.setTStatHml(tStats.get(HML));
+        entity.setTStatRmw(tStats.get(RMW));
+        entity.setTStatCma(tStats.get(CMA));
+
+        Map<String, BigDecimal> stdErrors = flaskResponse.getStdErrors() != null ? flaskResponse.getStdErrors() : Map.of();
+        entity.setStdErrAlpha(stdErrors.get(ALPHA));
+        entity.setStdErrMkt(stdErrors.get(MKT));
+        entity.setStdErrSmb(stdErrors.get(SMB));
+        entity.setStdErrHml(stdErrors.get(HML));
+        entity.setStdErrRmw(stdErrors.get(RMW));
+        entity.setStdErrCma(stdErrors.get(CMA));
+
+        entity.setResidualVariance(flaskResponse.getResidualVariance());
+        entity.setNObservations(flaskResponse.getNObservations());
+    }
+
+    // rebuild the map shape the frontend already knows; null when the result predates these columns
+    private Map<String, BigDecimal> toStatsMap(BigDecimal alpha, BigDecimal mkt, BigDecimal smb,
+                                               BigDecimal hml, BigDecimal rmw, BigDecimal cma) {
+        Map<String, BigDecimal> stats = new LinkedHashMap<>();
+        putIfPresent(stats, ALPHA, alpha);
+        putIfPresent(stats, MKT, mkt);
+        putIfPresent(stats, SMB, smb);
+        putIfPresent(stats, HML, hml);
+        putIfPresent(stats, RMW, rmw);
+        putIfPresent(stats, CMA, cma);
+        return stats.isEmpty() ? null : stats;
+    }
+
+    private void putIfPresent(Map<String, BigDecimal> stats, String key, BigDecimal value) {
+        if (value != null) {
+            stats.put(key, value);
+        }
+    }
+
+    private List<HoldingsResponse> getHoldingsForAnalysis(UserEntity user) {
+        List<HoldingsResponse> holdings = holdingService.getHoldingsSnapshot(user).getHoldings();
+        if (holdings.isEmpty()) {
+            throw new IllegalArgumentException("No holdings found. Add holdings before running analysis.");
+        }
+        return holdings;
+    }
+
+    // a saved result and what the check made of flask's answer before it was saved
+    record CheckedAnalysis<T>(AnalysisResponse result, T checked) {
+    }
+
+    // call flask for one window, check its answer and save the result
+    private <T> CheckedAnalysis<T> analyzeWindow(UserEntity user, List<HoldingsResponse> holdings,
+                                                 LocalDate startDate, LocalDate endDate, boolean includeDailyReturns,
+                                                 Consumer<AnalysisStage> progress,
+                                                 Function<FlaskAnalysisResponse, T> check) {
+        FlaskAnalysisRequest request = buildFlaskRequest(holdings, startDate, endDate);
+        request.setIncludeDailyReturns(includeDailyReturns);
+        progress.accept(AnalysisStage.REGRESSION_STARTED);
+        FlaskAnalysisResponse flaskResponse = flaskClient.runFactorRegression(request);
+        progress.accept(AnalysisStage.REGRESSION_DONE);
+        T checked = check.apply(flaskResponse);
+
+        FactorAnalysisResultsEntity entity = newResult(flaskResponse);
+        entity.setUser(user);
+
+        FactorAnalysisResultsEntity saved = resultsRepository.save(entity);
+        progress.accept(AnalysisStage.PERSISTED);
+
+        return new CheckedAnalysis<>(toResponse(saved), checked);
+    }
+
+    // an unsaved result (without its user) holding the flask regression output
+    FactorAnalysisResultsEntity newResult(FlaskAnalysisResponse flaskResponse) {
+        FactorAnalysisResultsEntity entity = new FactorAnalysisResultsEntity();
+        entity.setAnalysisDate(LocalDateTime.now());
+        entity.setAlpha(flaskResponse.getAlpha());
+        entity.setBetaMkt(flaskResponse.getBetaMkt());
+        entity.setBetaSmb(flaskResponse.getBetaSmb());
+        entity.setBetaHml(flaskResponse.getBetaHml());
+        entity.setBetaRmw(flaskResponse.getBetaRmw());
+        entity.setBetaCma(flaskResponse.getBetaCma());
+        entity.setRSquared(flaskResponse.getRSquared());
+        setRegressionStatistics(entity, flaskResponse);
+        return entity;
+    }
+
+    // one window of a multi-window run, turning its failure into an error entry
+    private AnalysisWindowResult runWindow(UserEntity user, List<HoldingsResponse> holdings, AnalysisWindow window) {
+        long start = System.nanoTime();
+        AnalysisWindowResult result = new AnalysisWindowResult();
+        result.setStartDate(window.getStartDate());
+        result.setEndDate(window.getEndDate());
+        try {
+            result.setResult(analyzeWindow(user, holdings, window.getStartDate(), window.getEndDate(), false,
+                    stage -> { }, flaskResponse -> null).result());
+        } catch (FlaskServiceException e) {
+            result.setError(e.getMessage());
+            result.setErrorStatus(e.getStatus().value());
+        } catch (RuntimeException e) {
+            log.warn("Analysis window {} to {} failed", window.getStartDate(), window.getEndDate(), e);
+            result.setError("Analysis failed");
+            result.setErrorStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+        result.setDurationMillis(elapsedMillis(start));
+        return result;
+    }
+
+    // fill in default dates and check every window before any of them runs
+    private List<AnalysisWindow> resolveWindows(List<AnalysisWindow> windows) {
+        List<AnalysisWindow> resolved = new ArrayList<>();
+        for (int i = 0; i < windows.size(); i++) {
+            AnalysisWindow window = windows.get(i);
+            if (window == null) {
+                throw new IllegalArgumentException("window " + (i + 1) + ": dates are required");
+            }
+            LocalDate end = resolveEndDate(window.getEndDate());
+            LocalDate start = resolveStartDate(window.getStartDate(), end);
+            if (!start.isBefore(end)) {
+                throw new IllegalArgumentException("window " + (i + 1) + ": startDate must be before endDate");
+            }
+            resolved.add(new AnalysisWindow(start, end));
+        }
+        return resolved;
+    }
+
+    private LocalDate resolveEndDate(LocalDate endDate) {
+        return endDate != null ? endDate : LocalDate.now();
+    }
+
+    private LocalDate resolveStartDate(LocalDate startDate, LocalDate endDate) {
+        return startDate != null ? startDate : endDate.minusYears(3);
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    FlaskAnalysisRequest buildFlaskRequest(List<HoldingsResponse> holdings, LocalDate startDate, LocalDate endDate) {
         List<FlaskAnalysisRequest.FlaskHolding> flaskHoldings = holdings.stream()
                 .map(h -> new FlaskAnalysisRequest.FlaskHolding(
                         h.getTicker(),
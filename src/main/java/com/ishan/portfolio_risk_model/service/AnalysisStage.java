@@ -0,0 +1,18 @@
+package com.ishan.portfolio_risk_model.service;
+
+import java.util.Locale;
+
+// steps of a single analysis run, reported to progress listeners as they complete
+public enum AnalysisStage {
+
+    HOLDINGS_LOADED,
+    // request sent to flask, which slices the factor data and runs the regression
+    REGRESSION_STARTED,
+    REGRESSION_DONE,
+    PERSISTED;
+
+    // name used in progress events, e.g. "holdings_loaded"
+    public String getEventName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.AnalysisProgressEvent;
+import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// runs analyses in the background and reports their progress over server-sent events. an open stream
+// holds no thread while it waits (the servlet request is async), so idle connections only cost their
+// socket; one shared thread sends heartbeats so proxies don't drop streams waiting on a slow regression
+@Slf4j
+@Service
+public class AnalysisStreamService {
+
+    public static final String STAGE_EVENT = "stage";
+    public static final String RESULT_EVENT = "result";
+    public static final String ERROR_EVENT = "error";
+
+    private final AnalysisService analysisService;
+    private final AsyncTaskExecutor taskExecutor;
+    private final long timeoutMillis;
+    private final Set<SseEmitter> openStreams = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats;
+
+    public AnalysisStreamService(AnalysisService analysisService,
+                                 @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                 @Value("${analysis.stream.timeout:5m}") Duration timeout,
+                                 @Value("${analysis.stream.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.analysisService = analysisService;
+        this.taskExecutor = taskExecutor;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalMillis = heartbeatInterval.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // start an analysis of the current user's portfolio and return the stream its events go to:
+    // a "stage" event per completed stage, then one "result" (AnalysisResponse) or "error" event
+    public SseEmitter runAnalysis(LocalDate startDate, LocalDate endDate) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        openStreams.add(emitter);
+        emitter.onCompletion(() -> openStreams.remove(emitter));
+        emitter.onError(e -> openStreams.remove(emitter));
+        emitter.onTimeout(() -> {
+            openStreams.remove(emitter);
+            sendError(emitter, "Analysis timed out", HttpStatus.GATEWAY_TIMEOUT);
+        });
+
+        long start = System.nanoTime();
+        Runnable run = () -> {
+            try {
+                AnalysisResponse result = analysisService.runAnalysis(startDate, endDate, stage ->
+                        send(emitter, STAGE_EVENT, new AnalysisProgressEvent(stage.getEventName(), elapsedMillis(start))));
+                send(emitter, RESULT_EVENT, result);
+                emitter.complete();
+            } catch (FlaskServiceException e) {
+                sendError(emitter, e.getMessage(), e.getStatus());
+            } catch (IllegalArgumentException e) {
+                sendError(emitter, e.getMessage(), HttpStatus.BAD_REQUEST);
+            } catch (RuntimeException e) {
+                log.warn("Streamed analysis failed", e);
+                sendError(emitter, "Analysis failed", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        };
+        // the run happens off the request thread, so it takes the caller's security context along
+        taskExecutor.execute(DelegatingSecurityContextRunnable.create(run, SecurityContextHolder.getContext()));
+        return emitter;
+    }
+
+    // number of streams currently open
+    public int getOpenStreamCount() {
+        return openStreams.size();
+    }
+
+    void sendHeartbeats() {
+        for (SseEmitter emitter : openStreams) {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                openStreams.remove(emitter);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the stream timed out. the analysis carries on and its result is still saved
+            openStreams.remove(emitter);
+        }
+    }
+
+    // same {"error": ...} body as the json api, plus the status the plain endpoint would have returned
+    private void sendError(SseEmitter emitter, String message, HttpStatus status) {
+        send(emitter, ERROR_EVENT, Map.of("error", message, "status", status.value()));
+        emitter.complete();
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        openStreams.forEach(SseEmitter::complete);
+    }
+}
@@ -0,0 +1,363 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bootstrap confidence intervals for the coefficients of the five-factor regression (alpha first, then
+ * the betas in the order mkt-rf, smb, hml, rmw, cma), without assuming normal errors.
+ *
+ * <p>Two resampling schemes. {@link Method#RESIDUAL} keeps the factor days fixed and redraws the fitted
+ * residuals with replacement; since the design doesn't change, each refit is the fitted coefficients
+ * plus the projection of the redrawn residuals. {@link Method#BLOCK} redraws runs of consecutive days
+ * (returns and factors together), which keeps autocorrelation and volatility clustering inside a
+ * block, and refits from the resampled normal equations. A block resample can miss the few days that
+ * pin down a coefficient; such a singular resample is skipped and counted rather than failing the run.
+ *
+ * <p>Iterations run in fixed-size blocks on the fork-join pool, each with a generator split from the
+ * seed in block order, so a seed gives the same intervals at any parallelism. Blocks share nothing but
+ * the read-only inputs and write to their own slice of the result arrays, so throughput grows with the
+ * number of workers. Each worker thread keeps one workspace for every block it runs.
+ */
+@Component
+public class BetaBootstrapEngine {
+
+    public static final int COEFFICIENTS = 6;
+
+    static final int ITERATIONS_PER_BLOCK = 256;
+
+    // pivots below this (relative to the diagonal) mean the days don't pin down every coefficient
+    private static final double SINGULAR = 1e-12;
+
+    public enum Method {
+        RESIDUAL,
+        BLOCK
+    }
+
+    // bootstrap percentile interval and standard error of one coefficient, around its least-squares estimate.
+    // NaN apart from the estimate when every resample was singular
+    public record Interval(double estimate, double lower, double upper, double stdError) {
+    }
+
+    // one interval per coefficient, and how many resamples were skipped as singular
+    public record Result(List<Interval> intervals, int singularResamples) {
+    }
+
+    private final RiskComputePool pool;
+    // blocks only reach it from the pool's workers (or a caller running the task itself), one at a time per thread
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    public BetaBootstrapEngine(RiskComputePool pool) {
+        this.pool = pool;
+    }
+
+    // least-squares fit of the days, without resampling: factors[t] holds the five factor returns of day t,
+    // excessReturns[t] the portfolio return less the risk-free rate. throws if the days can't identify
+    // every coefficient, so callers can check the data before committing to anything
+    public static Design fit(double[][] factors, double[] excessReturns) {
+        if (factors.length != excessReturns.length) {
+            throw new IllegalArgumentException("factors and returns must cover the same days");
+        }
+        if (excessReturns.length <= COEFFICIENTS) {
+            throw new IllegalArgumentException("More days than coefficients are needed");
+        }
+        return new Design(factors, excessReturns);
+    }
+
+    public Result bootstrap(double[][] factors, double[] excessReturns, Method method, int iterations,
+                            int blockDays, double confidence, long seed) {
+        return bootstrap(fit(factors, excessReturns), method, iterations, blockDays, confidence, seed);
+    }
+
+    // blockDays only applies to BLOCK
+    public Result bootstrap(Design design, Method method, int iterations, int blockDays,
+                            double confidence, long seed) {
+        if (iterations < 1 || blockDays < 1 || blockDays > design.days) {
+            throw new IllegalArgumentException("iterations and block length must be positive, blocks no longer than the data");
+        }
+
+        double[][] draws = new double[COEFFICIENTS][iterations];
+        int blocks = (iterations + ITERATIONS_PER_BLOCK - 1) / ITERATIONS_PER_BLOCK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] generators = new SplittableRandom[blocks];
+        for (int block = 0; block < blocks; block++) {
+            generators[block] = root.split();
+        }
+        int[] singular = new int[blocks];
+        pool.invoke(new BlockTask(design, method, blockDays, workspaces, draws, singular, generators, 0, blocks));
+
+        int skipped = Arrays.stream(singular).sum();
+        // skipped iterations hold NaN, which sorts after every number
+        int fitted = iterations - skipped;
+        double tail = (1 - confidence) / 2;
+        List<Interval> intervals = new ArrayList<>(COEFFICIENTS);
+        for (int k = 0; k < COEFFICIENTS; k++) {
+            double[] values = draws[k];
+            Arrays.sort(values);
+            if (fitted == 0) {
+                intervals.add(new Interval(design.coefficients[k], Double.NaN, Double.NaN, Double.NaN));
+                continue;
+            }
+            double mean = 0;
+            for (int i = 0; i < fitted; i++) {
+                mean += values[i];
+            }
+            mean /= fitted;
+            double squares = 0;
+            for (int i = 0; i < fitted; i++) {
+                squares += (values[i] - mean) * (values[i] - mean);
+            }
+            int lower = (int) Math.floor(tail * fitted);
+            int upper = Math.max(lower, (int) Math.ceil((1 - tail) * fitted) - 1);
+            intervals.add(new Interval(design.coefficients[k], values[Math.min(lower, fitted - 1)],
+                    values[Math.min(upper, fitted - 1)],
+                    fitted > 1 ? Math.sqrt(squares / (fitted - 1)) : 0));
+        }
+        return new Result(intervals, skipped);
+    }
+
+    // the data and everything about it that every iteration reads: rows of [1, factors], the
+    // least-squares fit, its centred residuals and the projection (X'X)^-1 X', stored day-major
+    public static final class Design {
+
+        private final int days;
+        private final double[] rows;
+        private final double[] returns;
+        private final double[] coefficients;
+        private final double[] residuals;
+        private final double[] projection;
+
+        private Design(double[][] factors, double[] excessReturns) {
+            days = excessReturns.length;
+            returns = excessReturns;
+            rows = new double[days * COEFFICIENTS];
+            for (int t = 0; t < days; t++) {
+                rows[t * COEFFICIENTS] = 1;
+                if (factors[t].length != COEFFICIENTS - 1) {
+                    throw new IllegalArgumentException("each day needs the five factor returns");
+                }
+                System.arraycopy(factors[t], 0, rows, t * COEFFICIENTS + 1, COEFFICIENTS - 1);
+            }
+
+            Workspace workspace = new Workspace();
+            for (int t = 0; t < days; t++) {
+                workspace.addDay(rows, returns, t);
+            }
+            coefficients = new double[COEFFICIENTS];
+            if (!workspace.solve(coefficients)) {
+                throw new IllegalArgumentException(
+                        "The factor data can't identify every coefficient (a factor is constant or collinear)");
+            }
+
+            residuals = new double[days];
+            double mean = 0;
+            for (int t = 0; t < days; t++) {
+                residuals[t] = returns[t] - dot(rows, t, coefficients);
+                mean += residuals[t];
+            }
+            // zero up to rounding with an intercept; centred anyway so the redraws have mean zero
+            mean /= days;
+            for (int t = 0; t < days; t++) {
+                residuals[t] -= mean;
+            }
+
+            // column t of (X'X)^-1 X' is the solution of (X'X) p = x_t
+            projection = new double[days * COEFFICIENTS];
+            double[] column = new double[COEFFICIENTS];
+            for (int t = 0; t < days; t++) {
+                System.arraycopy(rows, t * COEFFICIENTS, workspace.right, 0, COEFFICIENTS);
+                workspace.substitute(column);
+                System.arraycopy(column, 0, projection, t * COEFFICIENTS, COEFFICIENTS);
+            }
+        }
+
+        public int days() {
+            return days;
+        }
+
+        private static double dot(double[] rows, int day, double[] coefficients) {
+            double sum = 0;
+            for (int k = 0; k < COEFFICIENTS; k++) {
+                sum += rows[day * COEFFICIENTS + k] * coefficients[k];
+            }
+            return sum;
+        }
+    }
+
+    // normal equations X'X b = X'y of one resample, the Cholesky factor that solves them, and the
+    // resample's coefficients
+    private static final class Workspace {
+
+        private final double[][] gram = new double[COEFFICIENTS][COEFFICIENTS];
+        private final double[] right = new double[COEFFICIENTS];
+        private final double[][] lower = new double[COEFFICIENTS][COEFFICIENTS];
+        private final double[] solution = new double[COEFFICIENTS];
+        private final double[] coefficients = new double[COEFFICIENTS];
+
+        private void clear() {
+            for (double[] row : gram) {
+                Arrays.fill(row, 0);
+            }
+            Arrays.fill(right, 0);
+        }
+
+        // lower triangle only; the gram matrix is symmetric
+        private void addDay(double[] rows, double[] returns, int day) {
+            int offset = day * COEFFICIENTS;
+            for (int i = 0; i < COEFFICIENTS; i++) {
+                double xi = rows[offset + i];
+                for (int j = 0; j <= i; j++) {
+                    gram[i][j] += xi * rows[offset + j];
+                }
+                right[i] += xi * returns[day];
+            }
+        }
+
+        // false, leaving out untouched, when the days can't identify every coefficient
+        private boolean solve(double[] out) {
+            if (!factor()) {
+                return false;
+            }
+            substitute(out);
+            return true;
+        }
+
+        private boolean factor() {
+            for (int i = 0; i < COEFFICIENTS; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double sum = gram[i][j];
+                    for (int k = 0; k < j; k++) {
+                        sum -= lower[i][k] * lower[j][k];
+                    }
+                    if (i == j) {
+                        if (sum <= SINGULAR * gram[i][i]) {
+                            return false;
+                        }
+                        lower[i][i] = Math.sqrt(sum);
+                    } else {
+                        lower[i][j] = sum / lower[j][j];
+                    }
+                }
+            }
+            return true;
+        }
+
+        // solves L L' out = right with the current factor
+        private void substitute(double[] out) {
+            for (int i = 0; i < COEFFICIENTS; i++) {
+                double sum = right[i];
+                for (int k = 0; k < i; k++) {
+                    sum -= lower[i][k] * solution[k];
+                }
+                solution[i] = sum / lower[i][i];
+            }
+            for (int i = COEFFICIENTS - 1; i >= 0; i--) {
+                double sum = solution[i];
+                for (int k = i + 1; k < COEFFICIENTS; k++) {
+                    sum -= lower[k][i] * out[k];
+                }
+                out[i] = sum / lower[i][i];
+            }
+        }
+    }
+
+    private static final class BlockTask extends RecursiveAction {
+
+        private final Design design;
+        private final Method method;
+        private final int blockDays;
+        private final ThreadLocal<Workspace> workspaces;
+        private final double[][] draws;
+        // singular resamples skipped by each block
+        private final int[] singular;
+        private final SplittableRandom[] generators;
+        private final int from;
+        private final int to;
+
+        private BlockTask(Design design, Method method, int blockDays, ThreadLocal<Workspace> workspaces,
+                          double[][] draws, int[] singular, SplittableRandom[] generators, int from, int to) {
+            this.design = design;
+            this.method = method;
+            this.blockDays = blockDays;
+            this.workspaces = workspaces;
+            this.draws = draws;
+            this.singular = singular;
+            this.generators = generators;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int first = from * ITERATIONS_PER_BLOCK;
+                int last = Math.min(first + ITERATIONS_PER_BLOCK, draws[0].length);
+                Workspace workspace = workspaces.get();
+                if (method == Method.RESIDUAL) {
+                    residualIterations(first, last, generators[from], workspace);
+                } else {
+                    singular[from] = blockIterations(first, last, generators[from], workspace);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockTask(design, method, blockDays, workspaces, draws, singular, generators, from, middle),
+                    new BlockTask(design, method, blockDays, workspaces, draws, singular, generators, middle, to));
+        }
+
+        // b* = b + (X'X)^-1 X' e*, accumulated day by day as each residual is drawn
+        private void residualIterations(int first, int last, SplittableRandom random, Workspace workspace) {
+            int days = design.days;
+            double[] projection = design.projection;
+            double[] residuals = design.residuals;
+            double[] sums = workspace.coefficients;
+            for (int iteration = first; iteration < last; iteration++) {
+                Arrays.fill(sums, 0);
+                for (int t = 0; t < days; t++) {
+                    double residual = residuals[random.nextInt(days)];
+                    int offset = t * COEFFICIENTS;
+                    for (int k = 0; k < COEFFICIENTS; k++) {
+                        sums[k] += projection[offset + k] * residual;
+                    }
+                }
+                for (int k = 0; k < COEFFICIENTS; k++) {
+                    draws[k][iteration] = design.coefficients[k] + sums[k];
+                }
+            }
+        }
+
+        // moving blocks of blockDays consecutive days until there are as many days as the data.
+        // a resample that can't identify every coefficient leaves NaN; returns how many did
+        private int blockIterations(int first, int last, SplittableRandom random, Workspace workspace) {
+            int days = design.days;
+            int starts = days - blockDays + 1;
+            double[] coefficients = workspace.coefficients;
+            int skipped = 0;
+            for (int iteration = first; iteration < last; iteration++) {
+                workspace.clear();
+                for (int filled = 0; filled < days; ) {
+                    int start = random.nextInt(starts);
+                    int length = Math.min(blockDays, days - filled);
+                    for (int t = start; t < start + length; t++) {
+                        workspace.addDay(design.rows, design.returns, t);
+                    }
+                    filled += length;
+                }
+                boolean fitted = workspace.solve(coefficients);
+                if (!fitted) {
+                    skipped++;
+                }
+                for (int k = 0; k < COEFFICIENTS; k++) {
+                    draws[k][iteration] = fitted ? coefficients[k] : Double.NaN;
+                }
+            }
+            return skipped;
+        }
+    }
+}
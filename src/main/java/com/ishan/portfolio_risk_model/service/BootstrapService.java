@@ -0,0 +1,207 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.dto.BootstrapAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.CoefficientInterval;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// runs an analysis and bootstraps confidence intervals for its alpha and betas, so they don't rest on
+// the normal-error assumption behind flask's t-stats. flask sends back the portfolio's daily returns,
+// which are lined up with the factor store by date and resampled on the risk compute pool
+@Service
+public class BootstrapService {
+
+    static final double DEFAULT_CONFIDENCE = 0.95;
+    static final int MIN_ITERATIONS = 100;
+    // same floor as the VaR factor estimates; fewer days leave the six coefficients badly determined
+    static final int MIN_DAYS = RiskService.MIN_FACTOR_DAYS;
+    // about a quarter of trading days; longer blocks leave too few distinct resamples
+    static final int MAX_BLOCK_DAYS = 60;
+
+    // in the engine's coefficient order, named like the keys of tStats
+    private static final List<String> COEFFICIENTS = List.of("alpha", "mkt", "smb", "hml", "rmw", "cma");
+    private static final int SCALE = 8;
+
+    private final AnalysisService analysisService;
+    private final FamaFrenchFactorRepository factorRepository;
+    private final BetaBootstrapEngine engine;
+    private final MeterRegistry meterRegistry;
+    private final int defaultIterations;
+    private final int maxIterations;
+
+    public BootstrapService(AnalysisService analysisService,
+                            FamaFrenchFactorRepository factorRepository,
+                            BetaBootstrapEngine engine,
+                            MeterRegistry meterRegistry,
+                            @Value("${risk.bootstrap.default-iterations:2000}") int defaultIterations,
+                            @Value("${risk.bootstrap.max-iterations:100000}") int maxIterations) {
+        this.analysisService = analysisService;
+        this.factorRepository = factorRepository;
+        this.engine = engine;
+        this.meterRegistry = meterRegistry;
+        this.defaultIterations = defaultIterations;
+        this.maxIterations = maxIterations;
+    }
+
+    // run factor analysis on the user's portfolio and bootstrap its coefficients. method is residual
+    // (default) or block; blockDays defaults to the cube root of the number of days, the seed to the id of
+    // the new result. flask's returns are checked and fitted before the result is saved, so a request that
+    // can't be bootstrapped leaves nothing behind. after the save nothing fails on the data: block resamples
+    // that happen to be singular are skipped and counted in the response
+    public BootstrapAnalysisResponse runBootstrap(LocalDate startDate, LocalDate endDate, String method,
+                                                  Integer iterations, Integer blockDays, Double confidence,
+                                                  Long seed) {
+        BetaBootstrapEngine.Method resampling = resolveMethod(method);
+        int iterationCount = resolveIterations(iterations);
+        double level = resolveConfidence(confidence);
+        if (blockDays != null && (blockDays < 1 || blockDays > MAX_BLOCK_DAYS)) {
+            throw new IllegalArgumentException("blockDays must be between 1 and " + MAX_BLOCK_DAYS);
+        }
+
+        AnalysisService.CheckedAnalysis<BetaBootstrapEngine.Design> analysis =
+                analysisService.runAnalysis(startDate, endDate, true, stage -> { }, this::fitDailyReturns);
+        BetaBootstrapEngine.Design design = analysis.checked();
+        int days = design.days();
+
+        // never longer than the data: MAX_BLOCK_DAYS is no more than MIN_DAYS
+        Integer block = resampling == BetaBootstrapEngine.Method.BLOCK
+                ? (blockDays != null ? blockDays : Math.max(1, (int) Math.round(Math.cbrt(days))))
+                : null;
+        long resolvedSeed = seed != null ? seed : analysis.result().getId();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        BetaBootstrapEngine.Result bootstrap = engine.bootstrap(design, resampling, iterationCount,
+                block != null ? block : 1, level, resolvedSeed);
+        sample.stop(Timer.builder("risk.bootstrap")
+                .description("Time to bootstrap the coefficients of one analysis")
+                .tag("method", methodName(resampling))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
+        List<CoefficientInterval> coefficients = new ArrayList<>(COEFFICIENTS.size());
+        for (int k = 0; k < COEFFICIENTS.size(); k++) {
+            BetaBootstrapEngine.Interval interval = bootstrap.intervals().get(k);
+            coefficients.add(new CoefficientInterval(COEFFICIENTS.get(k), decimal(interval.estimate()),
+                    decimal(interval.lower()), decimal(interval.upper()), decimal(interval.stdError())));
+        }
+        return new BootstrapAnalysisResponse(analysis.result(), methodName(resampling), iterationCount,
+                bootstrap.singularResamples(), block, BigDecimal.valueOf(level), resolvedSeed, days, coefficients);
+    }
+
+    // everything that can reject the request once flask has answered: its returns are there, enough of
+    // them line up with the factor store, and they pin down every coefficient
+    private BetaBootstrapEngine.Design fitDailyReturns(FlaskAnalysisResponse flaskResponse) {
+        if (flaskResponse.getDailyReturns() == null || flaskResponse.getDailyReturns().isEmpty()) {
+            throw new FlaskServiceException("Analysis service did not return daily returns", HttpStatus.BAD_GATEWAY);
+        }
+        Observations observations = align(flaskResponse.getDailyReturns());
+        int days = observations.excessReturns.length;
+        if (days < MIN_DAYS) {
+            throw new IllegalArgumentException("Not enough days with both portfolio returns and factor data ("
+                    + days + " days, need " + MIN_DAYS + ")");
+        }
+        return BetaBootstrapEngine.fit(observations.factors, observations.excessReturns);
+    }
+
+    private record Observations(double[][] factors, double[] excessReturns) {
+    }
+
+    // days with a factor row, in date order: the five factors and the return less the risk-free rate.
+    // flask's own data source can have days the factor store doesn't (or the reverse); those are dropped
+    private Observations align(List<FlaskAnalysisResponse.DailyReturn> dailyReturns) {
+        Map<LocalDate, BigDecimal> returns = new HashMap<>();
+        for (FlaskAnalysisResponse.DailyReturn dailyReturn : dailyReturns) {
+            if (dailyReturn.getDate() == null || dailyReturn.getPortfolioReturn() == null) {
+                continue;
+            }
+            try {
+                returns.put(LocalDate.parse(dailyReturn.getDate()), dailyReturn.getPortfolioReturn());
+            } catch (DateTimeParseException e) {
+                throw new FlaskServiceException("Analysis service returned an invalid date", HttpStatus.BAD_GATEWAY);
+            }
+        }
+        if (returns.isEmpty()) {
+            return new Observations(new double[0][], new double[0]);
+        }
+        LocalDate first = returns.keySet().stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = returns.keySet().stream().max(LocalDate::compareTo).orElseThrow();
+
+        List<double[]> factors = new ArrayList<>();
+        List<Double> excess = new ArrayList<>();
+        for (FamaFrenchFactorEntity row : factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(first, last)) {
+            BigDecimal portfolioReturn = returns.get(row.getFactorDate());
+            if (portfolioReturn == null) {
+                continue;
+            }
+            factors.add(new double[]{
+                    row.getMktRf().doubleValue(),
+                    row.getSmb().doubleValue(),
+                    row.getHml().doubleValue(),
+                    row.getRmw().doubleValue(),
+                    row.getCma().doubleValue()
+            });
+            excess.add(portfolioReturn.doubleValue() - row.getRf().doubleValue());
+        }
+        return new Observations(factors.toArray(new double[0][]),
+                excess.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    private BetaBootstrapEngine.Method resolveMethod(String method) {
+        if (method == null || method.isBlank()) {
+            return BetaBootstrapEngine.Method.RESIDUAL;
+        }
+        try {
+            return BetaBootstrapEngine.Method.valueOf(method.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("method must be residual or block");
+        }
+    }
+
+    private int resolveIterations(Integer iterations) {
+        if (iterations == null) {
+            return defaultIterations;
+        }
+        if (iterations < MIN_ITERATIONS || iterations > maxIterations) {
+            throw new IllegalArgumentException("iterations must be between " + MIN_ITERATIONS + " and " + maxIterations);
+        }
+        return iterations;
+    }
+
+    private double resolveConfidence(Double confidence) {
+        if (confidence == null) {
+            return DEFAULT_CONFIDENCE;
+        }
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1 (exclusive)");
+        }
+        return confidence;
+    }
+
+    private static String methodName(BetaBootstrapEngine.Method method) {
+        return method.name().toLowerCase(Locale.ROOT);
+    }
+
+    // null for NaN, the bounds when no resample could be fitted
+    private static BigDecimal decimal(double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+// sample means and covariance of the daily factor returns over a window of the factor store, in the
+// order mkt-rf, smb, hml, rmw, cma (the order of the betas), plus the mean risk-free rate
+final class FactorStatistics {
+
+    static final int FACTORS = 5;
+
+    private static final List<Function<FamaFrenchFactorEntity, BigDecimal>> COLUMNS = List.of(
+            FamaFrenchFactorEntity::getMktRf,
+            FamaFrenchFactorEntity::getSmb,
+            FamaFrenchFactorEntity::getHml,
+            FamaFrenchFactorEntity::getRmw,
+            FamaFrenchFactorEntity::getCma);
+
+    private final double[] means;
+    private final double[][] covariance;
+    private final double riskFreeMean;
+    private final int days;
+
+    private FactorStatistics(double[] means, double[][] covariance, double riskFreeMean, int days) {
+        this.means = means;
+        this.covariance = covariance;
+        this.riskFreeMean = riskFreeMean;
+        this.days = days;
+    }
+
+    static FactorStatistics estimate(List<FamaFrenchFactorEntity> rows) {
+        int n = rows.size();
+        if (n < 2) {
+            throw new IllegalArgumentException("At least two days of factor data are needed");
+        }
+        double[][] values = new double[n][FACTORS];
+        double[] means = new double[FACTORS];
+        double riskFree = 0;
+        for (int day = 0; day < n; day++) {
+            FamaFrenchFactorEntity row = rows.get(day);
+            for (int factor = 0; factor < FACTORS; factor++) {
+                values[day][factor] = COLUMNS.get(factor).apply(row).doubleValue();
+                means[factor] += values[day][factor];
+            }
+            riskFree += row.getRf().doubleValue();
+        }
+        for (int factor = 0; factor < FACTORS; factor++) {
+            means[factor] /= n;
+        }
+
+        double[][] covariance = new double[FACTORS][FACTORS];
+        for (double[] day : values) {
+            for (int i = 0; i < FACTORS; i++) {
+                for (int j = 0; j <= i; j++) {
+                    covariance[i][j] += (day[i] - means[i]) * (day[j] - means[j]);
+                }
+            }
+        }
+        for (int i = 0; i < FACTORS; i++) {
+            for (int j = 0; j <= i; j++) {
+                covariance[i][j] /= n - 1;
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+        return new FactorStatistics(means, covariance, riskFree / n, n);
+    }
+
+    // lower-triangular L with L * L^T equal to the covariance, for turning independent standard
+    // normals into correlated factor shocks
+    double[][] choleskyLower() {
+        // a pivot this small against the largest variance is rounding noise: a constant or collinear factor
+        double tolerance = 0;
+        for (int i = 0; i < FACTORS; i++) {
+            tolerance = Math.max(tolerance, covariance[i][i] * 1e-12);
+        }
+        double[][] lower = new double[FACTORS][FACTORS];
+        for (int i = 0; i < FACTORS; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = covariance[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= lower[i][k] * lower[j][k];
+                }
+                if (i == j) {
+                    if (sum <= tolerance) {
+                        throw new IllegalArgumentException(
+                                "Factor covariance is not positive definite; the factor data is degenerate");
+                    }
+                    lower[i][i] = Math.sqrt(sum);
+                } else {
+                    lower[i][j] = sum / lower[j][j];
+                }
+            }
+        }
+        return lower;
+    }
+
+    double[] means() {
+        return means.clone();
+    }
+
+    double[][] covariance() {
+        double[][] copy = new double[FACTORS][];
+        for (int i = 0; i < FACTORS; i++) {
+            copy[i] = covariance[i].clone();
+        }
+        return copy;
+    }
+
+    double riskFreeMean() {
+        return riskFreeMean;
+    }
+
+    int days() {
+        return days;
+    }
+}
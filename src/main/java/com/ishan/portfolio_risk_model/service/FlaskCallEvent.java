@@ -0,0 +1,32 @@
+package com.ishan.portfolio_risk_model.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event spanning one call to the flask regression endpoint; its duration is the call's latency
+@Name(FlaskCallEvent.NAME)
+@Label("Flask Call")
+@Category({"Portfolio Risk Model", "Flask"})
+@Description("One factor regression request to the flask service")
+@StackTrace(false)
+class FlaskCallEvent extends Event {
+
+    static final String NAME = "com.ishan.portfolio_risk_model.FlaskCall";
+
+    @Label("Status")
+    @Description("HTTP status returned by flask, 0 when no response arrived")
+    int status;
+
+    @Label("Response Bytes")
+    @Description("Content-Length of the response, -1 when not sent")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Holdings")
+    int holdings;
+}
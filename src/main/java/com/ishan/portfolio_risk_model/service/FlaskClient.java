@@ -1,7 +1,11 @@
 package com.ishan.portfolio_risk_model.service;
 
+import com.ishan.portfolio_risk_model.config.RequestTimings;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -9,20 +13,60 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.time.Duration;
+
 // client that communicates with flask analysis service
 @Component
 @AllArgsConstructor
 public class FlaskClient {
 
     private final RestClient flaskRestClient;
+    private final MeterRegistry meterRegistry;
 
+    // timed as flask.regression (with a percentile histogram, tagged by outcome). failures are also
+    // counted in flask.errors, tagged with the status they are mapped to
     public FlaskAnalysisResponse runFactorRegression(FlaskAnalysisRequest request) {
+        FlaskCallEvent event = new FlaskCallEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            FlaskAnalysisResponse response = callFactorRegression(request, event);
+            outcome = "success";
+            return response;
+        } catch (FlaskServiceException e) {
+            Counter.builder("flask.errors")
+                    .tag("status", String.valueOf(e.getStatus().value()))
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        } finally {
+            long nanos = sample.stop(Timer.builder("flask.regression")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    // regressions take from tens of milliseconds up to the 60s read timeout
+                    .minimumExpectedValue(Duration.ofMillis(10))
+                    .maximumExpectedValue(Duration.ofSeconds(60))
+                    .register(meterRegistry));
+            RequestTimings.record(RequestTimings.FLASK, nanos);
+            if (event.isEnabled()) {
+                event.holdings = request.getHoldings() != null ? request.getHoldings().size() : 0;
+            }
+            event.commit();
+        }
+    }
+
+    private FlaskAnalysisResponse callFactorRegression(FlaskAnalysisRequest request, FlaskCallEvent event) {
         try {
             return flaskRestClient.post()
                     .uri("/api/analysis/factor-regression")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(request)
                     .exchange(((clientRequest, clientResponse) -> {
+                        if (event.isEnabled()) {
+                            event.status = clientResponse.getStatusCode().value();
+                            event.responseBytes = clientResponse.getHeaders().getContentLength();
+                        }
                         if (clientResponse.getStatusCode().is2xxSuccessful()) {
                             return clientResponse.bodyTo(FlaskAnalysisResponse.class);
                         }
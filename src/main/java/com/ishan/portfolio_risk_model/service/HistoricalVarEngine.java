@@ -0,0 +1,137 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Historical-simulation value-at-risk: replays the returns the portfolio's betas imply for each day of
+ * a factor history, and reads VaR and CVaR off the losses over every run of consecutive days of each
+ * horizon (overlapping windows, so a 10-day horizon over 750 days gives 741 outcomes).
+ *
+ * <p>Losses go into a {@link LossQuantileSketch} per horizon in one pass instead of being collected and
+ * sorted. Long histories are split into chunks of window start days on the fork-join pool, each with
+ * its own sketches, and the chunks' sketches are merged; merging is exact, so the answer is the same
+ * however the history was split.
+ */
+@Component
+public class HistoricalVarEngine {
+
+    // window start days per chunk; a few years of daily data is a single chunk
+    static final int CHUNK_DAYS = 2048;
+
+    private final RiskComputePool pool;
+
+    public HistoricalVarEngine(RiskComputePool pool) {
+        this.pool = pool;
+    }
+
+    // r_t = rf_t + alpha + betas . factors_t for each row, betas in the order mkt-rf, smb, hml, rmw, cma.
+    // the residual isn't known day by day, so idiosyncratic risk isn't in the replay
+    public static double[] factorImpliedReturns(List<FamaFrenchFactorEntity> rows, double alpha, double[] betas) {
+        double[] returns = new double[rows.size()];
+        for (int day = 0; day < returns.length; day++) {
+            FamaFrenchFactorEntity row = rows.get(day);
+            returns[day] = row.getRf().doubleValue() + alpha
+                    + betas[0] * row.getMktRf().doubleValue()
+                    + betas[1] * row.getSmb().doubleValue()
+                    + betas[2] * row.getHml().doubleValue()
+                    + betas[3] * row.getRmw().doubleValue()
+                    + betas[4] * row.getCma().doubleValue();
+        }
+        return returns;
+    }
+
+    // one sketch per horizon, in the order given, over the compounded losses of all its windows
+    public LossQuantileSketch[] replay(double[] dailyReturns, int[] horizons, double relativeAccuracy) {
+        for (int horizon : horizons) {
+            if (horizon < 1 || horizon > dailyReturns.length) {
+                throw new IllegalArgumentException("horizon must be between 1 and the number of days replayed");
+            }
+        }
+        // log-wealth before each day, so a window's compounded return is a difference of two entries.
+        // a return of -100% or worse leaves nothing, and log1p(-1) = -infinity would turn every later
+        // difference into NaN. those days are counted instead and left out of the log-wealth: a window
+        // holding one loses everything, the windows after it replay as usual
+        double[] logWealth = new double[dailyReturns.length + 1];
+        int[] totalLosses = new int[dailyReturns.length + 1];
+        for (int day = 0; day < dailyReturns.length; day++) {
+            boolean totalLoss = dailyReturns[day] <= -1;
+            logWealth[day + 1] = logWealth[day] + (totalLoss ? 0 : Math.log1p(dailyReturns[day]));
+            totalLosses[day + 1] = totalLosses[day] + (totalLoss ? 1 : 0);
+        }
+        return pool.invoke(new ChunkTask(logWealth, totalLosses, horizons, relativeAccuracy, 0, dailyReturns.length));
+    }
+
+    // var and cvar at each confidence from the horizon sketches, horizon-major
+    public static List<RiskEstimate> estimates(LossQuantileSketch[] sketches, int[] horizons, double[] confidences) {
+        List<RiskEstimate> estimates = new ArrayList<>(horizons.length * confidences.length);
+        for (int h = 0; h < horizons.length; h++) {
+            for (double confidence : confidences) {
+                estimates.add(new RiskEstimate(horizons[h], confidence,
+                        sketches[h].quantile(confidence), sketches[h].tailMean(confidence)));
+            }
+        }
+        return estimates;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<LossQuantileSketch[]> {
+
+        private final double[] logWealth;
+        // total-loss days before each day
+        private final int[] totalLosses;
+        private final int[] horizons;
+        private final double relativeAccuracy;
+        // window start days [from, to)
+        private final int from;
+        private final int to;
+
+        private ChunkTask(double[] logWealth, int[] totalLosses, int[] horizons, double relativeAccuracy,
+                          int from, int to) {
+            this.logWealth = logWealth;
+            this.totalLosses = totalLosses;
+            this.horizons = horizons;
+            this.relativeAccuracy = relativeAccuracy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LossQuantileSketch[] compute() {
+            if (to - from <= CHUNK_DAYS) {
+                return replayChunk();
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask later = new ChunkTask(logWealth, totalLosses, horizons, relativeAccuracy, middle, to);
+            later.fork();
+            LossQuantileSketch[] sketches =
+                    new ChunkTask(logWealth, totalLosses, horizons, relativeAccuracy, from, middle).compute();
+            LossQuantileSketch[] laterSketches = later.join();
+            for (int h = 0; h < sketches.length; h++) {
+                sketches[h].merge(laterSketches[h]);
+            }
+            return sketches;
+        }
+
+        private LossQuantileSketch[] replayChunk() {
+            int days = logWealth.length - 1;
+            LossQuantileSketch[] sketches = new LossQuantileSketch[horizons.length];
+            for (int h = 0; h < horizons.length; h++) {
+                LossQuantileSketch sketch = new LossQuantileSketch(relativeAccuracy);
+                int last = Math.min(to, days - horizons[h] + 1);
+                for (int start = from; start < last; start++) {
+                    int end = start + horizons[h];
+                    sketch.add(totalLosses[end] > totalLosses[start]
+                            ? 1
+                            : -Math.expm1(logWealth[end] - logWealth[start]));
+                }
+                sketches[h] = sketch;
+            }
+            return sketches;
+        }
+    }
+}
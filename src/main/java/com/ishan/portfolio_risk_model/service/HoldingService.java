@@ -1,29 +1,128 @@
 package com.ishan.portfolio_risk_model.service;
 
+import com.ishan.portfolio_risk_model.config.ReplicaRoutingDataSource;
 import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.UserHoldingsVersion;
 import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
 import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
 import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsSyncResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 // service for managing user holdings
 @Service
 @AllArgsConstructor
 public class HoldingService {
 
+    static final int MAX_BULK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
     private final HoldingsRepository holdingsRepository;
+    private final UserRepository userRepository;
+    private final HoldingsCache holdingsCache;
+    private final Validator validator;
 
     // get all holdings
+    @Transactional(readOnly = true)
     public List<HoldingsResponse> getHoldings() {
-        UserEntity user = getCurrentUser();
+        return getHoldingsSnapshot().getHoldings();
+    }
+
+    // the current user's holdings with their version
+    @Transactional(readOnly = true)
+    public HoldingsCache.CachedHoldings getHoldingsSnapshot() {
+        return getHoldingsSnapshot(getCurrentUser());
+    }
+
+    // current version of the current user's holdings. answers "has anything changed?" with a primary-key
+    // lookup instead of loading the holdings
+    public long getHoldingsVersion() {
+        return holdingsVersion(getCurrentUser().getId());
+    }
+
+    // whether the user's holdings are cached right now (for profiling; the entry can still be out of date
+    // or evicted before use)
+    public boolean isHoldingsCached(UserEntity user) {
+        return holdingsCache.cachedVersion(user.getId()) != null;
+    }
+
+    // the user's holdings with their version, read through the holdings cache. the version and any
+    // load come from the primary so a lagging replica can't hold back a write made through another instance
+    public HoldingsCache.CachedHoldings getHoldingsSnapshot(UserEntity user) {
+        long version = holdingsVersion(user.getId());
+        return holdingsCache.getOrLoad(user.getId(), version, () -> ReplicaRoutingDataSource.onPrimary(() ->
+                holdingsRepository.findByUser(user).stream().map(this::toResponse).toList()));
+    }
+
+    // caches the holdings of the listed users who aren't cached yet, with one query for their versions and
+    // one for their holdings (startup warm-up). reads the primary for the same reason as
+    // getHoldingsSnapshot; returns how many users were loaded
+    @Transactional(readOnly = true)
+    public int warmCache(List<Long> userIds) {
+        return holdingsCache.loadMissing(userIds, missing -> ReplicaRoutingDataSource.onPrimary(() -> {
+            // versions first, so a write landing between the two queries only makes an entry look older
+            Map<Long, Long> versions = holdingsVersions(missing);
+            Map<Long, List<HoldingsResponse>> holdings = holdingsRepository.findByUserIdIn(missing).stream()
+                    .collect(Collectors.groupingBy(holding -> holding.getUser().getId(),
+                            Collectors.mapping(this::toResponse, Collectors.toList())));
+            Map<Long, HoldingsCache.CachedHoldings> loaded = new HashMap<>();
+            versions.forEach((userId, version) -> loaded.put(userId,
+                    new HoldingsCache.CachedHoldings(holdings.getOrDefault(userId, List.of()), version)));
+            return loaded;
+        }));
+    }
+
+    // installs holdings saved in a cache snapshot (startup warm-up) for the users whose holdings version on
+    // the primary is still the saved one, without loading their holdings. returns the other users, whose
+    // holdings were written since the snapshot (or who no longer exist), for the caller to load afresh
+    @Transactional(readOnly = true)
+    public List<Long> restoreCache(Map<Long, HoldingsCache.CachedHoldings> saved) {
+        Map<Long, Long> versions = ReplicaRoutingDataSource.onPrimary(() -> holdingsVersions(saved.keySet()));
+        Map<Long, HoldingsCache.CachedHoldings> unchanged = new HashMap<>();
+        List<Long> changed = new ArrayList<>();
+        saved.forEach((userId, holdings) -> {
+            Long version = versions.get(userId);
+            if (version != null && version == holdings.getVersion()) {
+                unchanged.put(userId, holdings);
+            } else {
+                changed.add(userId);
+            }
+        });
+        holdingsCache.loadMissing(List.copyOf(unchanged.keySet()), missing -> missing.stream()
+                .collect(Collectors.toMap(userId -> userId, unchanged::get)));
+        return changed;
+    }
 
-        return holdingsRepository.findByUser(user).stream()
-                .map(this::toResponse).toList();
+    private Map<Long, Long> holdingsVersions(Collection<Long> userIds) {
+        return userRepository.findHoldingsVersionsByIdIn(userIds).stream()
+                .collect(Collectors.toMap(UserHoldingsVersion::getId, UserHoldingsVersion::getHoldingsVersion));
+    }
+
+    private long holdingsVersion(Long userId) {
+        return ReplicaRoutingDataSource.onPrimary(() -> userRepository.findHoldingsVersionById(userId));
+    }
+
+    // every write bumps the version in its own transaction (or straight after, for the single-row
+    // writes), which is what tells every instance's cache the user's holdings changed
+    private void holdingsChanged(Long userId) {
+        userRepository.incrementHoldingsVersion(userId);
+        holdingsCache.invalidate(userId);
     }
 
     // create a new holding
@@ -42,9 +141,81 @@ public class HoldingService {
         holding.setQuantity(request.getQuantity());
 
         HoldingsEntity saved = holdingsRepository.save(holding);
+        holdingsChanged(user.getId());
         return toResponse(saved);
     }
 
+    // import many holdings at once. every row is validated and checked for duplicates before anything
+    // is written, so the import either succeeds as a whole or changes nothing
+    @Transactional
+    public List<HoldingsResponse> importHoldings(List<HoldingsRequest> requests) {
+        UserEntity user = getCurrentUser();
+
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No holdings to import");
+        }
+        checkBulkSize(requests);
+
+        // one query for the tickers already held instead of an exists check per row
+        validateRows(requests, holdingsRepository.findTickersByUser(user));
+
+        List<HoldingsEntity> holdings = requests.stream()
+                .map(request -> newHolding(user, request)).toList();
+
+        // ids come from the pooled sequence, so hibernate flushes these as batched inserts
+        List<HoldingsEntity> saved = holdingsRepository.saveAll(holdings);
+        holdingsChanged(user.getId());
+        return saved.stream().map(this::toResponse).toList();
+    }
+
+    // replace the user's holdings with the given set. the diff is computed in memory and only the
+    // inserts, quantity changes and deletes are written, all in one transaction
+    @Transactional
+    public HoldingsSyncResponse syncHoldings(List<HoldingsRequest> requests) {
+        UserEntity user = getCurrentUser();
+
+        if (requests == null) {
+            throw new IllegalArgumentException("Holdings are required");
+        }
+        checkBulkSize(requests);
+        validateRows(requests, Set.of());
+
+        Map<String, HoldingsEntity> current = new HashMap<>();
+        for (HoldingsEntity holding : holdingsRepository.findByUser(user)) {
+            current.put(holding.getTicker(), holding);
+        }
+
+        List<HoldingsEntity> created = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        for (HoldingsRequest request : requests) {
+            HoldingsEntity holding = current.remove(request.getTicker());
+            if (holding == null) {
+                created.add(newHolding(user, request));
+            } else if (holding.getQuantity().compareTo(request.getQuantity()) != 0) {
+                // managed entity, flushed as a batched update on commit
+                holding.setQuantity(request.getQuantity());
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        // whatever is left is no longer in the desired set
+        List<HoldingsEntity> deleted = new ArrayList<>(current.values());
+        if (!deleted.isEmpty()) {
+            holdingsRepository.deleteAllInBatch(deleted);
+        }
+        if (!created.isEmpty()) {
+            holdingsRepository.saveAll(created);
+        }
+        if (!created.isEmpty() || updated > 0 || !deleted.isEmpty()) {
+            holdingsChanged(user.getId());
+        }
+
+        return new HoldingsSyncResponse(created.size(), updated, deleted.size(), unchanged);
+    }
+
     // update the quantity of an existing holding
     public HoldingsResponse updateHolding(Long holdingId, HoldingsRequest request) {
         UserEntity user = getCurrentUser();
@@ -62,6 +233,7 @@ public class HoldingService {
         holding.setQuantity(request.getQuantity());
 
         HoldingsEntity saved = holdingsRepository.save(holding);
+        holdingsChanged(user.getId());
         return toResponse(saved);
     }
 
@@ -78,6 +250,58 @@ public class HoldingService {
             throw new IllegalArgumentException("Holding not found");
         }
         holdingsRepository.delete(holding);
+        holdingsChanged(user.getId());
+    }
+
+    private void checkBulkSize(List<HoldingsRequest> requests) {
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("Cannot submit more than " + MAX_BULK_SIZE + " holdings at once");
+        }
+    }
+
+    // validate every row and reject tickers repeated in the request or already held,
+    // reporting all problems in one error
+    private void validateRows(List<HoldingsRequest> requests, Set<String> existingTickers) {
+        Set<String> seenTickers = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            HoldingsRequest request = requests.get(i);
+            int row = i + 1;
+
+            Set<ConstraintViolation<HoldingsRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                violations.forEach(v -> errors.add("row " + row + ": " + v.getMessage()));
+                continue;
+            }
+
+            String ticker = request.getTicker();
+            if (existingTickers.contains(ticker)) {
+                errors.add("row " + row + ": You already have a holding for " + ticker);
+            } else if (!seenTickers.add(ticker)) {
+                errors.add("row " + row + ": Duplicate ticker " + ticker);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(summarizeErrors(errors));
+        }
+    }
+
+    private HoldingsEntity newHolding(UserEntity user, HoldingsRequest request) {
+        HoldingsEntity holding = new HoldingsEntity();
+        holding.setUser(user);
+        holding.setTicker(request.getTicker());
+        holding.setQuantity(request.getQuantity());
+        return holding;
+    }
+
+    private String summarizeErrors(List<String> errors) {
+        if (errors.size() <= MAX_REPORTED_ERRORS) {
+            return String.join("; ", errors);
+        }
+        return String.join("; ", errors.subList(0, MAX_REPORTED_ERRORS))
+                + " (and " + (errors.size() - MAX_REPORTED_ERRORS) + " more errors)";
     }
 
     private HoldingsResponse toResponse(HoldingsEntity saved) {
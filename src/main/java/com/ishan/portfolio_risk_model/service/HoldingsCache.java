@@ -0,0 +1,136 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// per-user read-through cache of holdings, bounded to the most recently used users. each entry keeps the
+// user's holdings version (users.holdings_version, bumped in the database by every write) read before the
+// holdings were loaded, and is only served while that version is still current. a write through any
+// instance changes the version, so every instance reloads on its next read instead of serving old rows
+@Component
+public class HoldingsCache {
+
+    @Getter
+    @AllArgsConstructor
+    public static final class CachedHoldings {
+        private final List<HoldingsResponse> holdings;
+        private final long version;
+    }
+
+    private final LinkedHashMap<Long, CachedHoldings> entries;
+
+    // a lock rather than synchronized: waiting on a monitor pins a virtual thread's carrier on java 21
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HoldingsCache(@Value("${holdings.cache.max-users:10000}") int maxUsers) {
+        if (maxUsers < 1) {
+            throw new IllegalArgumentException("holdings.cache.max-users must be positive");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedHoldings> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    // cached holdings for the user if they were loaded at currentVersion or later, otherwise loads them.
+    // currentVersion must be read from the database before the loader runs: a write committed in between
+    // then only makes the new entry look older than it is, so it is reloaded once rather than served stale
+    public CachedHoldings getOrLoad(Long userId, long currentVersion, Supplier<List<HoldingsResponse>> loader) {
+        lock.lock();
+        try {
+            CachedHoldings cached = entries.get(userId);
+            if (cached != null && cached.getVersion() >= currentVersion) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // the loader runs outside the lock
+        return store(userId, new CachedHoldings(List.copyOf(loader.get()), currentVersion));
+    }
+
+    // caches the holdings of every listed user who isn't cached yet, loading them all with one loader
+    // call (startup warm-up). the loader returns each user's holdings with the version read before them;
+    // users missing from its map are left out. returns how many users were loaded
+    public int loadMissing(Collection<Long> userIds, Function<List<Long>, Map<Long, CachedHoldings>> loader) {
+        List<Long> missing;
+        lock.lock();
+        try {
+            missing = userIds.stream().filter(userId -> !entries.containsKey(userId)).toList();
+        } finally {
+            lock.unlock();
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, CachedHoldings> loaded = loader.apply(missing);
+        loaded.forEach((userId, holdings) -> store(userId,
+                new CachedHoldings(List.copyOf(holdings.getHoldings()), holdings.getVersion())));
+        return loaded.size();
+    }
+
+    // keeps a load unless a newer one was stored while it ran; returns what the caller should use
+    private CachedHoldings store(Long userId, CachedHoldings loaded) {
+        lock.lock();
+        try {
+            CachedHoldings current = entries.get(userId);
+            if (current != null && current.getVersion() > loaded.getVersion()) {
+                return current;
+            }
+            entries.put(userId, loaded);
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // version the user's cached holdings were loaded at, or null when they aren't cached. says nothing
+    // about whether they are still current
+    public Long cachedVersion(Long userId) {
+        lock.lock();
+        try {
+            CachedHoldings cached = entries.get(userId);
+            return cached != null ? cached.getVersion() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // cached users and their holdings, most recently used first, for the shutdown snapshot
+    public Map<Long, CachedHoldings> hottest() {
+        lock.lock();
+        try {
+            Map<Long, CachedHoldings> hottest = new LinkedHashMap<>();
+            entries.sequencedEntrySet().reversed().forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+            return hottest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // drop the user's holdings after a write through this instance, so the memory goes now rather than
+    // on the next read. correctness doesn't depend on it: the write's version bump does that
+    public void invalidate(Long userId) {
+        lock.lock();
+        try {
+            entries.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// the holdings cache's hot users, saved to a local file on graceful shutdown so the next start can
+// warm the cache with them (see HoldingsCacheWarmup) instead of starting cold. keys only by default:
+// the warm-up reloads their holdings from the database. with values, each user's holdings are saved with
+// the holdings version they were loaded at, and the warm-up only restores users still at that version
+@Slf4j
+@Component
+public class HoldingsCacheSnapshot {
+
+    // holdings and version are null in a keys-only snapshot
+    public record Entry(Long userId, List<HoldingsResponse> holdings, Long version) {
+    }
+
+    // users are hottest first
+    public record Contents(Instant savedAt, List<Entry> users) {
+    }
+
+    private final HoldingsCache holdingsCache;
+    private final JsonMapper jsonMapper;
+    private final Path file;
+    private final boolean includeValues;
+
+    public HoldingsCacheSnapshot(HoldingsCache holdingsCache,
+                                 JsonMapper jsonMapper,
+                                 @Value("${holdings.cache.snapshot.file:}") String file,
+                                 @Value("${holdings.cache.snapshot.values:false}") boolean includeValues) {
+        this.holdingsCache = holdingsCache;
+        this.jsonMapper = jsonMapper;
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.includeValues = includeValues;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        save();
+    }
+
+    // writes to a temporary file first, so a crash mid-write leaves the previous snapshot in place
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        List<Entry> users = new ArrayList<>();
+        holdingsCache.hottest().forEach((userId, cached) -> users.add(includeValues
+                ? new Entry(userId, cached.getHoldings(), cached.getVersion())
+                : new Entry(userId, null, null)));
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                jsonMapper.writeValue(temporary.toFile(), new Contents(Instant.now(), users));
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            log.info("Saved {} hot users of the holdings cache to {}", users.size(), file);
+        } catch (IOException | JacksonException e) {
+            log.warn("Could not save the holdings cache snapshot to {}", file, e);
+        }
+    }
+
+    // the last saved snapshot; empty when snapshots are off, none was saved or it can't be read
+    public Optional<Contents> load() {
+        if (file == null || !Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(jsonMapper.readValue(file.toFile(), Contents.class));
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable holdings cache snapshot {}", file, e);
+            return Optional.empty();
+        }
+    }
+}
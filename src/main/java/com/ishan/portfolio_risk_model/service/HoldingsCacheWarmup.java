@@ -0,0 +1,169 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.BatchWorkload;
+import com.ishan.portfolio_risk_model.config.DeferredWarmup;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// fills the holdings cache at startup: with the hot users saved at the last shutdown when there is a
+// snapshot (see HoldingsCacheSnapshot), otherwise with the users who ran analyses most recently.
+// holdings are loaded from the database at no more than warmup-rate users per second, hottest first,
+// on the batch pool, so live traffic keeps the interactive pool and most of the database to itself.
+// a recent snapshot with values is restored without loading holdings, except for the users whose holdings
+// version in the database has moved on since it was saved
+@Slf4j
+@Component
+@BatchWorkload
+public class HoldingsCacheWarmup implements DeferredWarmup {
+
+    // users whose holdings are loaded per query
+    private static final int CHUNK_SIZE = 500;
+    // recent results read per user wanted; active users have several each
+    private static final int RESULTS_PER_USER = 4;
+    // queries per second at the target rate: small chunks spread the load instead of bursting
+    private static final int QUERIES_PER_SECOND = 10;
+
+    private final FactorAnalysisResultsRepository resultsRepository;
+    private final HoldingService holdingService;
+    private final HoldingsCache holdingsCache;
+    private final HoldingsCacheSnapshot snapshot;
+    private final int warmupUsers;
+    private final int warmupRate;
+    private final Duration snapshotMaxValueAge;
+
+    // progress of the startup warm-up, published as gauges
+    private final AtomicLong usersTotal = new AtomicLong();
+    private final AtomicLong usersDone = new AtomicLong();
+
+    public HoldingsCacheWarmup(FactorAnalysisResultsRepository resultsRepository,
+                               HoldingService holdingService,
+                               HoldingsCache holdingsCache,
+                               HoldingsCacheSnapshot snapshot,
+                               MeterRegistry meterRegistry,
+                               @Value("${holdings.cache.warmup-users:1000}") int warmupUsers,
+                               @Value("${holdings.cache.warmup-rate:200}") int warmupRate,
+                               @Value("${holdings.cache.snapshot.max-value-age:15m}") Duration snapshotMaxValueAge) {
+        if (warmupUsers < 0 || warmupRate < 0) {
+            throw new IllegalArgumentException("holdings.cache.warmup-users and warmup-rate must not be negative");
+        }
+        this.resultsRepository = resultsRepository;
+        this.holdingService = holdingService;
+        this.holdingsCache = holdingsCache;
+        this.snapshot = snapshot;
+        this.warmupUsers = warmupUsers;
+        this.warmupRate = warmupRate;
+        this.snapshotMaxValueAge = snapshotMaxValueAge;
+
+        meterRegistry.gauge("holdings.cache.warmup.users.total", usersTotal);
+        meterRegistry.gauge("holdings.cache.warmup.users.done", usersDone);
+    }
+
+    @Override
+    public String getWarmupName() {
+        return "holdings-cache";
+    }
+
+    @Override
+    public void warmUp() {
+        Optional<HoldingsCacheSnapshot.Contents> saved = snapshot.load();
+        if (saved.isPresent()) {
+            warmFromSnapshot(saved.get());
+        } else if (warmupUsers > 0) {
+            List<Long> userIds = new ArrayList<>(new LinkedHashSet<>(
+                    resultsRepository.findRecentResultUserIds(Limit.of(warmupUsers * RESULTS_PER_USER))));
+            List<Long> recent = userIds.subList(0, Math.min(warmupUsers, userIds.size()));
+            usersTotal.set(recent.size());
+            int loaded = load(recent);
+            log.info("Holdings cache warmed with {} of {} recently active users", loaded, recent.size());
+        }
+    }
+
+    private void warmFromSnapshot(HoldingsCacheSnapshot.Contents saved) {
+        Duration age = Duration.between(saved.savedAt(), Instant.now());
+        boolean hasValues = !saved.users().isEmpty() && saved.users().stream()
+                .allMatch(user -> user.holdings() != null && user.version() != null);
+        if (hasValues && age.compareTo(snapshotMaxValueAge) <= 0) {
+            restore(saved.users(), age);
+            return;
+        }
+
+        // cached users come first in a snapshot, so the hottest are loaded first
+        List<Long> userIds = saved.users().stream().map(HoldingsCacheSnapshot.Entry::userId).toList();
+        usersTotal.set(userIds.size());
+        int loaded = load(userIds);
+        log.info("Holdings cache warmed with {} of {} users from a snapshot saved {}s ago",
+                loaded, userIds.size(), age.toSeconds());
+    }
+
+    // installs the saved holdings of users whose holdings version in the database is still the saved one,
+    // a chunk at a time, then loads the users written since (through any instance) from the database
+    private void restore(List<HoldingsCacheSnapshot.Entry> users, Duration age) {
+        usersTotal.set(users.size());
+        List<Long> changed = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += CHUNK_SIZE) {
+            Map<Long, HoldingsCache.CachedHoldings> chunk = new LinkedHashMap<>();
+            users.subList(from, Math.min(from + CHUNK_SIZE, users.size())).forEach(user -> chunk.put(user.userId(),
+                    new HoldingsCache.CachedHoldings(user.holdings(), user.version())));
+            List<Long> changedInChunk = holdingService.restoreCache(chunk);
+            changed.addAll(changedInChunk);
+            usersDone.addAndGet(chunk.size() - changedInChunk.size());
+        }
+        log.info("Holdings cache restored with {} users from a snapshot saved {}s ago",
+                users.size() - changed.size(), age.toSeconds());
+
+        if (!changed.isEmpty()) {
+            int loaded = load(changed);
+            log.info("Holdings cache reloaded {} of {} users written since the snapshot", loaded, changed.size());
+        }
+    }
+
+    // loads the users' holdings a chunk at a time, pacing the chunks to the warm-up rate
+    private int load(List<Long> userIds) {
+        int chunkSize = warmupRate == 0 ? CHUNK_SIZE
+                : Math.clamp(warmupRate / QUERIES_PER_SECOND, 1, CHUNK_SIZE);
+        long start = System.nanoTime();
+        int loaded = 0;
+        int done = 0;
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+            loaded += holdingService.warmCache(chunk);
+            done += chunk.size();
+            usersDone.addAndGet(chunk.size());
+            boolean more = done < userIds.size();
+            if (more && warmupRate > 0 && !pauseUntil(start + TimeUnit.SECONDS.toNanos(done) / warmupRate)) {
+                break;
+            }
+        }
+        return loaded;
+    }
+
+    // false if interrupted (the app is shutting down)
+    private static boolean pauseUntil(long dueNanos) {
+        long remaining = dueNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
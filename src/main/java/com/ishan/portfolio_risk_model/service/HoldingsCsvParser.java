@@ -0,0 +1,59 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// parses a "ticker,quantity" CSV export into holding requests. an optional header row is skipped;
+// field validation is left to HoldingService so JSON and CSV imports report errors the same way
+public final class HoldingsCsvParser {
+
+    private HoldingsCsvParser() {
+    }
+
+    public static List<HoldingsRequest> parse(String csv) {
+        List<HoldingsRequest> requests = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        String[] lines = csv.split("\\R");
+        boolean firstRow = true;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] cells = line.split(",", -1);
+            if (firstRow && cells[0].strip().equalsIgnoreCase("ticker")) {
+                firstRow = false;
+                continue;
+            }
+            firstRow = false;
+
+            int lineNumber = i + 1;
+            if (cells.length != 2) {
+                errors.add("line " + lineNumber + ": expected ticker,quantity");
+                continue;
+            }
+
+            BigDecimal quantity = null;
+            String rawQuantity = cells[1].strip();
+            if (!rawQuantity.isEmpty()) {
+                try {
+                    quantity = new BigDecimal(rawQuantity);
+                } catch (NumberFormatException e) {
+                    errors.add("line " + lineNumber + ": invalid quantity '" + rawQuantity + "'");
+                    continue;
+                }
+            }
+            requests.add(new HoldingsRequest(cells[0].strip(), quantity));
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        return requests;
+    }
+}
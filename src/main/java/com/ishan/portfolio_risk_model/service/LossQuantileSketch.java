@@ -0,0 +1,216 @@
+package com.ishan.portfolio_risk_model.service;
+
+/**
+ * One-pass quantile sketch for losses, in the style of DDSketch: values fall into logarithmic buckets
+ * whose bounds grow by a factor gamma, so any quantile comes back within the relative accuracy of the
+ * true value, with memory that depends on the range of the values rather than their number (a few
+ * thousand buckets cover 1e-12 to 1 at 0.1%).
+ *
+ * <p>Sketches with the same accuracy merge by adding bucket counts. Merging is exact, so the result
+ * doesn't depend on how the values were split up: chunks replayed in parallel, or one sketch per user
+ * combined for tails across users, give the same answer as a single sketch over everything.
+ * Not thread-safe; give each thread its own and merge.
+ */
+public final class LossQuantileSketch {
+
+    // smaller magnitudes count as zero
+    private static final double MIN_INDEXABLE = 1e-12;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    private final Store positive = new Store();
+    private final Store negative = new Store();
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public LossQuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relative accuracy must be between 0 and 1 (exclusive)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("value must be a number");
+        }
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // adds the other sketch's values to this one
+    public LossQuantileSketch merge(LossQuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("only sketches with the same relative accuracy can be merged");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    // the value at RiskEstimate.tailRank(q) in ascending order, within the relative accuracy
+    public double quantile(double q) {
+        checkQuantile(q);
+        long rank = RiskEstimate.tailRank(q, count);
+        double[] found = {Double.NaN};
+        walk((value, bucketCount, below) -> {
+            if (below + bucketCount > rank) {
+                found[0] = value;
+                return false;
+            }
+            return true;
+        });
+        return clamp(found[0]);
+    }
+
+    // mean of the values at or above quantile(q): the CVaR when the values are losses
+    public double tailMean(double q) {
+        checkQuantile(q);
+        long rank = RiskEstimate.tailRank(q, count);
+        double[] sum = {0};
+        walk((value, bucketCount, below) -> {
+            long inTail = below + bucketCount - Math.max(below, rank);
+            if (inTail > 0) {
+                sum[0] += inTail * clamp(value);
+            }
+            return true;
+        });
+        return sum[0] / (count - rank);
+    }
+
+    private void checkQuantile(double q) {
+        if (count == 0) {
+            throw new IllegalStateException("sketch is empty");
+        }
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+        }
+    }
+
+    private interface BucketVisitor {
+        // below: values in the buckets already visited. return false to stop
+        boolean visit(double value, long count, long below);
+    }
+
+    // buckets in ascending order of value: most negative first
+    private void walk(BucketVisitor visitor) {
+        long below = 0;
+        for (int i = negative.maxIndex; i >= negative.minIndex; i--) {
+            long c = negative.get(i);
+            if (c > 0) {
+                if (!visitor.visit(-value(i), c, below)) {
+                    return;
+                }
+                below += c;
+            }
+        }
+        if (zeroCount > 0) {
+            if (!visitor.visit(0, zeroCount, below)) {
+                return;
+            }
+            below += zeroCount;
+        }
+        for (int i = positive.minIndex; i <= positive.maxIndex; i++) {
+            long c = positive.get(i);
+            if (c > 0) {
+                if (!visitor.visit(value(i), c, below)) {
+                    return;
+                }
+                below += c;
+            }
+        }
+    }
+
+    // bucket i holds magnitudes in (gamma^(i-1), gamma^i]
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    // the point with the same relative distance to both bounds of bucket i
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    // a bucket's midpoint can fall outside the values actually seen
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // counts by bucket index, in an array that grows to the range of indexes seen
+    private static final class Store {
+
+        private long[] counts;
+        private int offset;
+        private int minIndex = Integer.MAX_VALUE;
+        private int maxIndex = Integer.MIN_VALUE;
+
+        boolean isEmpty() {
+            return counts == null;
+        }
+
+        long get(int index) {
+            return counts[index - offset];
+        }
+
+        void add(int index, long count) {
+            ensureRange(index);
+            counts[index - offset] += count;
+        }
+
+        void merge(Store other) {
+            if (other.isEmpty()) {
+                return;
+            }
+            ensureRange(other.minIndex);
+            ensureRange(other.maxIndex);
+            for (int i = other.minIndex; i <= other.maxIndex; i++) {
+                counts[i - offset] += other.counts[i - other.offset];
+            }
+        }
+
+        private void ensureRange(int index) {
+            if (counts == null) {
+                counts = new long[64];
+                offset = index - counts.length / 2;
+            } else if (index < offset || index >= offset + counts.length) {
+                int low = Math.min(index, minIndex);
+                int high = Math.max(index, maxIndex);
+                // room to grow both ways, so a run of new extremes doesn't copy every time
+                int length = Math.max(2 * counts.length, high - low + 1 + 64);
+                long[] grown = new long[length];
+                int newOffset = low - (length - (high - low + 1)) / 2;
+                System.arraycopy(counts, minIndex - offset, grown, minIndex - newOffset, maxIndex - minIndex + 1);
+                counts = grown;
+                offset = newOffset;
+            }
+            minIndex = Math.min(minIndex, index);
+            maxIndex = Math.max(maxIndex, index);
+        }
+    }
+}
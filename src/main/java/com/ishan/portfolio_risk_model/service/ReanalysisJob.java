@@ -0,0 +1,379 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.BatchWorkload;
+import com.ishan.portfolio_risk_model.config.DeferredWarmup;
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.ReanalysisCheckpointEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.ReanalysisCheckpointRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// re-runs every user's analysis once new factor data has been loaded, so the whole user base doesn't
+// rerun it by hand at once. users with holdings are walked in id order, a chunk at a time: one query
+// loads the chunk's holdings, the chunk is split into partitions that call flask in parallel (one
+// virtual thread each, so at most `parallelism` regressions are in flight), and the results are
+// inserted in JDBC batches in the same transaction that moves the checkpoint past the chunk. a
+// restarted job picks up after the last committed chunk and never saves a user's result twice.
+// when flask itself is failing (5xx, 429 or no connection) the chunk is dropped without moving the
+// checkpoint and the run stops, so the next trigger retries those users.
+// every instance may run the job: starting a run and moving the checkpoint past a chunk are
+// conditional updates of the checkpoint row, so of two instances working from the same checkpoint
+// only the first to commit saves its chunk. the other rolls back its results and leaves the run to it
+@Slf4j
+@Component
+@BatchWorkload
+public class ReanalysisJob implements DeferredWarmup {
+
+    static final String JOB_NAME = "factor-reanalysis";
+
+    // same default window as an interactive run, ending at the newest factor data
+    private static final int WINDOW_YEARS = 3;
+
+    private static final String INSERT_RESULT_SQL = "INSERT INTO factor_analysis_results (user_id, analysis_date, "
+            + "alpha, beta_mkt, beta_smb, beta_hml, beta_rmw, beta_cma, r_squared, "
+            + "t_stat_alpha, t_stat_mkt, t_stat_smb, t_stat_hml, t_stat_rmw, t_stat_cma, "
+            + "std_err_alpha, std_err_mkt, std_err_smb, std_err_hml, std_err_rmw, std_err_cma, "
+            + "residual_variance, n_observations) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private record UserResult(Long userId, FactorAnalysisResultsEntity result) {
+    }
+
+    // another instance moved the checkpoint since this run read it
+    private static final class CheckpointMovedException extends RuntimeException {
+    }
+
+    private final HoldingsRepository holdingsRepository;
+    private final FamaFrenchFactorRepository factorRepository;
+    private final ReanalysisCheckpointRepository checkpointRepository;
+    private final AnalysisService analysisService;
+    private final FlaskClient flaskClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final int insertBatchSize;
+    private final double targetUsersPerMinute;
+
+    // one run at a time in this instance; a scheduled run that finds one going is skipped
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // progress of the current (or last) run, published as gauges
+    private final AtomicLong usersTotal = new AtomicLong();
+    private final AtomicLong usersDone = new AtomicLong();
+    private final AtomicLong lastUserId = new AtomicLong();
+    private final Counter analyzedCounter;
+    private final Counter failedCounter;
+    private final Timer chunkTimer;
+
+    public ReanalysisJob(HoldingsRepository holdingsRepository,
+                         FamaFrenchFactorRepository factorRepository,
+                         ReanalysisCheckpointRepository checkpointRepository,
+                         AnalysisService analysisService,
+                         FlaskClient flaskClient,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${analysis.reanalysis.chunk-size:200}") int chunkSize,
+                         @Value("${analysis.reanalysis.parallelism:8}") int parallelism,
+                         @Value("${analysis.reanalysis.insert-batch-size:50}") int insertBatchSize,
+                         @Value("${analysis.reanalysis.target-users-per-minute:300}") double targetUsersPerMinute) {
+        if (chunkSize < 1 || parallelism < 1 || insertBatchSize < 1) {
+            throw new IllegalArgumentException("analysis.reanalysis chunk-size, parallelism and insert-batch-size must be positive");
+        }
+        this.holdingsRepository = holdingsRepository;
+        this.factorRepository = factorRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.analysisService = analysisService;
+        this.flaskClient = flaskClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.insertBatchSize = insertBatchSize;
+        this.targetUsersPerMinute = targetUsersPerMinute;
+
+        meterRegistry.gauge("reanalysis.running", running, flag -> flag.get() ? 1 : 0);
+        meterRegistry.gauge("reanalysis.users.total", usersTotal);
+        meterRegistry.gauge("reanalysis.users.done", usersDone);
+        meterRegistry.gauge("reanalysis.last.user.id", lastUserId);
+        this.analyzedCounter = Counter.builder("reanalysis.users.processed").tag("outcome", "analyzed").register(meterRegistry);
+        this.failedCounter = Counter.builder("reanalysis.users.processed").tag("outcome", "failed").register(meterRegistry);
+        this.chunkTimer = Timer.builder("reanalysis.chunk").register(meterRegistry);
+    }
+
+    @Override
+    public String getWarmupName() {
+        return "batch-pool";
+    }
+
+    // opens the batch pool's first connection (the pool starts empty) with the two small lookups every
+    // run starts with, and logs where the job stands. it loads nothing into memory for later runs
+    @Override
+    public void warmUp() {
+        Optional<LocalDate> latestFactorDate = factorRepository.findLatestFactorDate();
+        boolean checkpointed = checkpointRepository.findById(JOB_NAME).isPresent();
+        log.info("Factor data loaded up to {}{}", latestFactorDate.map(LocalDate::toString).orElse("(none)"),
+                checkpointed ? "; a re-analysis checkpoint is waiting" : "");
+    }
+
+    // checks for new factor data on the schedule and works through any unfinished run. returns false
+    // when there was nothing to do, another run was already going (here or on another instance) or
+    // flask failed before the end
+    @Scheduled(cron = "${analysis.reanalysis.cron:-}")
+    public boolean run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Re-analysis already running, skipping");
+            return false;
+        }
+        try {
+            Optional<LocalDate> latestFactorDate = factorRepository.findLatestFactorDate();
+            if (latestFactorDate.isEmpty()) {
+                return false;
+            }
+            ReanalysisCheckpointEntity checkpoint = startOrResume(latestFactorDate.get());
+            if (checkpoint == null) {
+                return false;
+            }
+            try {
+                runFrom(checkpoint);
+            } catch (FlaskServiceException e) {
+                log.warn("Re-analysis stopped after user {}, flask is unavailable: {} {}",
+                        lastUserId.get(), e.getStatus().value(), e.getMessage());
+                return false;
+            } catch (CheckpointMovedException e) {
+                log.info("Another instance moved the re-analysis checkpoint past user {}, leaving the run to it",
+                        lastUserId.get());
+                return false;
+            }
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // the checkpoint to continue from, or null when every user is done for this factor data
+    private ReanalysisCheckpointEntity startOrResume(LocalDate factorDate) {
+        ReanalysisCheckpointEntity checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint != null && factorDate.equals(checkpoint.getFactorDate())) {
+            if (checkpoint.getCompletedAt() != null) {
+                return null;
+            }
+            log.info("Resuming re-analysis for factor data up to {} after user {}", factorDate, checkpoint.getLastUserId());
+            return checkpoint;
+        }
+
+        // first run, or newer factor data: start again from the first user, unless another instance
+        // started (or restarted) the run since the row was read
+        LocalDateTime now = LocalDateTime.now();
+        int started;
+        try {
+            started = checkpoint == null
+                    ? checkpointRepository.insertStarted(JOB_NAME, factorDate, now)
+                    : checkpointRepository.restart(JOB_NAME, checkpoint.getFactorDate(), factorDate, now);
+        } catch (DataIntegrityViolationException e) {
+            started = 0;
+        }
+        if (started == 0) {
+            log.info("Another instance started the re-analysis for factor data up to {}", factorDate);
+            return null;
+        }
+        log.info("Starting re-analysis for factor data up to {}", factorDate);
+        return checkpointRepository.findById(JOB_NAME).orElseThrow();
+    }
+
+    private void runFrom(ReanalysisCheckpointEntity checkpoint) {
+        long start = System.nanoTime();
+        LocalDate endDate = checkpoint.getFactorDate();
+        LocalDate startDate = endDate.minusYears(WINDOW_YEARS);
+
+        long after = checkpoint.getLastUserId();
+        usersTotal.set(holdingsRepository.countUsersWithHoldingsAfter(after));
+        usersDone.set(0);
+        lastUserId.set(after);
+
+        List<Long> userIds = holdingsRepository.findUserIdsWithHoldingsAfter(after, Limit.of(chunkSize));
+        while (!userIds.isEmpty()) {
+            List<Long> chunk = userIds;
+            long expected = after;
+            after = chunkTimer.record(() -> processChunk(chunk, startDate, endDate, expected));
+            usersDone.addAndGet(chunk.size());
+            lastUserId.set(after);
+            userIds = holdingsRepository.findUserIdsWithHoldingsAfter(after, Limit.of(chunkSize));
+        }
+
+        if (checkpointRepository.complete(JOB_NAME, endDate, after, LocalDateTime.now()) == 0) {
+            throw new CheckpointMovedException();
+        }
+        logThroughput(usersDone.get(), System.nanoTime() - start);
+    }
+
+    // analyze one chunk of users and commit their results together with the checkpoint, which has to
+    // still be at expectedUserId. returns the checkpoint's new last user
+    private long processChunk(List<Long> userIds, LocalDate startDate, LocalDate endDate, long expectedUserId) {
+        Map<Long, List<HoldingsResponse>> holdingsByUser = loadHoldings(userIds);
+
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<Future<List<UserResult>>> futures;
+        // closing the executor waits for every partition
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = partition(userIds).stream()
+                    .map(partition -> executor.submit(
+                            () -> analyzePartition(partition, holdingsByUser, startDate, endDate, abandoned)))
+                    .toList();
+        }
+        // a partition only fails when flask is unavailable; nothing of the chunk is saved then and the
+        // checkpoint stays before it
+        List<UserResult> results = new ArrayList<>();
+        for (Future<List<UserResult>> future : futures) {
+            if (future.state() == Future.State.FAILED) {
+                Throwable failure = future.exceptionNow();
+                throw failure instanceof FlaskServiceException e ? e : new IllegalStateException(failure);
+            }
+            results.addAll(future.resultNow());
+        }
+
+        long last = userIds.get(userIds.size() - 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            // claim the chunk before inserting: the update locks the row, so an instance racing for the
+            // same chunk waits for this commit and then finds the checkpoint moved
+            if (checkpointRepository.advance(JOB_NAME, endDate, expectedUserId, last, LocalDateTime.now()) == 0) {
+                throw new CheckpointMovedException();
+            }
+            insertResults(results);
+        });
+        analyzedCounter.increment(results.size());
+        return last;
+    }
+
+    private Map<Long, List<HoldingsResponse>> loadHoldings(List<Long> userIds) {
+        Map<Long, List<HoldingsResponse>> holdingsByUser = new LinkedHashMap<>();
+        for (HoldingsEntity holding : holdingsRepository.findByUserIdIn(userIds)) {
+            // the user is a lazy reference, so reading its id doesn't load it
+            holdingsByUser.computeIfAbsent(holding.getUser().getId(), id -> new ArrayList<>())
+                    .add(new HoldingsResponse(holding.getId(), holding.getTicker(), holding.getQuantity()));
+        }
+        return holdingsByUser;
+    }
+
+    // split the chunk round-robin into at most `parallelism` partitions
+    private List<List<Long>> partition(List<Long> userIds) {
+        int partitions = Math.min(parallelism, userIds.size());
+        List<List<Long>> result = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i = 0; i < userIds.size(); i++) {
+            result.get(i % partitions).add(userIds.get(i));
+        }
+        return result;
+    }
+
+    // run one partition's users one after another. a user whose own regression fails (flask rejects
+    // their holdings, or the response can't be read) is logged and skipped for this factor data; they
+    // get a fresh result on their next request. flask being unavailable isn't the user's fault: that
+    // abandons the whole chunk, and the other partitions stop at their next user
+    private List<UserResult> analyzePartition(List<Long> userIds, Map<Long, List<HoldingsResponse>> holdingsByUser,
+                                              LocalDate startDate, LocalDate endDate, AtomicBoolean abandoned) {
+        List<UserResult> results = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (abandoned.get()) {
+                break;
+            }
+            List<HoldingsResponse> holdings = holdingsByUser.get(userId);
+            if (holdings == null) {
+                // holdings removed since the chunk was listed
+                continue;
+            }
+            try {
+                FlaskAnalysisResponse response = flaskClient.runFactorRegression(
+                        analysisService.buildFlaskRequest(holdings, startDate, endDate));
+                results.add(new UserResult(userId, analysisService.newResult(response)));
+            } catch (FlaskServiceException e) {
+                if (isUnavailable(e)) {
+                    abandoned.set(true);
+                    throw e;
+                }
+                log.warn("Re-analysis of user {} failed: {} {}", userId, e.getStatus().value(), e.getMessage());
+                failedCounter.increment();
+            } catch (RuntimeException e) {
+                log.warn("Re-analysis of user {} failed", userId, e);
+                failedCounter.increment();
+            }
+        }
+        return results;
+    }
+
+    // the client maps flask's 5xx answers and connection failures to BAD_GATEWAY
+    private static boolean isUnavailable(FlaskServiceException e) {
+        return e.getStatus().is5xxServerError() || e.getStatus() == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private void insertResults(List<UserResult> results) {
+        jdbcTemplate.batchUpdate(INSERT_RESULT_SQL, results, insertBatchSize, (ps, userResult) -> {
+            FactorAnalysisResultsEntity result = userResult.result();
+            ps.setLong(1, userResult.userId());
+            ps.setTimestamp(2, Timestamp.valueOf(result.getAnalysisDate()));
+            setDecimals(ps, 3, result.getAlpha(), result.getBetaMkt(), result.getBetaSmb(), result.getBetaHml(),
+                    result.getBetaRmw(), result.getBetaCma(), result.getRSquared(),
+                    result.getTStatAlpha(), result.getTStatMkt(), result.getTStatSmb(),
+                    result.getTStatHml(), result.getTStatRmw(), result.getTStatCma(),
+                    result.getStdErrAlpha(), result.getStdErrMkt(), result.getStdErrSmb(),
+                    result.getStdErrHml(), result.getStdErrRmw(), result.getStdErrCma(),
+                    result.getResidualVariance());
+            ps.setObject(23, result.getNObservations(), Types.INTEGER);
+        });
+    }
+
+    private void setDecimals(PreparedStatement ps, int firstIndex, BigDecimal... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            ps.setBigDecimal(firstIndex + i, values[i]);
+        }
+    }
+
+    private void logThroughput(long users, long elapsedNanos) {
+        double minutes = elapsedNanos / (double) TimeUnit.MINUTES.toNanos(1);
+        double usersPerMinute = minutes > 0 ? users / minutes : 0;
+        if (users > 0 && usersPerMinute < targetUsersPerMinute) {
+            log.warn("Re-analysis finished {} users at {} users/min, below the target of {}",
+                    users, Math.round(usersPerMinute), Math.round(targetUsersPerMinute));
+        } else {
+            log.info("Re-analysis finished {} users at {} users/min", users, Math.round(usersPerMinute));
+        }
+    }
+}
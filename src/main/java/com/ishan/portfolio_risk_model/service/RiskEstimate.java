@@ -0,0 +1,12 @@
+package com.ishan.portfolio_risk_model.service;
+
+// VaR and CVaR (the mean loss at or beyond the VaR) at one horizon and confidence level, as fractions
+// of the starting value, positive for a loss
+public record RiskEstimate(int horizonDays, double confidence, double var, double cvar) {
+
+    // zero-based rank of the VaR among count losses in ascending order: the smallest loss that at least
+    // the confidence share of outcomes don't exceed
+    static long tailRank(double confidence, long count) {
+        return Math.min(count - 1, Math.max(0, (long) Math.ceil(confidence * count) - 1));
+    }
+}
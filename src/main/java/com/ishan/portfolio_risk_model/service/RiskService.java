@@ -0,0 +1,252 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.dto.VarEstimate;
+import com.ishan.portfolio_risk_model.dto.VarResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// value-at-risk for a saved analysis result. the betas and residual variance come from the result, the
+// factor distribution (monte carlo) or the replayed days (historical) from the factor store, by default
+// over the lookback before its analysis date. nothing here holds a transaction: the rows are read up
+// front and the calculation runs on the risk compute pool
+@Service
+public class RiskService {
+
+    static final List<Double> DEFAULT_CONFIDENCES = List.of(0.95, 0.99);
+    static final List<Integer> DEFAULT_HORIZONS = List.of(1, 10);
+    static final int MAX_LEVELS = 5;
+    // about a trading year
+    static final int MAX_HORIZON_DAYS = 250;
+    static final int MIN_PATHS = 1000;
+    // below this the covariance of five factors is too noisy to be worth simulating
+    static final int MIN_FACTOR_DAYS = 60;
+
+    private static final String MONTE_CARLO = "monte-carlo";
+    private static final String HISTORICAL = "historical";
+    private static final int SCALE = 8;
+
+    private final FactorAnalysisResultsRepository resultsRepository;
+    private final FamaFrenchFactorRepository factorRepository;
+    private final MonteCarloVarEngine monteCarloEngine;
+    private final HistoricalVarEngine historicalEngine;
+    private final MeterRegistry meterRegistry;
+    private final Period factorLookback;
+    private final int defaultPaths;
+    private final int maxPaths;
+    private final long maxPathDays;
+    // every simulation uses the whole compute pool, so more of them at once only queue up and hold memory
+    private final Semaphore simulations;
+    private final double sketchAccuracy;
+
+    public RiskService(FactorAnalysisResultsRepository resultsRepository,
+                       FamaFrenchFactorRepository factorRepository,
+                       MonteCarloVarEngine monteCarloEngine,
+                       HistoricalVarEngine historicalEngine,
+                       MeterRegistry meterRegistry,
+                       @Value("${risk.factor-lookback:P3Y}") Period factorLookback,
+                       @Value("${risk.monte-carlo.default-paths:100000}") int defaultPaths,
+                       @Value("${risk.monte-carlo.max-paths:1000000}") int maxPaths,
+                       @Value("${risk.monte-carlo.max-path-days:25000000}") long maxPathDays,
+                       @Value("${risk.monte-carlo.max-concurrent:2}") int maxConcurrent,
+                       @Value("${risk.historical.relative-accuracy:0.001}") double sketchAccuracy) {
+        this.resultsRepository = resultsRepository;
+        this.factorRepository = factorRepository;
+        this.monteCarloEngine = monteCarloEngine;
+        this.historicalEngine = historicalEngine;
+        this.meterRegistry = meterRegistry;
+        this.factorLookback = factorLookback;
+        this.defaultPaths = defaultPaths;
+        this.maxPaths = maxPaths;
+        this.maxPathDays = maxPathDays;
+        this.simulations = new Semaphore(maxConcurrent);
+        this.sketchAccuracy = sketchAccuracy;
+    }
+
+    // monte carlo VaR/CVaR of the current user's analysis result. null arguments take the defaults;
+    // the seed defaults to the result id, so repeating a request repeats its answer. a request over the
+    // path-day limit is rejected, and one arriving while max-concurrent simulations run gets a 429
+    public VarResponse monteCarloVar(Long analysisId, List<Double> confidences, List<Integer> horizons,
+                                     Integer paths, Long seed) {
+        double[] levels = resolveConfidences(confidences);
+        int[] days = resolveHorizons(horizons);
+        int pathCount = resolvePaths(paths);
+        if ((long) pathCount * days[days.length - 1] > maxPathDays) {
+            throw new IllegalArgumentException("paths times the longest horizon must be at most " + maxPathDays);
+        }
+        long resolvedSeed = seed != null ? seed : analysisId;
+
+        FactorAnalysisResultsEntity result = getOwnedResult(analysisId);
+        if (result.getResidualVariance() == null) {
+            throw new IllegalArgumentException("Analysis result has no residual variance; run the analysis again");
+        }
+        LocalDate end = result.getAnalysisDate().toLocalDate();
+        LocalDate start = end.minus(factorLookback);
+        FactorStatistics factors = estimateFactors(start, end);
+
+        MonteCarloVarEngine.Model model = new MonteCarloVarEngine.Model(
+                factors.riskFreeMean() + result.getAlpha().doubleValue(),
+                betas(result),
+                factors.means(),
+                factors.choleskyLower(),
+                Math.sqrt(result.getResidualVariance().doubleValue()));
+
+        if (!simulations.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many simulations running, try again shortly");
+        }
+        List<RiskEstimate> estimates;
+        try {
+            estimates = timed(MONTE_CARLO,
+                    () -> monteCarloEngine.simulate(model, days, levels, pathCount, resolvedSeed));
+        } finally {
+            simulations.release();
+        }
+
+        return new VarResponse(analysisId, MONTE_CARLO, start, end, factors.days(), pathCount, resolvedSeed,
+                estimates.stream().map(RiskService::toEstimate).toList());
+    }
+
+    // historical-simulation VaR/CVaR of the current user's analysis result: its factor-implied daily
+    // returns replayed over startDate..endDate (default: the lookback before the analysis date), every
+    // run of consecutive days of each horizon counting as one outcome
+    public VarResponse historicalVar(Long analysisId, LocalDate startDate, LocalDate endDate,
+                                     List<Double> confidences, List<Integer> horizons) {
+        double[] levels = resolveConfidences(confidences);
+        int[] days = resolveHorizons(horizons);
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+
+        FactorAnalysisResultsEntity result = getOwnedResult(analysisId);
+        LocalDate end = endDate != null ? endDate : result.getAnalysisDate().toLocalDate();
+        LocalDate start = startDate != null ? startDate : end.minus(factorLookback);
+        List<FamaFrenchFactorEntity> rows = factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(start, end);
+        int required = Math.max(MIN_FACTOR_DAYS, days[days.length - 1]);
+        if (rows.size() < required) {
+            throw new IllegalArgumentException("Not enough factor data between " + start + " and " + end
+                    + " (" + rows.size() + " days, need " + required + ")");
+        }
+
+        double[] returns =
+                HistoricalVarEngine.factorImpliedReturns(rows, result.getAlpha().doubleValue(), betas(result));
+        List<RiskEstimate> estimates = timed(HISTORICAL, () -> HistoricalVarEngine.estimates(
+                historicalEngine.replay(returns, days, sketchAccuracy), days, levels));
+
+        return new VarResponse(analysisId, HISTORICAL, start, end, rows.size(), null, null,
+                estimates.stream().map(RiskService::toEstimate).toList());
+    }
+
+    private List<RiskEstimate> timed(String method, Supplier<List<RiskEstimate>> calculation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RiskEstimate> estimates = calculation.get();
+        sample.stop(Timer.builder("risk.var")
+                .description("Time to compute value-at-risk for one analysis result")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        return estimates;
+    }
+
+    private FactorAnalysisResultsEntity getOwnedResult(Long id) {
+        UserEntity user = getCurrentUser();
+        FactorAnalysisResultsEntity entity = resultsRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Analysis result not found"));
+
+        if (!entity.getUser().getId().equals(user.getId())) {
+            throw new IllegalArgumentException("Analysis result not found");
+        }
+        return entity;
+    }
+
+    private FactorStatistics estimateFactors(LocalDate start, LocalDate end) {
+        List<FamaFrenchFactorEntity> rows = factorRepository.findByFactorDateBetween(start, end);
+        if (rows.size() < MIN_FACTOR_DAYS) {
+            throw new IllegalArgumentException("Not enough factor data between " + start + " and " + end
+                    + " (" + rows.size() + " days, need " + MIN_FACTOR_DAYS + ")");
+        }
+        return FactorStatistics.estimate(rows);
+    }
+
+    private double[] resolveConfidences(List<Double> confidences) {
+        List<Double> values = confidences == null || confidences.isEmpty() ? DEFAULT_CONFIDENCES : confidences;
+        if (values.size() > MAX_LEVELS) {
+            throw new IllegalArgumentException("At most " + MAX_LEVELS + " confidence levels are allowed");
+        }
+        double[] levels = new double[values.size()];
+        for (int i = 0; i < levels.length; i++) {
+            Double value = values.get(i);
+            if (value == null || !(value > 0 && value < 1)) {
+                throw new IllegalArgumentException("confidence must be between 0 and 1 (exclusive)");
+            }
+            levels[i] = value;
+        }
+        return levels;
+    }
+
+    // sorted and de-duplicated, as the engine needs them ascending
+    private int[] resolveHorizons(List<Integer> horizons) {
+        List<Integer> values = horizons == null || horizons.isEmpty() ? DEFAULT_HORIZONS : horizons;
+        if (values.size() > MAX_LEVELS) {
+            throw new IllegalArgumentException("At most " + MAX_LEVELS + " horizons are allowed");
+        }
+        for (Integer value : values) {
+            if (value == null || value < 1 || value > MAX_HORIZON_DAYS) {
+                throw new IllegalArgumentException("horizon must be between 1 and " + MAX_HORIZON_DAYS + " days");
+            }
+        }
+        return values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    private int resolvePaths(Integer paths) {
+        if (paths == null) {
+            return defaultPaths;
+        }
+        if (paths < MIN_PATHS || paths > maxPaths) {
+            throw new IllegalArgumentException("paths must be between " + MIN_PATHS + " and " + maxPaths);
+        }
+        return paths;
+    }
+
+    // in the factor order of FactorStatistics
+    private static double[] betas(FactorAnalysisResultsEntity result) {
+        return new double[]{
+                result.getBetaMkt().doubleValue(),
+                result.getBetaSmb().doubleValue(),
+                result.getBetaHml().doubleValue(),
+                result.getBetaRmw().doubleValue(),
+                result.getBetaCma().doubleValue()
+        };
+    }
+
+    private static VarEstimate toEstimate(RiskEstimate estimate) {
+        return new VarEstimate(estimate.horizonDays(), BigDecimal.valueOf(estimate.confidence()),
+                decimal(estimate.var()), decimal(estimate.cvar()));
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    private UserEntity getCurrentUser() {
+        return (UserEntity) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+    }
+}
@@ -0,0 +1,78 @@
+-- schema as previously generated by hibernate ddl-auto=update. every statement is guarded so
+-- databases that already have these tables can be brought under flyway without changes
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE SEQUENCE IF NOT EXISTS user_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS holdings (
+    id       BIGINT PRIMARY KEY,
+    user_id  BIGINT         NOT NULL REFERENCES users (id),
+    ticker   VARCHAR(10)    NOT NULL,
+    quantity NUMERIC(19, 6) NOT NULL,
+    CONSTRAINT uk_holdings_user_ticker UNIQUE (user_id, ticker)
+);
+
+CREATE INDEX IF NOT EXISTS idx_holdings_user ON holdings (user_id);
+
+CREATE TABLE IF NOT EXISTS factor_analysis_results (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT          NOT NULL REFERENCES users (id),
+    analysis_date     TIMESTAMP(6)    NOT NULL,
+    alpha             NUMERIC(19, 10) NOT NULL,
+    beta_mkt          NUMERIC(19, 10) NOT NULL,
+    beta_smb          NUMERIC(19, 10) NOT NULL,
+    beta_hml          NUMERIC(19, 10) NOT NULL,
+    beta_rmw          NUMERIC(19, 10) NOT NULL,
+    beta_cma          NUMERIC(19, 10) NOT NULL,
+    r_squared         NUMERIC(10, 6)  NOT NULL,
+    t_stat_alpha      NUMERIC(19, 10),
+    t_stat_mkt        NUMERIC(19, 10),
+    t_stat_smb        NUMERIC(19, 10),
+    t_stat_hml        NUMERIC(19, 10),
+    t_stat_rmw        NUMERIC(19, 10),
+    t_stat_cma        NUMERIC(19, 10),
+    std_err_alpha     NUMERIC(19, 10),
+    std_err_mkt       NUMERIC(19, 10),
+    std_err_smb       NUMERIC(19, 10),
+    std_err_hml       NUMERIC(19, 10),
+    std_err_rmw       NUMERIC(19, 10),
+    std_err_cma       NUMERIC(19, 10),
+    residual_variance NUMERIC(19, 12),
+    n_observations    INTEGER
+);
+
+-- columns added after the table first shipped; no-ops on new databases
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_alpha NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_mkt NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_smb NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_hml NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_rmw NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS t_stat_cma NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_alpha NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_mkt NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_smb NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_hml NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_rmw NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS std_err_cma NUMERIC(19, 10);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS residual_variance NUMERIC(19, 12);
+ALTER TABLE factor_analysis_results ADD COLUMN IF NOT EXISTS n_observations INTEGER;
+
+CREATE SEQUENCE IF NOT EXISTS factors_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS fama_french_factors (
+    id          BIGINT PRIMARY KEY,
+    factor_date DATE            NOT NULL,
+    mkt_rf      NUMERIC(19, 10) NOT NULL,
+    smb         NUMERIC(19, 10) NOT NULL,
+    hml         NUMERIC(19, 10) NOT NULL,
+    rmw         NUMERIC(19, 10) NOT NULL,
+    cma         NUMERIC(19, 10) NOT NULL,
+    rf          NUMERIC(19, 10) NOT NULL
+);
@@ -0,0 +1,8 @@
+-- one factor row per date: keep the latest copy of any duplicates before enforcing it
+DELETE FROM fama_french_factors
+WHERE id NOT IN (SELECT MAX(id) FROM fama_french_factors GROUP BY factor_date);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_factors_date ON fama_french_factors (factor_date);
+
+-- analysis history: per-user keyset scan, newest first
+CREATE INDEX IF NOT EXISTS idx_results_user_date ON factor_analysis_results (user_id, analysis_date DESC, id DESC);
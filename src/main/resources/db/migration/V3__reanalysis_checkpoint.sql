@@ -0,0 +1,10 @@
+-- progress of the scheduled re-analysis job: one row per job, updated in the same transaction
+-- as each chunk of results so a restarted job resumes after the last committed user
+CREATE TABLE IF NOT EXISTS reanalysis_checkpoints (
+    job_name     VARCHAR(64)  PRIMARY KEY,
+    factor_date  DATE         NOT NULL,
+    last_user_id BIGINT       NOT NULL,
+    started_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6)
+);
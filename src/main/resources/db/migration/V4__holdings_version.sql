@@ -0,0 +1,3 @@
+-- bumped by every write to a user's holdings, in the writing transaction. instances compare it with the
+-- version their cached holdings were loaded under, so a write on one instance is seen by all of them
+ALTER TABLE users ADD COLUMN IF NOT EXISTS holdings_version BIGINT NOT NULL DEFAULT 0;
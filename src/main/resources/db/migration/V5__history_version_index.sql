@@ -0,0 +1,2 @@
+-- analysis history version: the user's newest result id, read on every history poll
+CREATE INDEX IF NOT EXISTS idx_results_user_id ON factor_analysis_results (user_id, id DESC);
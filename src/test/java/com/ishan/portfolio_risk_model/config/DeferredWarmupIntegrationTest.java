@@ -0,0 +1,185 @@
+package com.ishan.portfolio_risk_model.config;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.service.HoldingService;
+import com.ishan.portfolio_risk_model.service.HoldingsCacheWarmup;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Startup with deferred warm-ups: the app reports ready while they still run, and the holdings
+ * cache warm-up loads the most recently active users.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = "startup.warmup.mode=deferred")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DeferredWarmupIntegrationTest {
+
+    // holds the startup warm-ups until a test lets it finish
+    static final CountDownLatch RELEASE = new CountDownLatch(1);
+    static final CountDownLatch STARTED = new CountDownLatch(1);
+
+    @TestConfiguration
+    static class BlockingWarmupConfig {
+
+        @Bean
+        DeferredWarmup blockingWarmup() {
+            return new DeferredWarmup() {
+                @Override
+                public String getWarmupName() {
+                    return "blocking";
+                }
+
+                @Override
+                public void warmUp() {
+                    STARTED.countDown();
+                    try {
+                        RELEASE.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private DeferredWarmupRunner warmupRunner;
+
+    @Autowired
+    private HoldingsCacheWarmup holdingsCacheWarmup;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @AfterAll
+    static void releaseWarmups() {
+        RELEASE.countDown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should report ready while a deferred warm-up is still running, then finish it")
+    void deferredWarmup_doesNotHoldUpReadiness() throws Exception {
+        assertThat(STARTED.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(warmupRunner.awaitCompletion(Duration.ZERO)).isFalse();
+        assertThat(meterRegistry.get("startup.warmup.complete").gauge().value()).isZero();
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        RELEASE.countDown();
+
+        assertThat(warmupRunner.awaitCompletion(Duration.ofSeconds(10))).isTrue();
+        assertThat(meterRegistry.get("startup.warmup.complete").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("startup.warmup").tag("name", "blocking").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the holdings of the users with the newest results into the cache")
+    void holdingsCacheWarmup_cachesRecentlyActiveUsers() {
+        UserEntity active = createUser("active");
+        UserEntity recent = createUser("recent");
+        UserEntity idle = createUser("idle");
+        for (UserEntity user : new UserEntity[]{active, recent, idle}) {
+            createHolding(user, "AAPL");
+        }
+        createResult(active);
+        createResult(recent);
+        createResult(active);
+
+        holdingsCacheWarmup.warmUp();
+
+        assertThat(holdingService.isHoldingsCached(active)).isTrue();
+        assertThat(holdingService.isHoldingsCached(recent)).isTrue();
+        assertThat(holdingService.isHoldingsCached(idle)).isFalse();
+        assertThat(holdingService.getHoldingsSnapshot(active).getHoldings())
+                .singleElement()
+                .satisfies(holding -> assertThat(holding.getTicker()).isEqualTo("AAPL"));
+    }
+
+    private UserEntity createUser(String name) {
+        UserEntity user = new UserEntity();
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        user.setRole(UserEntity.Role.USER);
+        return userRepository.save(user);
+    }
+
+    private void createHolding(UserEntity user, String ticker) {
+        HoldingsEntity holding = new HoldingsEntity();
+        holding.setUser(user);
+        holding.setTicker(ticker);
+        holding.setQuantity(new BigDecimal("10"));
+        holdingsRepository.save(holding);
+    }
+
+    private void createResult(UserEntity user) {
+        FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+        result.setUser(user);
+        result.setAnalysisDate(LocalDateTime.now());
+        result.setAlpha(new BigDecimal("0.0002"));
+        result.setBetaMkt(new BigDecimal("0.85"));
+        result.setBetaSmb(new BigDecimal("0.12"));
+        result.setBetaHml(new BigDecimal("-0.04"));
+        result.setBetaRmw(new BigDecimal("0.03"));
+        result.setBetaCma(new BigDecimal("-0.01"));
+        result.setRSquared(new BigDecimal("0.87"));
+        resultsRepository.save(result);
+    }
+}
@@ -0,0 +1,151 @@
+package com.ishan.portfolio_risk_model.config;
+
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the replica routing against two embedded databases: the primary gets its schema from
+ * hibernate, the replica from the migrations, and each holds a differently named user.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "datasource.replica.max-lag=5s",
+        "datasource.replica.check-interval=1h",
+        "datasource.replica.hikari.connection-timeout=250"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final SingleConnectionDataSource SEED_CONNECTION =
+            new SingleConnectionDataSource(REPLICA_URL, "sa", "", true);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate replicaJdbc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // the replica pool is read-only, so seed it over one plain connection kept for the whole class
+        // (h2 check constraints keep a reference to the session that created them)
+        replicaJdbc = new JdbcTemplate(SEED_CONNECTION);
+        new ResourceDatabasePopulator(migrations()).execute(SEED_CONNECTION);
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        replicaJdbc.update("DELETE FROM replica_lag");
+        replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+        replicaJdbc.update("DELETE FROM users");
+        replicaJdbc.update("INSERT INTO users (email, password_hash, role) VALUES ('replica@example.com', 'x', 'USER')");
+
+        userRepository.deleteAll();
+        UserEntity user = new UserEntity();
+        user.setEmail("primary@example.com");
+        user.setPasswordHash("x");
+        user.setRole(UserEntity.Role.USER);
+        userRepository.save(user);
+
+        lagMonitor.checkLag();
+    }
+
+    @AfterAll
+    static void closeSeedConnection() {
+        SEED_CONNECTION.destroy();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions should read from the replica, others from the primary")
+    void readOnlyTransaction_usesReplica() {
+        assertThat(emails(true)).containsExactly("replica@example.com");
+        assertThat(emails(false)).containsExactly("primary@example.com");
+    }
+
+    @Test
+    @DisplayName("Reads should go to the primary while replica lag exceeds the tolerance")
+    void replicaLagging_usesPrimary() {
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.checkLag();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(emails(true)).containsExactly("primary@example.com");
+
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 1");
+        lagMonitor.checkLag();
+
+        assertThat(emails(true)).containsExactly("replica@example.com");
+    }
+
+    @Test
+    @DisplayName("Reads forced onto the primary should bypass the replica inside a read-only transaction")
+    void onPrimary_insideReadOnlyTransaction_usesPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<String> emails = readOnly.execute(status -> ReplicaRoutingDataSource.onPrimary(() ->
+                userRepository.findAll().stream().map(UserEntity::getEmail).toList()));
+
+        assertThat(emails).containsExactly("primary@example.com");
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    @DisplayName("Reads should fall back to the primary when the replica is unavailable")
+    void replicaDown_fallsBackToPrimary() {
+        replicaDataSource.close();
+
+        assertThat(emails(true)).containsExactly("primary@example.com");
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+    }
+
+    // every migration, in version order
+    private static Resource[] migrations() throws IOException {
+        Resource[] migrations = new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*.sql");
+        Arrays.sort(migrations, Comparator.comparingInt(migration ->
+                Integer.parseInt(migration.getFilename().substring(1, migration.getFilename().indexOf("__")))));
+        return migrations;
+    }
+
+    private List<String> emails(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> userRepository.findAll().stream().map(UserEntity::getEmail).toList());
+    }
+}
@@ -0,0 +1,67 @@
+package com.ishan.portfolio_risk_model.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RequestTimings.
+ */
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    @DisplayName("Should add up repeated stages and list them in first-recorded order, then total")
+    void toHeaderValue_sumsStagesInOrder() {
+        // Arrange
+        RequestTimings timings = RequestTimings.start();
+
+        // Act
+        RequestTimings.record(RequestTimings.AUTH, TimeUnit.MICROSECONDS.toNanos(1200));
+        RequestTimings.record(RequestTimings.DB, TimeUnit.MILLISECONDS.toNanos(1));
+        RequestTimings.record(RequestTimings.FLASK, TimeUnit.MILLISECONDS.toNanos(830));
+        RequestTimings.record(RequestTimings.DB, TimeUnit.MILLISECONDS.toNanos(3));
+
+        // Assert
+        assertThat(timings.toHeaderValue())
+                .matches("auth;dur=1\\.2, db;dur=4\\.0, flask;dur=830\\.0, total;dur=\\d+\\.\\d");
+    }
+
+    @Test
+    @DisplayName("Should time a stage of its own without counting what it records in other stages")
+    void time_ownStage_keepsNestedRecordsOut() {
+        // Arrange
+        RequestTimings timings = RequestTimings.start();
+
+        // Act: the repository call inside the lookup would otherwise land in db as well
+        String user = RequestTimings.time(RequestTimings.USER_LOOKUP, () -> {
+            RequestTimings.record(RequestTimings.DB, TimeUnit.SECONDS.toNanos(5));
+            return "user";
+        });
+        RequestTimings.record(RequestTimings.DB, TimeUnit.MILLISECONDS.toNanos(2));
+
+        // Assert
+        assertThat(user).isEqualTo("user");
+        assertThat(timings.toHeaderValue())
+                .matches("user-lookup;dur=\\d+\\.\\d, db;dur=2\\.0, total;dur=\\d+\\.\\d");
+    }
+
+    @Test
+    @DisplayName("Should ignore stages recorded outside a request")
+    void record_noRequest_isIgnored() {
+        // Act
+        RequestTimings.record(RequestTimings.DB, 1_000_000);
+        RequestTimings timings = RequestTimings.start();
+
+        // Assert
+        assertThat(timings.toHeaderValue()).startsWith("total;dur=");
+    }
+}
@@ -0,0 +1,81 @@
+package com.ishan.portfolio_risk_model.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StartupReport.
+ */
+class StartupReportTest {
+
+    @Test
+    @DisplayName("Should rank beans by self time, leaving out the beans created while they were")
+    void slowestBeans_ranksBySelfTime() throws Exception {
+        // Arrange: outer spends ~20ms itself and ~60ms creating inner
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        StartupStep outer = startup.start(StartupReport.BEAN_STEP).tag("beanName", "outer");
+        Thread.sleep(20);
+        StartupStep inner = startup.start(StartupReport.BEAN_STEP).tag("beanName", "inner");
+        Thread.sleep(60);
+        inner.end();
+        outer.end();
+        startup.start("spring.context.refresh").end();
+
+        // Act
+        List<StartupReport.BeanTiming> slowest = StartupReport.slowestBeans(startup.getBufferedTimeline(), 10);
+
+        // Assert
+        assertThat(slowest).extracting(StartupReport.BeanTiming::bean).containsExactly("inner", "outer");
+        StartupReport.BeanTiming innerTiming = slowest.get(0);
+        StartupReport.BeanTiming outerTiming = slowest.get(1);
+        assertThat(innerTiming.selfMillis()).isEqualTo(innerTiming.totalMillis()).isGreaterThanOrEqualTo(60);
+        assertThat(outerTiming.totalMillis()).isGreaterThanOrEqualTo(80);
+        assertThat(outerTiming.selfMillis()).isBetween(20L, outerTiming.totalMillis() - innerTiming.totalMillis() + 1);
+    }
+
+    @Test
+    @DisplayName("Should report the ready time and the top beans once the app is ready")
+    void onReady_buffersReport() {
+        // Arrange
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        for (String bean : List.of("a", "b", "c")) {
+            startup.start(StartupReport.BEAN_STEP).tag("beanName", bean).end();
+        }
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.setApplicationStartup(startup);
+        StartupReport report = new StartupReport(2);
+
+        // Act
+        report.onReady(new ApplicationReadyEvent(new SpringApplication(), new String[0], context,
+                Duration.ofMillis(1234)));
+
+        // Assert
+        assertThat(report.report().readyMillis()).isEqualTo(1234);
+        assertThat(report.report().slowestBeans()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should report no beans when startup steps weren't recorded")
+    void onReady_withoutBufferingStartup_hasNoBeans() {
+        // Arrange
+        StartupReport report = new StartupReport(2);
+
+        // Act
+        report.onReady(new ApplicationReadyEvent(new SpringApplication(), new String[0],
+                new GenericApplicationContext(), Duration.ofMillis(50)));
+
+        // Assert
+        assertThat(report.report().readyMillis()).isEqualTo(50);
+        assertThat(report.report().slowestBeans()).isEmpty();
+    }
+}
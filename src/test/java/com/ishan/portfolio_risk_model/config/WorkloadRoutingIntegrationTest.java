@@ -0,0 +1,133 @@
+package com.ishan.portfolio_risk_model.config;
+
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that @BatchWorkload methods take their connections from the batch pool and that a
+ * saturated batch pool leaves interactive requests unaffected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:workload-routing;DB_CLOSE_DELAY=-1",
+        "datasource.batch.hikari.maximum-pool-size=1",
+        "datasource.batch.hikari.connection-timeout=250"
+})
+@ActiveProfiles("test")
+class WorkloadRoutingIntegrationTest {
+
+    @TestConfiguration
+    static class Jobs {
+
+        @Bean
+        BatchJob batchJob(UserRepository userRepository) {
+            return new BatchJob(userRepository);
+        }
+    }
+
+    static class BatchJob {
+
+        private final UserRepository userRepository;
+
+        BatchJob(UserRepository userRepository) {
+            this.userRepository = userRepository;
+        }
+
+        @BatchWorkload
+        @Transactional
+        public Workload countUsers() {
+            userRepository.count();
+            return WorkloadRoutingDataSource.currentWorkload();
+        }
+
+        // holds a batch connection until released
+        @BatchWorkload
+        @Transactional
+        public void holdConnection(CountDownLatch acquired, CountDownLatch release) throws InterruptedException {
+            userRepository.count();
+            acquired.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Autowired
+    private BatchJob batchJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("batchDataSource")
+    private HikariDataSource batchDataSource;
+
+    @Autowired
+    @Qualifier("interactiveDataSource")
+    private HikariDataSource interactiveDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("@BatchWorkload methods should run on the batch pool and restore the workload after")
+    void batchWorkload_usesBatchPool() {
+        assertThat(batchJob.countUsers()).isEqualTo(Workload.BATCH);
+        assertThat(WorkloadRoutingDataSource.currentWorkload()).isEqualTo(Workload.INTERACTIVE);
+        assertThat(batchDataSource.getHikariPoolMXBean().getTotalConnections()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Interactive queries should not wait while the batch pool is exhausted")
+    void exhaustedBatchPool_doesNotBlockInteractive() throws Exception {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> job = CompletableFuture.runAsync(() -> {
+            try {
+                batchJob.holdConnection(acquired, release);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(batchDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+
+            long start = System.nanoTime();
+            userRepository.count();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // well under the batch pool's 250ms connection timeout
+            assertThat(elapsedMillis).isLessThan(200);
+        } finally {
+            release.countDown();
+            job.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Each pool should publish its own metrics")
+    void pools_publishMetricsPerPool() {
+        userRepository.count();
+        batchJob.countUsers();
+
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "interactive").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "batch").gauge().value())
+                .isEqualTo(batchDataSource.getMaximumPoolSize());
+        assertThat(interactiveDataSource.getPoolName()).isEqualTo("interactive");
+    }
+}
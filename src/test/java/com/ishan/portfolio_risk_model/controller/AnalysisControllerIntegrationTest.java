@@ -1,6 +1,8 @@
 package com.ishan.portfolio_risk_model.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
 import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
 import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
 import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
@@ -25,9 +27,13 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -90,6 +96,12 @@ class AnalysisControllerIntegrationTest {
                 "alpha", new BigDecimal("1.2345"),
                 "mkt", new BigDecimal("15.6789")
         ));
+        mockFlaskResponse.setStdErrors(Map.of(
+                "alpha", new BigDecimal("0.000190"),
+                "mkt", new BigDecimal("0.054622")
+        ));
+        mockFlaskResponse.setResidualVariance(new BigDecimal("0.000042"));
+        mockFlaskResponse.setNObservations(752);
     }
 
     @Test
@@ -204,7 +216,177 @@ class AnalysisControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].alpha").value(0.000234));
+                .andExpect(jsonPath("$[0].alpha").value(0.000234))
+                .andExpect(jsonPath("$[0].tStats.mkt").value(15.6789))
+                .andExpect(jsonPath("$[0].stdErrors.alpha").value(0.000190))
+                .andExpect(jsonPath("$[0].residualVariance").value(0.000042))
+                .andExpect(jsonPath("$[0].nObservations").value(752));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should return every result when no limit or cursor is given")
+    void getHistory_noParams_returnsWholeHistory() throws Exception {
+        UserEntity user = userRepository.findByEmail("analyst@example.com").orElseThrow();
+        List<FactorAnalysisResultsEntity> results = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+            result.setUser(user);
+            result.setAnalysisDate(LocalDateTime.now().minusDays(i));
+            result.setAlpha(new BigDecimal("0.0001"));
+            result.setBetaMkt(new BigDecimal("1.1"));
+            result.setBetaSmb(BigDecimal.ZERO);
+            result.setBetaHml(BigDecimal.ZERO);
+            result.setBetaRmw(BigDecimal.ZERO);
+            result.setBetaCma(BigDecimal.ZERO);
+            result.setRSquared(new BigDecimal("0.9"));
+            results.add(result);
+        }
+        resultsRepository.saveAll(results);
+
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(60))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should page with a cursor header")
+    void getHistory_withLimit_returnsCursorUntilLastPage() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class)))
+                .thenReturn(mockFlaskResponse);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/v1/analysis/run")
+                            .header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isOk());
+        }
+
+        // first page of two, newest first
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+        // last page has the remaining result and no cursor
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should return 304 until a new result is saved")
+    void getHistory_matchingETag_returns304UntilNewResult() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class)))
+                .thenReturn(mockFlaskResponse);
+
+        MvcResult first = mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty())
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/v1/analysis/run")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        MvcResult afterRun = mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn();
+        assertThat(afterRun.getResponse().getHeader("ETag")).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should not answer 304 after another instance saved a result")
+    void getHistory_resultSavedByAnotherInstance_returnsNewList() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty())
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+
+        // another instance's save: straight to the database, nothing in this instance hears of it
+        FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+        result.setUser(userRepository.findByEmail("analyst@example.com").orElseThrow());
+        result.setAnalysisDate(LocalDateTime.now());
+        result.setAlpha(new BigDecimal("0.0001"));
+        result.setBetaMkt(new BigDecimal("1.1"));
+        result.setBetaSmb(BigDecimal.ZERO);
+        result.setBetaHml(BigDecimal.ZERO);
+        result.setBetaRmw(BigDecimal.ZERO);
+        result.setBetaCma(BigDecimal.ZERO);
+        result.setRSquared(new BigDecimal("0.9"));
+        resultsRepository.save(result);
+
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("ETag", "W/\"history-" + result.getId() + "\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should let a cross-origin client send If-None-Match and read the ETag")
+    void getHistory_crossOrigin_allowsETagRoundTrip() throws Exception {
+        mockMvc.perform(options("/api/v1/analysis/history")
+                        .header("Origin", "http://localhost:5173")
+                        .header("Access-Control-Request-Method", "GET")
+                        .header("Access-Control-Request-Headers", "Authorization, If-None-Match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Origin", "http://localhost:5173"))
+                .andExpect(header().string("Access-Control-Allow-Headers", containsString("If-None-Match")));
+
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Origin", "http://localhost:5173")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Expose-Headers", containsString("ETag")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/history - Should return 400 for a bad cursor")
+    void getHistory_invalidCursor_returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/analysis/history")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
     }
 
     @Test
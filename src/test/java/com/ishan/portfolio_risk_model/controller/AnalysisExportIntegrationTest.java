@@ -0,0 +1,162 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for GET /api/v1/analysis/export.
+ * Not @Transactional: the export streams on an async thread with its own connection, so the
+ * rows it reads have to be committed. Tables are cleared after each test instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnalysisExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        clearTables();
+
+        RegisterRequest registerRequest = new RegisterRequest("exporter@example.com", "password123");
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        authToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+        user = userRepository.findByEmail("exporter@example.com").orElseThrow();
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < 3; i++) {
+            resultsRepository.save(createResult(base.plusDays(i)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/export - Should stream NDJSON, newest first")
+    void export_default_streamsNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/analysis/export")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"analysis-history.ndjson\""))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).get("analysisDate").asText()).startsWith("2025-01-03");
+        assertThat(objectMapper.readTree(lines[2]).get("analysisDate").asText()).startsWith("2025-01-01");
+        assertThat(objectMapper.readTree(lines[0]).get("tStats").get("mkt").decimalValue())
+                .isEqualByComparingTo("15.6789");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/export?format=csv - Should stream a CSV with a header row")
+    void export_csv_streamsCsv() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/analysis/export")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,analysisDate,");
+        assertThat(lines[1]).contains(",2025-01-03T09:00,");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/export - Should return 400 for an unknown format")
+    void export_unknownFormat_returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/analysis/export")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("format must be ndjson or csv"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/export - Should return 401 without token")
+    void export_noToken_returns401() throws Exception {
+        mockMvc.perform(get("/api/v1/analysis/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private void clearTables() {
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private FactorAnalysisResultsEntity createResult(LocalDateTime analysisDate) {
+        FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+        result.setUser(user);
+        result.setAnalysisDate(analysisDate);
+        result.setAlpha(new BigDecimal("0.000234"));
+        result.setBetaMkt(new BigDecimal("0.856420"));
+        result.setBetaSmb(new BigDecimal("0.123456"));
+        result.setBetaHml(new BigDecimal("-0.045678"));
+        result.setBetaRmw(new BigDecimal("0.032145"));
+        result.setBetaCma(new BigDecimal("-0.012345"));
+        result.setRSquared(new BigDecimal("0.876543"));
+        result.setTStatMkt(new BigDecimal("15.6789"));
+        result.setNObservations(752);
+        return result;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import com.ishan.portfolio_risk_model.service.AnalysisStreamService;
+import com.ishan.portfolio_risk_model.service.FlaskClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for POST /api/v1/analysis/run/stream.
+ * Not @Transactional: the analysis runs on a background thread with its own connection, so the
+ * user and holdings have to be committed. Tables are cleared after each test instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "analysis.stream.heartbeat-interval=100ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnalysisStreamIntegrationTest {
+
+    private static final long FLASK_DELAY_MILLIS = 350;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Autowired
+    private AnalysisStreamService analysisStreamService;
+
+    @MockitoBean
+    private FlaskClient flaskClient;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        clearTables();
+
+        RegisterRequest registerRequest = new RegisterRequest("streamer@example.com", "password123");
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        authToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/stream - Should stream every stage, heartbeats, then the result")
+    void runStream_success_streamsStagesThenResult() throws Exception {
+        addHolding();
+        FlaskAnalysisResponse flaskResponse = flaskResponse();
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            // long enough for a few heartbeats
+            Thread.sleep(FLASK_DELAY_MILLIS);
+            return flaskResponse;
+        });
+
+        String body = runStream();
+
+        assertThat(eventNames(body)).containsExactly("stage", "stage", "stage", "stage", "result");
+        assertThat(body).containsSubsequence("\"stage\":\"holdings_loaded\"", "\"stage\":\"regression_started\"",
+                "\"stage\":\"regression_done\"", "\"stage\":\"persisted\"", "\"betaMkt\":0.85642");
+        assertThat(body).contains(":heartbeat");
+        assertThat(resultsRepository.count()).isEqualTo(1);
+        assertThat(analysisStreamService.getOpenStreamCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/stream - Should end with an error event when there are no holdings")
+    void runStream_noHoldings_streamsErrorEvent() throws Exception {
+        String body = runStream();
+
+        assertThat(eventNames(body)).containsExactly("error");
+        assertThat(body).contains("No holdings found").contains("\"status\":400");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/stream - Should return 401 without token")
+    void runStream_noToken_returns401() throws Exception {
+        mockMvc.perform(post("/api/v1/analysis/run/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String runStream() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/v1/analysis/run/stream")
+                        .header("Authorization", "Bearer " + authToken)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // returns once the stream is completed
+        started.getAsyncResult(10_000);
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private List<String> eventNames(String body) {
+        return body.lines()
+                .filter(line -> line.startsWith("event:"))
+                .map(line -> line.substring("event:".length()).trim())
+                .toList();
+    }
+
+    private void addHolding() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+    }
+
+    private FlaskAnalysisResponse flaskResponse() {
+        FlaskAnalysisResponse response = new FlaskAnalysisResponse();
+        response.setAlpha(new BigDecimal("0.000234"));
+        response.setBetaMkt(new BigDecimal("0.856420"));
+        response.setBetaSmb(new BigDecimal("0.123456"));
+        response.setBetaHml(new BigDecimal("-0.045678"));
+        response.setBetaRmw(new BigDecimal("0.032145"));
+        response.setBetaCma(new BigDecimal("-0.012345"));
+        response.setRSquared(new BigDecimal("0.876543"));
+        return response;
+    }
+
+    private void clearTables() {
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,224 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import com.ishan.portfolio_risk_model.service.FlaskClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for POST /api/v1/analysis/run/bootstrap.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class BootstrapIntegrationTest {
+
+    private static final double MARKET_BETA = 1.05;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Autowired
+    private FamaFrenchFactorRepository factorRepository;
+
+    @MockitoBean
+    private FlaskClient flaskClient;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+        factorRepository.deleteAll();
+
+        MvcResult registered = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("bootstrap@example.com", "password123"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        authToken = objectMapper.readTree(registered.getResponse().getContentAsString()).get("token").asText();
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/bootstrap - Should save the result and return an interval per coefficient")
+    void runBootstrap_returnsIntervals() throws Exception {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = saveFactors(250);
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse(rows));
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/v1/analysis/run/bootstrap")
+                        .param("method", "block")
+                        .param("iterations", "1000")
+                        .param("blockDays", "5")
+                        .param("confidence", "0.9")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.id").exists())
+                .andExpect(jsonPath("$.method").value("block"))
+                .andExpect(jsonPath("$.iterations").value(1000))
+                .andExpect(jsonPath("$.blockDays").value(5))
+                .andExpect(jsonPath("$.observations").value(250))
+                .andExpect(jsonPath("$.intervals.length()").value(6))
+                .andExpect(jsonPath("$.intervals[1].coefficient").value("mkt"))
+                .andReturn();
+
+        // Assert
+        ArgumentCaptor<FlaskAnalysisRequest> request = ArgumentCaptor.forClass(FlaskAnalysisRequest.class);
+        verify(flaskClient).runFactorRegression(request.capture());
+        assertThat(request.getValue().isIncludeDailyReturns()).isTrue();
+        assertThat(resultsRepository.count()).isEqualTo(1);
+
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(body.get("seed").asLong()).isEqualTo(body.get("result").get("id").asLong());
+        JsonNode market = body.get("intervals").get(1);
+        assertThat(market.get("lower").asDouble()).isLessThan(MARKET_BETA);
+        assertThat(market.get("upper").asDouble()).isGreaterThan(MARKET_BETA);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/bootstrap - Should return 400 for an unknown method")
+    void runBootstrap_unknownMethod_returns400() throws Exception {
+        mockMvc.perform(post("/api/v1/analysis/run/bootstrap")
+                        .param("method", "wild")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("method must be residual or block"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/bootstrap - Should save nothing when flask sends no daily returns")
+    void runBootstrap_noDailyReturns_returns502AndSavesNothing() throws Exception {
+        // Arrange: a flask service that doesn't know includeDailyReturns
+        FlaskAnalysisResponse response = flaskResponse(saveFactors(250));
+        response.setDailyReturns(null);
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/analysis/run/bootstrap")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadGateway());
+        assertThat(resultsRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/bootstrap - Should save nothing without enough days of factor data")
+    void runBootstrap_tooFewDays_returns400AndSavesNothing() throws Exception {
+        // Arrange: returns for 250 days, factor data for only 30 of them
+        List<FamaFrenchFactorEntity> rows = saveFactors(250);
+        factorRepository.deleteAll(rows.subList(30, rows.size()));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse(rows));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/analysis/run/bootstrap")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("30 days, need 60")));
+        assertThat(resultsRepository.count()).isZero();
+    }
+
+    // flask's answer, with a daily return per factor row from a market beta of 1.05 plus noise
+    private static FlaskAnalysisResponse flaskResponse(List<FamaFrenchFactorEntity> rows) {
+        FlaskAnalysisResponse response = new FlaskAnalysisResponse();
+        response.setAlpha(new BigDecimal("0.0001"));
+        response.setBetaMkt(BigDecimal.valueOf(MARKET_BETA));
+        response.setBetaSmb(new BigDecimal("0.0"));
+        response.setBetaHml(new BigDecimal("0.0"));
+        response.setBetaRmw(new BigDecimal("0.0"));
+        response.setBetaCma(new BigDecimal("0.0"));
+        response.setRSquared(new BigDecimal("0.8"));
+        response.setTStats(Map.of());
+        response.setStdErrors(Map.of());
+        response.setResidualVariance(new BigDecimal("0.000004"));
+        response.setNObservations(rows.size());
+
+        SplittableRandom random = new SplittableRandom(5);
+        List<FlaskAnalysisResponse.DailyReturn> returns = new ArrayList<>();
+        for (FamaFrenchFactorEntity row : rows) {
+            double portfolioReturn = row.getRf().doubleValue() + 0.0001
+                    + MARKET_BETA * row.getMktRf().doubleValue() + 0.002 * random.nextGaussian();
+            returns.add(new FlaskAnalysisResponse.DailyReturn(row.getFactorDate().toString(),
+                    decimal(portfolioReturn)));
+        }
+        response.setDailyReturns(returns);
+        return response;
+    }
+
+    private List<FamaFrenchFactorEntity> saveFactors(int days) {
+        SplittableRandom random = new SplittableRandom(11);
+        List<FamaFrenchFactorEntity> rows = new ArrayList<>(days);
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day < days; day++) {
+            FamaFrenchFactorEntity row = new FamaFrenchFactorEntity();
+            row.setFactorDate(today.minusDays(day));
+            row.setMktRf(decimal(0.0003 + 0.01 * random.nextGaussian()));
+            row.setSmb(decimal(0.005 * random.nextGaussian()));
+            row.setHml(decimal(0.005 * random.nextGaussian()));
+            row.setRmw(decimal(0.004 * random.nextGaussian()));
+            row.setCma(decimal(0.004 * random.nextGaussian()));
+            row.setRf(decimal(0.0001));
+            rows.add(row);
+        }
+        return factorRepository.saveAll(rows);
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(10, RoundingMode.HALF_UP);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ishan.portfolio_risk_model.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
 import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
 import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
@@ -13,12 +14,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -167,6 +170,67 @@ class HoldingControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/holdings - Should return 304 while the ETag still matches")
+    void getHoldings_matchingETag_returns304UntilChanged() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertThat(eTag).startsWith("\"").doesNotStartWith("W/");
+
+        // unchanged holdings: not modified, no body
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+
+        // a write changes the version, so the old ETag gets the new list
+        MvcResult afterWrite = mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn();
+        assertThat(afterWrite.getResponse().getHeader("ETag")).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/holdings - Should see holdings another instance wrote, cached or not")
+    void getHoldings_writtenByAnotherInstance_returnsNewList() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+
+        // another instance's write: straight to the database, nothing in this instance's cache is touched
+        UserEntity user = userRepository.findByEmail("holder@example.com").orElseThrow();
+        HoldingsEntity holding = new HoldingsEntity();
+        holding.setUser(user);
+        holding.setTicker("MSFT");
+        holding.setQuantity(new BigDecimal("3"));
+        holdingsRepository.save(holding);
+        userRepository.incrementHoldingsVersion(user.getId());
+
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ticker").value("MSFT"));
+    }
+
     @Test
     @DisplayName("PUT /api/v1/holdings/{id} - Should update holding quantity")
     void updateHolding_validRequest_returns200() throws Exception {
@@ -261,4 +325,95 @@ class HoldingControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
     }
+
+    @Test
+    @DisplayName("POST /api/v1/holdings/import - Should import a JSON array of holdings")
+    void importHoldings_jsonArray_returns201() throws Exception {
+        List<HoldingsRequest> requests = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10")),
+                new HoldingsRequest("MSFT", new BigDecimal("5")));
+
+        mockMvc.perform(post("/api/v1/holdings/import")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].ticker").value("AAPL"))
+                .andExpect(jsonPath("$[1].id").isNumber());
+
+        assertThat(holdingsRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/holdings/import - Should import a CSV body and file upload")
+    void importHoldings_csv_returns201() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings/import")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType("text/csv")
+                        .content("ticker,quantity\nAAPL,10\nMSFT,2.5\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[1].quantity").value(2.5));
+
+        MockMultipartFile file = new MockMultipartFile("file", "holdings.csv", "text/csv",
+                "NVDA,4\r\nGOOGL,1\r\n".getBytes());
+        mockMvc.perform(multipart("/api/v1/holdings/import")
+                        .file(file)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        assertThat(holdingsRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/holdings/import - Should reject the whole import when one row duplicates a holding")
+    void importHoldings_existingTicker_returns400() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("1")))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/holdings/import")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType("text/csv")
+                        .content("MSFT,5\nAAPL,10\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("row 2: You already have a holding for AAPL"));
+
+        assertThat(holdingsRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/holdings - Should replace holdings and return change counts")
+    void syncHoldings_desiredSet_returnsCounts() throws Exception {
+        mockMvc.perform(post("/api/v1/holdings/import")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType("text/csv")
+                        .content("AAPL,10\nMSFT,5\nGOOGL,1\n"))
+                .andExpect(status().isCreated());
+
+        List<HoldingsRequest> desired = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10")),
+                new HoldingsRequest("MSFT", new BigDecimal("8")),
+                new HoldingsRequest("NVDA", new BigDecimal("2")));
+
+        mockMvc.perform(put("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(desired)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.unchanged").value(1));
+
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[?(@.ticker == 'MSFT')].quantity").value(8))
+                .andExpect(jsonPath("$[?(@.ticker == 'GOOGL')]").isEmpty());
+    }
 }
@@ -0,0 +1,90 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the actuator metrics endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class MetricsEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+
+        RegisterRequest registerRequest = new RegisterRequest("metrics@example.com", "password123");
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        authToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus - Should expose controller, repository and jwt timers as histograms")
+    void prometheus_afterRequest_exposesHistograms() throws Exception {
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        // on the app's own port the scrape needs a token; see ManagementPortIntegrationTest for the open one
+        String body = mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/v1/holdings\"");
+        assertThat(body).contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("repository=\"UserRepository\"");
+        assertThat(body).contains("jwt_authentication_seconds_bucket{")
+                .contains("outcome=\"authenticated\"");
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus - Should return 401 without token on the app's port")
+    void prometheus_noToken_returns401() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/health - Should be open without a token")
+    void health_noToken_returns200() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/metrics - Should return 401 without token")
+    void metrics_noToken_returns401() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+}
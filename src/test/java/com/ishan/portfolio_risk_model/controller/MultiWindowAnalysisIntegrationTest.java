@@ -0,0 +1,146 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import com.ishan.portfolio_risk_model.service.FlaskClient;
+import com.ishan.portfolio_risk_model.service.FlaskServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for POST /api/v1/analysis/run/windows.
+ * Not @Transactional: each window saves its result on its own thread and connection, so the user
+ * has to be committed first. Tables are cleared after each test instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MultiWindowAnalysisIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @MockitoBean
+    private FlaskClient flaskClient;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        clearTables();
+
+        RegisterRequest registerRequest = new RegisterRequest("windows@example.com", "password123");
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        authToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/windows - Should return one entry per window, failures isolated")
+    void runWindows_oneFailing_returnsPerWindowResults() throws Exception {
+        FlaskAnalysisResponse flaskResponse = new FlaskAnalysisResponse();
+        flaskResponse.setAlpha(new BigDecimal("0.000234"));
+        flaskResponse.setBetaMkt(new BigDecimal("0.856420"));
+        flaskResponse.setBetaSmb(new BigDecimal("0.123456"));
+        flaskResponse.setBetaHml(new BigDecimal("-0.045678"));
+        flaskResponse.setBetaRmw(new BigDecimal("0.032145"));
+        flaskResponse.setBetaCma(new BigDecimal("-0.012345"));
+        flaskResponse.setRSquared(new BigDecimal("0.876543"));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            FlaskAnalysisRequest request = invocation.getArgument(0);
+            if (request.getStartDate().startsWith("1990")) {
+                throw new FlaskServiceException("No price data for AAPL", HttpStatus.NOT_FOUND);
+            }
+            return flaskResponse;
+        });
+
+        String windows = """
+                [{"startDate": "2024-01-01", "endDate": "2025-01-01"},
+                 {"startDate": "1990-01-01", "endDate": "1995-01-01"},
+                 {"startDate": "2020-01-01", "endDate": "2025-01-01"}]""";
+
+        mockMvc.perform(post("/api/v1/analysis/run/windows")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(windows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows.length()").value(3))
+                .andExpect(jsonPath("$.windows[0].startDate").value("2024-01-01"))
+                .andExpect(jsonPath("$.windows[0].result.betaMkt").value(0.85642))
+                .andExpect(jsonPath("$.windows[1].result").doesNotExist())
+                .andExpect(jsonPath("$.windows[1].error").value("No price data for AAPL"))
+                .andExpect(jsonPath("$.windows[1].errorStatus").value(404))
+                .andExpect(jsonPath("$.windows[2].result.id").isNumber())
+                .andExpect(jsonPath("$.durationMillis").isNumber());
+
+        // the two successful windows are in the history
+        assertThat(resultsRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/analysis/run/windows - Should return 400 for a reversed window")
+    void runWindows_reversedWindow_returns400() throws Exception {
+        mockMvc.perform(post("/api/v1/analysis/run/windows")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"startDate\": \"2025-01-01\", \"endDate\": \"2024-01-01\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("window 1: startDate must be before endDate"));
+    }
+
+    private void clearTables() {
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
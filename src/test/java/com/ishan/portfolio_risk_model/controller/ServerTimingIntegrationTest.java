@@ -0,0 +1,82 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.config.RequestTimingFilter;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the Server-Timing response header.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ServerTimingIntegrationTest {
+
+    private static final String DURATION = "\\d+\\.\\d";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String authToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RegisterRequest registerRequest = new RegisterRequest("timing@example.com", "password123");
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        authToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/holdings - Should break the request down into user lookup, auth, db and total")
+    void authenticatedRequest_hasAuthDbAndTotal() throws Exception {
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                // the user lookup inside auth finishes (and is recorded) before auth itself
+                .andExpect(header().string(RequestTimingFilter.SERVER_TIMING_HEADER, allOf(
+                        matchesPattern("user-lookup;dur=" + DURATION + ", auth;dur=" + DURATION + ", .*"),
+                        matchesPattern(".*\\bdb;dur=" + DURATION + ".*"),
+                        matchesPattern(".*, total;dur=" + DURATION))));
+    }
+
+    @Test
+    @DisplayName("GET /api/health - Should send only the total for a request with no stages")
+    void openRequest_hasOnlyTotal() throws Exception {
+        mockMvc.perform(get("/api/health"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RequestTimingFilter.SERVER_TIMING_HEADER,
+                        matchesPattern("total;dur=" + DURATION)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/holdings - Should still send the header on a 401 with a bad token")
+    void invalidToken_unauthorizedStillHasHeader() throws Exception {
+        mockMvc.perform(get("/api/v1/holdings")
+                        .header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(RequestTimingFilter.SERVER_TIMING_HEADER,
+                        matchesPattern("auth;dur=" + DURATION + ", total;dur=" + DURATION)));
+    }
+}
@@ -0,0 +1,232 @@
+package com.ishan.portfolio_risk_model.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+import com.ishan.portfolio_risk_model.dto.RegisterRequest;
+import com.ishan.portfolio_risk_model.service.FlaskClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for GET /api/v1/analysis/{id}/var and /var/historical.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ValueAtRiskIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Autowired
+    private FamaFrenchFactorRepository factorRepository;
+
+    @MockitoBean
+    private FlaskClient flaskClient;
+
+    private ObjectMapper objectMapper;
+    private String authToken;
+    private long analysisId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+        factorRepository.deleteAll();
+
+        authToken = register("var@example.com");
+        mockMvc.perform(post("/api/v1/holdings")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingsRequest("AAPL", new BigDecimal("10")))))
+                .andExpect(status().isCreated());
+
+        FlaskAnalysisResponse flaskResponse = new FlaskAnalysisResponse();
+        flaskResponse.setAlpha(new BigDecimal("0.0001"));
+        flaskResponse.setBetaMkt(new BigDecimal("1.05"));
+        flaskResponse.setBetaSmb(new BigDecimal("0.2"));
+        flaskResponse.setBetaHml(new BigDecimal("-0.1"));
+        flaskResponse.setBetaRmw(new BigDecimal("0.05"));
+        flaskResponse.setBetaCma(new BigDecimal("0.0"));
+        flaskResponse.setRSquared(new BigDecimal("0.8"));
+        flaskResponse.setTStats(Map.of());
+        flaskResponse.setStdErrors(Map.of());
+        flaskResponse.setResidualVariance(new BigDecimal("0.00004"));
+        flaskResponse.setNObservations(250);
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+
+        MvcResult run = mockMvc.perform(post("/api/v1/analysis/run")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        analysisId = objectMapper.readTree(run.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/{id}/var - Should return VaR and CVaR for each horizon and confidence")
+    void getValueAtRisk_returnsEstimates() throws Exception {
+        // Arrange
+        saveFactors(300);
+
+        // Act
+        MvcResult first = mockMvc.perform(get("/api/v1/analysis/" + analysisId + "/var")
+                        .param("confidence", "0.95,0.99")
+                        .param("horizon", "1,10")
+                        .param("paths", "20000")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.analysisId").value(analysisId))
+                .andExpect(jsonPath("$.method").value("monte-carlo"))
+                .andExpect(jsonPath("$.factorDays").value(300))
+                .andExpect(jsonPath("$.paths").value(20000))
+                .andExpect(jsonPath("$.seed").value(analysisId))
+                .andExpect(jsonPath("$.estimates.length()").value(4))
+                .andExpect(jsonPath("$.estimates[0].horizonDays").value(1))
+                .andExpect(jsonPath("$.estimates[3].horizonDays").value(10))
+                .andReturn();
+        MvcResult second = mockMvc.perform(get("/api/v1/analysis/" + analysisId + "/var")
+                        .param("confidence", "0.95,0.99")
+                        .param("horizon", "1,10")
+                        .param("paths", "20000")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        double var = objectMapper.readTree(first.getResponse().getContentAsString())
+                .get("estimates").get(1).get("var").asDouble();
+        // about 2.33 daily standard deviations of a ~1.1% a day portfolio
+        assertThat(var).isBetween(0.01, 0.05);
+        assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/{id}/var - Should return 400 without enough factor data")
+    void getValueAtRisk_noFactors_returns400() throws Exception {
+        mockMvc.perform(get("/api/v1/analysis/" + analysisId + "/var")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("Not enough factor data")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/{id}/var - Should return 400 for another user's result")
+    void getValueAtRisk_differentUser_returns400() throws Exception {
+        // Arrange
+        saveFactors(100);
+        String otherToken = register("other-var@example.com");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/analysis/" + analysisId + "/var")
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Analysis result not found"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/analysis/{id}/var/historical - Should replay the window and return VaR and CVaR")
+    void getHistoricalValueAtRisk_returnsEstimates() throws Exception {
+        // Arrange
+        saveFactors(300);
+        LocalDate start = LocalDate.now().minusDays(199);
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(get("/api/v1/analysis/" + analysisId + "/var/historical")
+                        .param("startDate", start.toString())
+                        .param("endDate", LocalDate.now().toString())
+                        .param("confidence", "0.99")
+                        .param("horizon", "1,10")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("historical"))
+                .andExpect(jsonPath("$.factorStartDate").value(start.toString()))
+                .andExpect(jsonPath("$.factorDays").value(200))
+                .andExpect(jsonPath("$.paths").doesNotExist())
+                .andExpect(jsonPath("$.estimates.length()").value(2))
+                .andExpect(jsonPath("$.estimates[1].horizonDays").value(10))
+                .andReturn();
+
+        double oneDay = objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("estimates").get(0).get("var").asDouble();
+        double cvar = objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("estimates").get(0).get("cvar").asDouble();
+        assertThat(oneDay).isBetween(0.005, 0.06);
+        assertThat(cvar).isGreaterThanOrEqualTo(oneDay);
+    }
+
+    private String register(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest(email, "password123"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    // one row per day up to today, inside the lookback before the result's analysis date
+    private void saveFactors(int days) {
+        SplittableRandom random = new SplittableRandom(11);
+        List<FamaFrenchFactorEntity> rows = new ArrayList<>(days);
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day < days; day++) {
+            FamaFrenchFactorEntity row = new FamaFrenchFactorEntity();
+            row.setFactorDate(today.minusDays(day));
+            row.setMktRf(decimal(0.0003 + 0.01 * random.nextGaussian()));
+            row.setSmb(decimal(0.005 * random.nextGaussian()));
+            row.setHml(decimal(0.005 * random.nextGaussian()));
+            row.setRmw(decimal(0.004 * random.nextGaussian()));
+            row.setCma(decimal(0.004 * random.nextGaussian()));
+            row.setRf(decimal(0.0001));
+            rows.add(row);
+        }
+        factorRepository.saveAll(rows);
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(10, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ishan.portfolio_risk_model.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the schema from the flyway migrations (instead of create-drop) and lets hibernate
+ * validate the entities against it, then checks the hot queries are planned as index lookups.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+class SchemaMigrationsTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Factor lookup by date should use the unique factor_date index")
+    void factorByDate_usesIndex() {
+        String plan = explain("SELECT * FROM fama_french_factors WHERE factor_date = DATE '2024-01-02'");
+
+        assertThat(plan).containsIgnoringCase("idx_factors_date");
+    }
+
+    @Test
+    @DisplayName("History page query should use the (user_id, analysis_date) index")
+    void historyPage_usesIndex() {
+        String plan = explain("SELECT id, analysis_date FROM factor_analysis_results WHERE user_id = 1 "
+                + "ORDER BY analysis_date DESC, id DESC LIMIT 50");
+
+        assertThat(plan).containsIgnoringCase("idx_results_user_date");
+    }
+
+    @Test
+    @DisplayName("Migrations should be recorded in the flyway history")
+    void migrations_areApplied() {
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" = TRUE AND \"version\" IS NOT NULL",
+                Integer.class);
+
+        assertThat(applied).isEqualTo(5);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,166 @@
+package com.ishan.portfolio_risk_model.domain.repository;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisHistoryRow;
+import com.ishan.portfolio_risk_model.service.AnalysisExportFormat;
+import com.ishan.portfolio_risk_model.service.AnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FactorAnalysisResultsRepositoryTest {
+
+    // a spy so the export test can see which queries the service runs
+    @MockitoSpyBean
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Autowired
+    private AnalysisService analysisService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserEntity testUser;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @BeforeEach
+    void setUp() {
+        resultsRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = new UserEntity();
+        testUser.setEmail("history@example.com");
+        testUser.setPasswordHash("hash");
+        testUser.setRole(UserEntity.Role.USER);
+        testUser = userRepository.save(testUser);
+    }
+
+    @Test
+    @DisplayName("Should return newest results first with projected columns")
+    void findHistoryPage_returnsNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        FactorAnalysisResultsEntity older = resultsRepository.save(createResult(base));
+        FactorAnalysisResultsEntity newer = resultsRepository.save(createResult(base.plusDays(1)));
+
+        List<AnalysisHistoryRow> page = resultsRepository.findHistoryPage(testUser.getId(), Limit.of(10));
+
+        assertThat(page).extracting(AnalysisHistoryRow::getId).containsExactly(newer.getId(), older.getId());
+        assertThat(page.get(0).getTStatMkt()).isEqualByComparingTo(new BigDecimal("15.6789"));
+        assertThat(page.get(0).getRSquared()).isEqualByComparingTo(new BigDecimal("0.876543"));
+        assertThat(page.get(0).getNObservations()).isEqualTo(752);
+    }
+
+    @Test
+    @DisplayName("Should continue after the keyset, breaking analysis date ties by id")
+    void findHistoryPageAfter_sameTimestamp_usesIdTieBreak() {
+        LocalDateTime sameTime = LocalDateTime.of(2025, 3, 1, 12, 0);
+        FactorAnalysisResultsEntity first = resultsRepository.save(createResult(sameTime));
+        FactorAnalysisResultsEntity second = resultsRepository.save(createResult(sameTime));
+        FactorAnalysisResultsEntity oldest = resultsRepository.save(createResult(sameTime.minusHours(1)));
+
+        List<AnalysisHistoryRow> firstPage = resultsRepository.findHistoryPage(testUser.getId(), Limit.of(1));
+        assertThat(firstPage).extracting(AnalysisHistoryRow::getId).containsExactly(second.getId());
+
+        List<AnalysisHistoryRow> rest = resultsRepository.findHistoryPageAfter(
+                testUser.getId(), sameTime, second.getId(), Limit.of(10));
+
+        assertThat(rest).extracting(AnalysisHistoryRow::getId).containsExactly(first.getId(), oldest.getId());
+    }
+
+    @Test
+    @DisplayName("Should stream the whole history newest first, only for the given user")
+    void streamHistory_returnsAllRowsNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        FactorAnalysisResultsEntity oldest = resultsRepository.save(createResult(base));
+        FactorAnalysisResultsEntity middle = resultsRepository.save(createResult(base.plusDays(1)));
+        FactorAnalysisResultsEntity newest = resultsRepository.save(createResult(base.plusDays(2)));
+
+        UserEntity otherUser = new UserEntity();
+        otherUser.setEmail("other@example.com");
+        otherUser.setPasswordHash("hash");
+        otherUser.setRole(UserEntity.Role.USER);
+        otherUser = userRepository.save(otherUser);
+        FactorAnalysisResultsEntity otherResult = createResult(base.plusDays(3));
+        otherResult.setUser(otherUser);
+        resultsRepository.save(otherResult);
+
+        List<Long> ids;
+        try (Stream<AnalysisHistoryRow> rows = resultsRepository.streamHistory(testUser.getId())) {
+            ids = rows.map(AnalysisHistoryRow::getId).toList();
+        }
+
+        assertThat(ids).containsExactly(newest.getId(), middle.getId(), oldest.getId());
+    }
+
+    @Test
+    @DisplayName("Should export the history through the streamed cursor, never a loaded list")
+    void exportHistory_readsThroughStreamHistory() throws IOException {
+        // more rows than one fetch of 500, so the cursor has to be read more than once
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<FactorAnalysisResultsEntity> results = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            results.add(createResult(base.plusMinutes(i)));
+        }
+        resultsRepository.saveAll(results);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        analysisService.exportHistory(AnalysisExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1200);
+        assertThat(lines[0]).contains("\"id\":" + results.get(1199).getId());
+        verify(resultsRepository).streamHistory(testUser.getId());
+        verify(resultsRepository, never()).findHistoryPage(any(), any());
+        verify(resultsRepository, never()).findByUserIdOrderByAnalysisDateDesc(any());
+        verify(resultsRepository, never()).findByUserOrderByAnalysisDateDesc(any());
+    }
+
+    private FactorAnalysisResultsEntity createResult(LocalDateTime analysisDate) {
+        FactorAnalysisResultsEntity result = new FactorAnalysisResultsEntity();
+        result.setUser(testUser);
+        result.setAnalysisDate(analysisDate);
+        result.setAlpha(new BigDecimal("0.000234"));
+        result.setBetaMkt(new BigDecimal("0.856420"));
+        result.setBetaSmb(new BigDecimal("0.123456"));
+        result.setBetaHml(new BigDecimal("-0.045678"));
+        result.setBetaRmw(new BigDecimal("0.032145"));
+        result.setBetaCma(new BigDecimal("-0.012345"));
+        result.setRSquared(new BigDecimal("0.876543"));
+        result.setTStatMkt(new BigDecimal("15.6789"));
+        result.setNObservations(752);
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ishan.portfolio_risk_model.performance;
+
+import com.ishan.portfolio_risk_model.PortfolioRiskModelApplication;
+import com.ishan.portfolio_risk_model.config.DeferredWarmupRunner;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the time to ready with the startup warm-ups run inline (before the app reports ready)
+ * versus deferred (after), on an H2 database filled with enough active users that warming the
+ * holdings cache takes a while, and the launch of the startup profile's AOT/CDS build against a plain
+ * launch of the same jar. Run with {@code mvn test -Pperformance}; the launch comparison needs
+ * {@code ./mvnw -Pstartup package} first.
+ */
+@Tag("performance")
+class StartupTimeTest {
+
+    private static final int USERS = 20_000;
+    private static final int HOLDINGS_PER_USER = 10;
+    private static final int RUNS = 3;
+
+    // extracted jar and class data sharing archive built by the startup profile
+    private static final Path STARTUP_DIR = Path.of("target", "startup");
+
+    // kept between the app starts in this class
+    private static final String DATABASE_URL =
+            "jdbc:h2:mem:startup-time;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @BeforeAll
+    static void createData() {
+        // the first start also pays the jvm's one-off class loading, so it isn't measured
+        try (ConfigurableApplicationContext context = start("off")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            List<Object[]> users = new ArrayList<>();
+            List<Object[]> holdings = new ArrayList<>();
+            List<Object[]> results = new ArrayList<>();
+            for (long user = 1; user <= USERS; user++) {
+                users.add(new Object[]{user, "user" + user + "@startup.test"});
+                for (int holding = 0; holding < HOLDINGS_PER_USER; holding++) {
+                    holdings.add(new Object[]{user * HOLDINGS_PER_USER + holding, user, "T" + holding});
+                }
+                results.add(new Object[]{user});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (id, email, password_hash, role) VALUES (?, ?, 'hash', 'USER')",
+                    users);
+            jdbcTemplate.batchUpdate("INSERT INTO holdings (id, user_id, ticker, quantity) VALUES (?, ?, ?, 10)",
+                    holdings);
+            jdbcTemplate.batchUpdate("INSERT INTO factor_analysis_results (user_id, analysis_date, alpha, beta_mkt, "
+                    + "beta_smb, beta_hml, beta_rmw, beta_cma, r_squared) "
+                    + "VALUES (?, CURRENT_TIMESTAMP, 0, 1, 0, 0, 0, 0, 0.9)", results);
+        }
+    }
+
+    @Test
+    @DisplayName("Deferred warm-ups should get the app ready sooner than running them inline")
+    void deferredWarmup_readySoonerThanInline() throws Exception {
+        long[] inline = new long[RUNS];
+        long[] deferred = new long[RUNS];
+        long[] deferredWarm = new long[RUNS];
+        // alternated, so neither mode gets all the benefit of a warmer jvm
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            try (ConfigurableApplicationContext ignored = start("inline")) {
+                inline[run] = millisSince(start);
+            }
+
+            start = System.nanoTime();
+            try (ConfigurableApplicationContext context = start("deferred")) {
+                deferred[run] = millisSince(start);
+                assertThat(context.getBean(DeferredWarmupRunner.class).awaitCompletion(Duration.ofMinutes(1))).isTrue();
+                deferredWarm[run] = millisSince(start);
+            }
+        }
+
+        System.out.printf("[startup] %d users warmed, median of %d starts: inline warm-up ready in %dms; "
+                        + "deferred warm-up ready in %dms, caches warm after %dms%n",
+                USERS, RUNS, median(inline), median(deferred), median(deferredWarm));
+
+        assertThat(median(deferred)).isLessThan(median(inline));
+    }
+
+    @Test
+    @DisplayName("The AOT/CDS launch should refresh the context sooner than a plain launch of the same jar")
+    void aotCdsLaunch_refreshesSoonerThanPlainLaunch() throws Exception {
+        assumeTrue(Files.exists(STARTUP_DIR.resolve("application.jsa")), "needs ./mvnw -Pstartup package");
+
+        long[] plain = new long[RUNS];
+        long[] aotCds = new long[RUNS];
+        // alternated, so neither launch gets all the benefit of a warmer page cache
+        for (int run = 0; run < RUNS; run++) {
+            plain[run] = launch(List.of());
+            aotCds[run] = launch(List.of("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=off",
+                    "-Dspring.aot.enabled=true"));
+        }
+
+        System.out.printf("[startup] median of %d launches to a refreshed context: plain %dms, AOT/CDS %dms%n",
+                RUNS, median(plain), median(aotCds));
+
+        assertThat(median(aotCds)).isLessThan(median(plain));
+    }
+
+    // wall time of a new jvm running the extracted jar until its context is refreshed, where it exits.
+    // h2 goes after the jar on the class path: the archive only needs its own class path as a prefix
+    private static long launch(List<String> jvmOptions) throws Exception {
+        Path h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-Dspring.context.exit=onRefresh",
+                "-cp", "application.jar" + File.pathSeparator + h2,
+                PortfolioRiskModelApplication.class.getName(),
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:launch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(STARTUP_DIR.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        assertThat(process.waitFor(2, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).isZero();
+        return millisSince(start);
+    }
+
+    private static ConfigurableApplicationContext start(String warmupMode) {
+        return new SpringApplicationBuilder(PortfolioRiskModelApplication.class)
+                .profiles("test")
+                // command-line args, so they win over application-test.yaml
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + DATABASE_URL,
+                        "--spring.flyway.enabled=true",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.database-platform=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--startup.warmup.mode=" + warmupMode,
+                        "--holdings.cache.max-users=" + USERS,
+                        "--holdings.cache.warmup-users=" + USERS);
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,149 @@
+package com.ishan.portfolio_risk_model.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.portfolio_risk_model.PortfolioRiskModelApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares POST /api/v1/analysis/run throughput with Tomcat on a small platform thread pool
+ * versus virtual threads, against a local Flask stub that answers after a fixed delay.
+ * Run with {@code mvn test -Pperformance}.
+ */
+@Tag("performance")
+class VirtualThreadThroughputTest {
+
+    // the delay dwarfs the per-request cpu cost, so even a single-core runner measures
+    // waiting on flask rather than serialization and database work
+    private static final int FLASK_DELAY_MILLIS = 1000;
+    private static final int PLATFORM_THREADS = 8;
+    private static final int CONCURRENT_REQUESTS = 200;
+
+    private static final String FLASK_RESPONSE = """
+            {"alpha": 0.0002, "betaMkt": 0.85, "betaSmb": 0.12, "betaHml": -0.04,
+             "betaRmw": 0.03, "betaCma": -0.01, "rSquared": 0.87}""";
+
+    private static HttpServer flaskStub;
+    private static HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startFlaskStub() throws Exception {
+        flaskStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        flaskStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        flaskStub.createContext("/api/analysis/factor-regression", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(FLASK_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = FLASK_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        flaskStub.start();
+
+        httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @AfterAll
+    static void stopFlaskStub() {
+        flaskStub.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    @DisplayName("Virtual threads should serve slow Flask calls with higher throughput than a bounded platform pool")
+    void virtualThreads_outperformBoundedPlatformPool() throws Exception {
+        double platformRps = measureThroughput(false);
+        double virtualRps = measureThroughput(true);
+
+        System.out.printf("[throughput] %d concurrent analysis runs, flask delay %dms: "
+                        + "platform (%d threads) %.1f req/s, virtual %.1f req/s%n",
+                CONCURRENT_REQUESTS, FLASK_DELAY_MILLIS, PLATFORM_THREADS, platformRps, virtualRps);
+
+        assertThat(virtualRps).isGreaterThan(platformRps * 2);
+    }
+
+    private double measureThroughput(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PortfolioRiskModelApplication.class)
+                .profiles("test")
+                // command-line args, so they win over application-test.yaml
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--spring.datasource.url=jdbc:h2:mem:throughput-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--flask.service.base-url=http://localhost:" + flaskStub.getAddress().getPort())) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = registerUser(baseUrl, mode + "@example.com");
+            send(baseUrl + "/api/v1/holdings", token, "{\"ticker\": \"AAPL\", \"quantity\": 10}");
+
+            // warm-up: first requests pay for class loading and the holdings cache fill
+            runConcurrently(baseUrl, token, PLATFORM_THREADS);
+
+            long start = System.nanoTime();
+            runConcurrently(baseUrl, token, CONCURRENT_REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return CONCURRENT_REQUESTS / seconds;
+        }
+    }
+
+    private void runConcurrently(String baseUrl, String token, int requests) {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(httpClient.sendAsync(post(baseUrl + "/api/v1/analysis/run", token, ""),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        responses.forEach(future -> {
+            HttpResponse<String> response = future.join();
+            assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        });
+    }
+
+    private String registerUser(String baseUrl, String email) throws Exception {
+        String body = "{\"email\": \"" + email + "\", \"password\": \"password123\"}";
+        HttpResponse<String> response = send(baseUrl + "/api/v1/auth/register", null, body);
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String url, String token, String body) throws Exception {
+        HttpResponse<String> response = httpClient.send(post(url, token, body), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isBetween(200, 299);
+        return response;
+    }
+
+    private HttpRequest post(String url, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
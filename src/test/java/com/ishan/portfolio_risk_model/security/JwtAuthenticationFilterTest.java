@@ -0,0 +1,114 @@
+package com.ishan.portfolio_risk_model.security;
+
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.support.JfrEventRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for JwtAuthenticationFilter.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final long USER_LOAD_MILLIS = 5;
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthenticationFilter filter;
+    private UserEntity testUser;
+
+    @BeforeEach
+    void setUp() {
+        // other test classes on this thread may leave an authentication behind
+        SecurityContextHolder.clearContext();
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "expiration", 86400000L);
+
+        testUser = new UserEntity();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+        testUser.setPasswordHash("hashedpassword");
+        testUser.setRole(UserEntity.Role.USER);
+
+        // a user lookup slow enough to show up in the event
+        UserDetailsService userDetailsService = email -> {
+            try {
+                Thread.sleep(USER_LOAD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return testUser;
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should authenticate a valid token and emit a JFR event with parse and user-load times")
+    void validToken_authenticatesAndRecordsEvent() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(testUser));
+
+        // Act
+        RecordedEvent event = filterRecordingEvent(request);
+
+        // Assert
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(testUser);
+        assertThat(event.getString("outcome")).isEqualTo("authenticated");
+        assertThat(event.getDuration("parseNanos")).isPositive();
+        assertThat(event.getDuration("userLoadNanos")).isGreaterThanOrEqualTo(Duration.ofMillis(USER_LOAD_MILLIS));
+        assertThat(meterRegistry.get("jwt.authentication").tag("outcome", "authenticated").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave a malformed token unauthenticated and emit an invalid event without a user load")
+    void malformedToken_recordsInvalidEvent() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer not-a-token");
+
+        // Act
+        RecordedEvent event = filterRecordingEvent(request);
+
+        // Assert
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(event.getString("outcome")).isEqualTo("invalid");
+        assertThat(event.getDuration("parseNanos")).isPositive();
+        assertThat(event.getDuration("userLoadNanos")).isZero();
+    }
+
+    private RecordedEvent filterRecordingEvent(MockHttpServletRequest request) throws Exception {
+        try (JfrEventRecorder recorder = new JfrEventRecorder(JwtAuthenticationEvent.NAME)) {
+            recorder.start();
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            recorder.stop();
+            List<RecordedEvent> events = recorder.getEvents(JwtAuthenticationEvent.NAME);
+            assertThat(events).hasSize(1);
+            return events.get(0);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AnalysisExportWriter.
+ */
+class AnalysisExportWriterTest {
+
+    private static final int MILLION_ROWS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 16 * 1024 * 1024;
+
+    private final AnalysisExportWriter exportWriter = new AnalysisExportWriter(JsonMapper.builder().build());
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void write_ndjson_writesOneObjectPerLine() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportWriter.write(Stream.of(row(1L), row(2L)), AnalysisExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"id\":1").contains("\"betaMkt\":0.85");
+        assertThat(lines[1]).contains("\"id\":2");
+    }
+
+    @Test
+    @DisplayName("Should write a header and one flat row per result")
+    void write_csv_writesHeaderAndFlatRows() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnalysisResponse withoutStats = row(2L);
+        withoutStats.setTStats(null);
+        withoutStats.setStdErrors(null);
+
+        // Act
+        exportWriter.write(Stream.of(row(1L), withoutStats), AnalysisExportFormat.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,analysisDate,alpha,betaMkt")
+                .contains("tStatMkt").endsWith("residualVariance,nObservations");
+        assertThat(lines[1]).startsWith("1,2025-01-01T08:59,0.0002,0.85,").endsWith(",0.000042,752");
+        // one value per header column, blank where a statistic is missing
+        assertThat(lines[1].split(",", -1)).hasSameSizeAs(lines[0].split(","));
+        assertThat(lines[2].split(",", -1)).hasSameSizeAs(lines[0].split(","));
+        assertThat(lines[2]).contains(",,,,,,");
+    }
+
+    // forces a gc per sample, so it runs with the measurements: mvn test -Pperformance
+    @Tag("performance")
+    @ParameterizedTest
+    @EnumSource(AnalysisExportFormat.class)
+    @DisplayName("Should write a million rows with flat heap use")
+    void write_millionRows_keepsHeapFlat(AnalysisExportFormat format) throws IOException {
+        // Arrange: rows are generated lazily, like a database cursor, and the output is discarded
+        CountingOutputStream out = new CountingOutputStream();
+        HeapSampler heap = new HeapSampler();
+        Stream<AnalysisResponse> rows = LongStream.rangeClosed(1, MILLION_ROWS).mapToObj(id -> {
+            if (id % SAMPLE_EVERY == 0) {
+                heap.sample();
+            }
+            return row(id);
+        });
+
+        // Act
+        exportWriter.write(rows, format, out);
+
+        // Assert
+        int headerLines = format == AnalysisExportFormat.CSV ? 1 : 0;
+        assertThat(out.lines).isEqualTo(MILLION_ROWS + headerLines);
+        assertThat(heap.growth()).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    private AnalysisResponse row(long id) {
+        return new AnalysisResponse(
+                id,
+                LocalDateTime.of(2025, 1, 1, 9, 0).minusMinutes(id),
+                new BigDecimal("0.0002"),
+                new BigDecimal("0.85"),
+                new BigDecimal("0.12"),
+                new BigDecimal("-0.04"),
+                new BigDecimal("0.03"),
+                new BigDecimal("-0.01"),
+                new BigDecimal("0.87"),
+                Map.of("alpha", new BigDecimal("1.2345"), "mkt", new BigDecimal("15.6789")),
+                Map.of("alpha", new BigDecimal("0.000190"), "mkt", new BigDecimal("0.054622")),
+                new BigDecimal("0.000042"),
+                752
+        );
+    }
+
+    // counts lines written and keeps none of them
+    private static final class CountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+
+    // used heap after a gc, measured from the first sample (taken once the writer is warmed up)
+    private static final class HeapSampler {
+        private long baseline = -1;
+        private long max;
+
+        void sample() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if (baseline < 0) {
+                baseline = used;
+            }
+            max = Math.max(max, used);
+        }
+
+        long growth() {
+            return max - baseline;
+        }
+    }
+}
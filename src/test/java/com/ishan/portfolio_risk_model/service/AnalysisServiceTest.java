@@ -3,11 +3,18 @@ package com.ishan.portfolio_risk_model.service;
 import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.AnalysisHistoryRow;
 import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
-import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.dto.AnalysisHistoryPage;
 import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.AnalysisWindow;
+import com.ishan.portfolio_risk_model.dto.AnalysisWindowResult;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import com.ishan.portfolio_risk_model.dto.MultiWindowAnalysisResponse;
+import com.ishan.portfolio_risk_model.support.JfrEventRecorder;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +23,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -24,9 +34,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,7 +52,7 @@ import static org.mockito.Mockito.*;
 class AnalysisServiceTest {
 
     @Mock
-    private HoldingsRepository holdingsRepository;
+    private HoldingService holdingService;
 
     @Mock
     private FactorAnalysisResultsRepository resultsRepository;
@@ -45,6 +60,9 @@ class AnalysisServiceTest {
     @Mock
     private FlaskClient flaskClient;
 
+    @Mock
+    private AnalysisExportWriter exportWriter;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -56,6 +74,8 @@ class AnalysisServiceTest {
     private FlaskAnalysisResponse flaskResponse;
     private FactorAnalysisResultsEntity savedEntity;
 
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
     @BeforeEach
     void setUp() {
         // Create test user
@@ -82,6 +102,9 @@ class AnalysisServiceTest {
         flaskResponse.setBetaCma(new BigDecimal("-0.012345"));
         flaskResponse.setRSquared(new BigDecimal("0.876543"));
         flaskResponse.setTStats(Map.of("alpha", new BigDecimal("1.2345"), "mkt", new BigDecimal("15.6789")));
+        flaskResponse.setStdErrors(Map.of("alpha", new BigDecimal("0.000190"), "mkt", new BigDecimal("0.054622")));
+        flaskResponse.setResidualVariance(new BigDecimal("0.000042"));
+        flaskResponse.setNObservations(752);
 
         // Create saved entity (what the repository returns after save)
         savedEntity = new FactorAnalysisResultsEntity();
@@ -107,9 +130,13 @@ class AnalysisServiceTest {
     @DisplayName("Should run analysis and return result with tStats")
     void runAnalysis_withHoldings_returnsResult() {
         // Arrange
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
         when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
-        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenAnswer(invocation -> {
+            FactorAnalysisResultsEntity entity = invocation.getArgument(0);
+            entity.setId(1L);
+            return entity;
+        });
 
         // Act
         AnalysisResponse response = analysisService.runAnalysis(
@@ -127,11 +154,72 @@ class AnalysisServiceTest {
         verify(resultsRepository).save(any(FactorAnalysisResultsEntity.class));
     }
 
+    @Test
+    @DisplayName("Should persist t-stats, standard errors, residual variance and observation count")
+    void runAnalysis_persistsRegressionStatistics() {
+        // Arrange
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
+
+        // Act
+        analysisService.runAnalysis(null, null);
+
+        // Assert
+        ArgumentCaptor<FactorAnalysisResultsEntity> captor = ArgumentCaptor.forClass(FactorAnalysisResultsEntity.class);
+        verify(resultsRepository).save(captor.capture());
+        FactorAnalysisResultsEntity persisted = captor.getValue();
+        assertThat(persisted.getTStatAlpha()).isEqualByComparingTo(new BigDecimal("1.2345"));
+        assertThat(persisted.getTStatMkt()).isEqualByComparingTo(new BigDecimal("15.6789"));
+        assertThat(persisted.getTStatSmb()).isNull();
+        assertThat(persisted.getStdErrMkt()).isEqualByComparingTo(new BigDecimal("0.054622"));
+        assertThat(persisted.getResidualVariance()).isEqualByComparingTo(new BigDecimal("0.000042"));
+        assertThat(persisted.getNObservations()).isEqualTo(752);
+    }
+
+    @Test
+    @DisplayName("Should ask flask for daily returns and hand the check's value back with the saved result")
+    void runAnalysis_withCheck_returnsCheckedValue() {
+        // Arrange
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
+        List<AnalysisStage> stages = new ArrayList<>();
+
+        // Act
+        AnalysisService.CheckedAnalysis<Integer> analysis = analysisService.runAnalysis(null, null, true,
+                stages::add, response -> response.getNObservations());
+
+        // Assert
+        ArgumentCaptor<FlaskAnalysisRequest> request = ArgumentCaptor.forClass(FlaskAnalysisRequest.class);
+        verify(flaskClient).runFactorRegression(request.capture());
+        assertThat(request.getValue().isIncludeDailyReturns()).isTrue();
+        assertThat(analysis.checked()).isEqualTo(752);
+        assertThat(analysis.result().getId()).isEqualTo(1L);
+        assertThat(stages).containsExactly(AnalysisStage.HOLDINGS_LOADED, AnalysisStage.REGRESSION_STARTED,
+                AnalysisStage.REGRESSION_DONE, AnalysisStage.PERSISTED);
+    }
+
+    @Test
+    @DisplayName("Should save nothing when the check rejects flask's answer")
+    void runAnalysis_checkRejects_savesNothing() {
+        // Arrange
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+
+        // Act & Assert
+        assertThatThrownBy(() -> analysisService.runAnalysis(null, null, true, stage -> { }, response -> {
+            throw new IllegalArgumentException("not enough days");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        verify(resultsRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Should throw exception when user has no holdings")
     void runAnalysis_noHoldings_throwsException() {
         // Arrange
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of());
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot());
 
         // Act & Assert
         assertThatThrownBy(() -> analysisService.runAnalysis(null, null))
@@ -145,7 +233,7 @@ class AnalysisServiceTest {
     @DisplayName("Should use provided dates in Flask request")
     void runAnalysis_withDates_usesProvidedDates() {
         // Arrange
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
         when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
         when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
 
@@ -163,7 +251,7 @@ class AnalysisServiceTest {
     @DisplayName("Should use default dates when not provided")
     void runAnalysis_withoutDates_usesDefaults() {
         // Arrange
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
         when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
         when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
 
@@ -181,7 +269,7 @@ class AnalysisServiceTest {
     @DisplayName("Should propagate FlaskServiceException")
     void runAnalysis_flaskError_throwsFlaskServiceException() {
         // Arrange
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
         when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class)))
                 .thenThrow(new FlaskServiceException("Invalid ticker: XYZ", HttpStatus.NOT_FOUND));
 
@@ -203,7 +291,7 @@ class AnalysisServiceTest {
         holding2.setTicker("TSLA");
         holding2.setQuantity(new BigDecimal("5"));
 
-        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding, holding2));
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding, holding2));
         when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
         when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
 
@@ -221,19 +309,167 @@ class AnalysisServiceTest {
     }
 
     @Test
-    @DisplayName("Should return history for current user")
+    @DisplayName("Should emit an AnalysisRun JFR event with portfolio size, window, backend and cache hit")
+    void runAnalysis_recordsJfrEvent() {
+        // Arrange
+        HoldingsEntity secondHolding = new HoldingsEntity();
+        secondHolding.setId(2L);
+        secondHolding.setTicker("MSFT");
+        secondHolding.setQuantity(new BigDecimal("5"));
+        when(holdingService.isHoldingsCached(testUser)).thenReturn(true);
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding, secondHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenReturn(savedEntity);
+
+        // Act
+        List<RecordedEvent> events;
+        try (JfrEventRecorder recorder = new JfrEventRecorder(AnalysisRunEvent.NAME)) {
+            recorder.start();
+            analysisService.runAnalysis(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+            recorder.stop();
+            events = recorder.getEvents(AnalysisRunEvent.NAME);
+        }
+
+        // Assert
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getInt("holdings")).isEqualTo(2);
+        assertThat(event.getLong("windowDays")).isEqualTo(366);
+        assertThat(event.getString("backend")).isEqualTo("flask");
+        assertThat(event.getBoolean("holdingsCacheHit")).isTrue();
+        assertThat(event.getBoolean("succeeded")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should return the whole history for current user without a limit or cursor")
     void getHistory_returnsResults() {
         // Arrange
-        when(resultsRepository.findByUserOrderByAnalysisDateDesc(testUser))
-                .thenReturn(List.of(savedEntity));
+        when(resultsRepository.findHistoryPage(1L, Limit.unlimited()))
+                .thenReturn(List.of(asHistoryRow(savedEntity)));
 
         // Act
-        List<AnalysisResponse> history = analysisService.getHistory();
+        AnalysisHistoryPage page = analysisService.getHistory(null, null, 0L);
 
         // Assert
+        List<AnalysisResponse> history = page.getItems();
         assertThat(history).hasSize(1);
         assertThat(history.get(0).getId()).isEqualTo(1L);
         assertThat(history.get(0).getTStats()).isNull();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should use the newest result id in the database as the history version")
+    void getHistoryVersion_isNewestResultId() {
+        // Arrange
+        when(resultsRepository.findHistoryVersion(1L)).thenReturn(42L);
+
+        // Act & Assert
+        assertThat(analysisService.getHistoryVersion()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("Should read the version only from the replica when given the primary's")
+    void getHistory_givenVersion_queriesVersionOnce() {
+        // Arrange
+        when(resultsRepository.findHistoryVersion(1L)).thenReturn(1L);
+        when(resultsRepository.findHistoryPage(1L, Limit.unlimited()))
+                .thenReturn(List.of(asHistoryRow(savedEntity)));
+
+        // Act
+        AnalysisHistoryPage page = analysisService.getHistory(null, null, 1L);
+
+        // Assert
+        assertThat(page.getItems()).hasSize(1);
+        verify(resultsRepository, times(1)).findHistoryVersion(1L);
+    }
+
+    @Test
+    @DisplayName("Should return a cursor when more history exists and resume after it")
+    void getHistory_morePages_returnsCursorForNextPage() {
+        // Arrange
+        FactorAnalysisResultsEntity older = new FactorAnalysisResultsEntity();
+        older.setId(7L);
+        older.setUser(testUser);
+        older.setAnalysisDate(savedEntity.getAnalysisDate().minusDays(1));
+        when(resultsRepository.findHistoryPage(1L, Limit.of(2)))
+                .thenReturn(List.of(asHistoryRow(savedEntity), asHistoryRow(older)));
+
+        // Act
+        AnalysisHistoryPage firstPage = analysisService.getHistory(null, 1, 0L);
+
+        // Assert
+        assertThat(firstPage.getItems()).extracting(AnalysisResponse::getId).containsExactly(1L);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        // Act - follow the cursor
+        when(resultsRepository.findHistoryPageAfter(1L, savedEntity.getAnalysisDate(), 1L, Limit.of(2)))
+                .thenReturn(List.of(asHistoryRow(older)));
+        AnalysisHistoryPage secondPage = analysisService.getHistory(firstPage.getNextCursor(), 1, 0L);
+
+        // Assert
+        assertThat(secondPage.getItems()).extracting(AnalysisResponse::getId).containsExactly(7L);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should page a cursor without a limit at the default page size")
+    void getHistory_cursorWithoutLimit_usesDefaultPageSize() {
+        // Arrange
+        String cursor = new AnalysisHistoryCursor(savedEntity.getAnalysisDate(), 1L).encode();
+        when(resultsRepository.findHistoryPageAfter(1L, savedEntity.getAnalysisDate(), 1L, Limit.of(51)))
+                .thenReturn(List.of());
+
+        // Act
+        AnalysisHistoryPage page = analysisService.getHistory(cursor, null, 0L);
+
+        // Assert
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject malformed history cursor")
+    void getHistory_invalidCursor_throwsException() {
+        assertThatThrownBy(() -> analysisService.getHistory("not-a-cursor", null, 0L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    @DisplayName("Should reject out of range page size")
+    void getHistory_invalidLimit_throwsException() {
+        assertThatThrownBy(() -> analysisService.getHistory(null, 0, 0L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limit");
+        assertThatThrownBy(() -> analysisService.getHistory(null, 500, 0L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limit");
+    }
+
+    @Test
+    @DisplayName("Should return stored regression statistics in history without calling Flask")
+    void getHistory_withStoredStatistics_returnsFullResult() {
+        // Arrange
+        savedEntity.setTStatAlpha(new BigDecimal("1.2345"));
+        savedEntity.setTStatMkt(new BigDecimal("15.6789"));
+        savedEntity.setStdErrAlpha(new BigDecimal("0.000190"));
+        savedEntity.setResidualVariance(new BigDecimal("0.000042"));
+        savedEntity.setNObservations(752);
+        when(resultsRepository.findHistoryPage(1L, Limit.unlimited()))
+                .thenReturn(List.of(asHistoryRow(savedEntity)));
+
+        // Act
+        List<AnalysisResponse> history = analysisService.getHistory(null, null, 0L).getItems();
+
+        // Assert
+        AnalysisResponse response = history.get(0);
+        assertThat(response.getTStats()).containsOnlyKeys("alpha", "mkt");
+        assertThat(response.getTStats().get("mkt")).isEqualByComparingTo(new BigDecimal("15.6789"));
+        assertThat(response.getStdErrors()).containsOnlyKeys("alpha");
+        assertThat(response.getResidualVariance()).isEqualByComparingTo(new BigDecimal("0.000042"));
+        assertThat(response.getNObservations()).isEqualTo(752);
+        verifyNoInteractions(flaskClient);
     }
 
     @Test
@@ -282,4 +518,120 @@ class AnalysisServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Analysis result not found");
     }
+
+    // back a history projection with an entity, the way spring data does for interface projections
+    private AnalysisHistoryRow asHistoryRow(FactorAnalysisResultsEntity entity) {
+        return projectionFactory.createProjection(AnalysisHistoryRow.class, entity);
+    }
+
+    @Test
+    @DisplayName("Should load holdings once and run every window concurrently")
+    void runAnalysisWindows_runsWindowsConcurrentlyOnOneSnapshot() {
+        // Arrange: each flask call waits until all three are in flight, which only happens if they overlap
+        CountDownLatch allInFlight = new CountDownLatch(3);
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            allInFlight.countDown();
+            if (!allInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("windows did not run concurrently");
+            }
+            return flaskResponse;
+        });
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<AnalysisWindow> windows = List.of(
+                new AnalysisWindow(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)),
+                new AnalysisWindow(LocalDate.of(2022, 1, 1), LocalDate.of(2025, 1, 1)),
+                new AnalysisWindow(LocalDate.of(2020, 1, 1), LocalDate.of(2025, 1, 1)));
+
+        // Act
+        MultiWindowAnalysisResponse response = analysisService.runAnalysisWindows(windows);
+
+        // Assert: results in request order, each with its own timing
+        assertThat(response.getWindows()).extracting(AnalysisWindowResult::getStartDate).containsExactly(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2022, 1, 1), LocalDate.of(2020, 1, 1));
+        assertThat(response.getWindows()).allSatisfy(window -> {
+            assertThat(window.getError()).isNull();
+            assertThat(window.getResult().getBetaMkt()).isEqualByComparingTo(new BigDecimal("0.856420"));
+            assertThat(window.getDurationMillis()).isGreaterThanOrEqualTo(0);
+        });
+        verify(holdingService, times(1)).getHoldingsSnapshot(testUser);
+        verify(flaskClient, times(3)).runFactorRegression(any(FlaskAnalysisRequest.class));
+        verify(resultsRepository, times(3)).save(any(FactorAnalysisResultsEntity.class));
+    }
+
+    @Test
+    @DisplayName("Should report a failing window without failing the others")
+    void runAnalysisWindows_oneWindowFails_othersSucceed() {
+        // Arrange
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            FlaskAnalysisRequest request = invocation.getArgument(0);
+            if (request.getStartDate().equals("2000-01-01")) {
+                throw new FlaskServiceException("No price data for AAPL before 2001", HttpStatus.NOT_FOUND);
+            }
+            return flaskResponse;
+        });
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        MultiWindowAnalysisResponse response = analysisService.runAnalysisWindows(List.of(
+                new AnalysisWindow(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)),
+                new AnalysisWindow(LocalDate.of(2000, 1, 1), LocalDate.of(2025, 1, 1))));
+
+        // Assert
+        AnalysisWindowResult ok = response.getWindows().get(0);
+        AnalysisWindowResult failed = response.getWindows().get(1);
+        assertThat(ok.getResult()).isNotNull();
+        assertThat(ok.getError()).isNull();
+        assertThat(failed.getResult()).isNull();
+        assertThat(failed.getError()).isEqualTo("No price data for AAPL before 2001");
+        assertThat(failed.getErrorStatus()).isEqualTo(404);
+        verify(resultsRepository, times(1)).save(any(FactorAnalysisResultsEntity.class));
+    }
+
+    @Test
+    @DisplayName("Should default missing window dates like a single run")
+    void runAnalysisWindows_missingDates_usesDefaults() {
+        // Arrange
+        when(holdingService.getHoldingsSnapshot(testUser)).thenReturn(snapshot(testHolding));
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse);
+        when(resultsRepository.save(any(FactorAnalysisResultsEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        MultiWindowAnalysisResponse response = analysisService.runAnalysisWindows(List.of(new AnalysisWindow()));
+
+        // Assert
+        AnalysisWindowResult window = response.getWindows().get(0);
+        assertThat(window.getEndDate()).isEqualTo(LocalDate.now());
+        assertThat(window.getStartDate()).isEqualTo(LocalDate.now().minusYears(3));
+    }
+
+    @Test
+    @DisplayName("Should reject bad windows before running any of them")
+    void runAnalysisWindows_invalidWindows_throwsException() {
+        List<AnalysisWindow> reversed = List.of(
+                new AnalysisWindow(LocalDate.of(2022, 1, 1), LocalDate.of(2025, 1, 1)),
+                new AnalysisWindow(LocalDate.of(2025, 1, 1), LocalDate.of(2022, 1, 1)));
+        List<AnalysisWindow> tooMany = Collections.nCopies(AnalysisService.MAX_WINDOWS + 1, new AnalysisWindow());
+
+        assertThatThrownBy(() -> analysisService.runAnalysisWindows(reversed))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("window 2: startDate must be before endDate");
+        assertThatThrownBy(() -> analysisService.runAnalysisWindows(List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one window is required");
+        assertThatThrownBy(() -> analysisService.runAnalysisWindows(tooMany))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot run more than");
+
+        verify(flaskClient, never()).runFactorRegression(any());
+    }
+
+    private HoldingsCache.CachedHoldings snapshot(HoldingsEntity... holdings) {
+        List<HoldingsResponse> responses = Arrays.stream(holdings)
+                .map(h -> new HoldingsResponse(h.getId(), h.getTicker(), h.getQuantity()))
+                .toList();
+        return new HoldingsCache.CachedHoldings(responses, 1L);
+    }
 }
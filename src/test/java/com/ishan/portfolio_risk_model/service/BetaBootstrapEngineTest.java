@@ -0,0 +1,166 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for BetaBootstrapEngine.
+ */
+class BetaBootstrapEngineTest {
+
+    // alpha, then the betas in factor order
+    private static final double[] TRUE_COEFFICIENTS = {0.0002, 1.1, 0.3, -0.2, 0.1, 0.05};
+    private static final double NOISE = 0.002;
+
+    private final RiskComputePool singleWorker = new RiskComputePool(1);
+    private final RiskComputePool fourWorkers = new RiskComputePool(4);
+
+    @AfterEach
+    void tearDown() {
+        singleWorker.close();
+        fourWorkers.close();
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should give the same intervals for a seed at any parallelism")
+    void bootstrap_sameSeed_sameIntervalsAcrossPools() {
+        // Arrange: several blocks of iterations
+        Sample sample = sample(500, 1);
+        int iterations = 3 * BetaBootstrapEngine.ITERATIONS_PER_BLOCK + 17;
+
+        for (BetaBootstrapEngine.Method method : BetaBootstrapEngine.Method.values()) {
+            // Act
+            BetaBootstrapEngine.Result serial = new BetaBootstrapEngine(singleWorker)
+                    .bootstrap(sample.factors, sample.returns, method, iterations, 8, 0.95, 42);
+            BetaBootstrapEngine.Result parallel = new BetaBootstrapEngine(fourWorkers)
+                    .bootstrap(sample.factors, sample.returns, method, iterations, 8, 0.95, 42);
+
+            // Assert
+            assertThat(parallel).isEqualTo(serial);
+        }
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should fit least squares and cover the true coefficients with residual resampling")
+    void bootstrap_residual_coversTrueCoefficients() {
+        // Arrange
+        Sample sample = sample(750, 2);
+
+        // Act
+        List<BetaBootstrapEngine.Interval> intervals = new BetaBootstrapEngine(fourWorkers)
+                .bootstrap(sample.factors, sample.returns, BetaBootstrapEngine.Method.RESIDUAL, 2000, 1, 0.99, 7).intervals();
+
+        // Assert
+        assertThat(intervals).hasSize(BetaBootstrapEngine.COEFFICIENTS);
+        for (int k = 0; k < intervals.size(); k++) {
+            BetaBootstrapEngine.Interval interval = intervals.get(k);
+            assertThat(interval.lower()).isLessThan(interval.estimate());
+            assertThat(interval.upper()).isGreaterThan(interval.estimate());
+            assertThat(TRUE_COEFFICIENTS[k]).isBetween(interval.lower(), interval.upper());
+        }
+        // noise of 0.002 over 750 days: alpha is known to about 0.002 / sqrt(750)
+        assertThat(intervals.get(0).stdError()).isCloseTo(NOISE / Math.sqrt(750), within(0.2 * NOISE / Math.sqrt(750)));
+        assertThat(intervals.get(1).estimate()).isCloseTo(1.1, within(0.02));
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should cover the true coefficients with moving-block resampling")
+    void bootstrap_block_coversTrueCoefficients() {
+        // Arrange
+        Sample sample = sample(750, 3);
+
+        // Act
+        List<BetaBootstrapEngine.Interval> intervals = new BetaBootstrapEngine(fourWorkers)
+                .bootstrap(sample.factors, sample.returns, BetaBootstrapEngine.Method.BLOCK, 2000, 9, 0.99, 7).intervals();
+        List<BetaBootstrapEngine.Interval> residual = new BetaBootstrapEngine(fourWorkers)
+                .bootstrap(sample.factors, sample.returns, BetaBootstrapEngine.Method.RESIDUAL, 2000, 1, 0.99, 7).intervals();
+
+        // Assert: with independent homoskedastic noise both schemes agree on the spread
+        for (int k = 0; k < intervals.size(); k++) {
+            BetaBootstrapEngine.Interval interval = intervals.get(k);
+            assertThat(interval.estimate()).isEqualTo(residual.get(k).estimate());
+            assertThat(TRUE_COEFFICIENTS[k]).isBetween(interval.lower(), interval.upper());
+            assertThat(interval.stdError()).isCloseTo(residual.get(k).stdError(),
+                    within(0.25 * residual.get(k).stdError()));
+        }
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should reject a factor that is a multiple of another")
+    void bootstrap_collinearFactors_throwsException() {
+        // Arrange
+        Sample sample = sample(200, 4);
+        for (double[] day : sample.factors) {
+            day[4] = 2 * day[0];
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> new BetaBootstrapEngine(singleWorker).bootstrap(sample.factors, sample.returns,
+                BetaBootstrapEngine.Method.RESIDUAL, 100, 1, 0.95, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("collinear");
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should skip and count block resamples that miss the only day a factor moves")
+    void bootstrap_singularResamples_skippedAndCounted() {
+        // Arrange: cma is zero except on the first day, which only blocks starting there cover
+        Sample sample = sample(100, 6);
+        for (int t = 1; t < sample.factors.length; t++) {
+            sample.factors[t][4] = 0;
+        }
+
+        // Act
+        BetaBootstrapEngine.Result result = new BetaBootstrapEngine(fourWorkers).bootstrap(sample.factors,
+                sample.returns, BetaBootstrapEngine.Method.BLOCK, 1000, 5, 0.95, 3);
+
+        // Assert: 20 blocks from 96 starts reach the first day about a fifth of the time
+        assertThat(result.singularResamples()).isBetween(700, 900);
+        for (BetaBootstrapEngine.Interval interval : result.intervals()) {
+            assertThat(interval.lower()).isLessThanOrEqualTo(interval.upper());
+            assertThat(interval.stdError()).isFinite();
+        }
+        assertThat(result.intervals().get(1).estimate()).isBetween(result.intervals().get(1).lower(),
+                result.intervals().get(1).upper());
+    }
+
+    @Test
+    @DisplayName("bootstrap - Should reject blocks longer than the data")
+    void bootstrap_blockLongerThanData_throwsException() {
+        // Arrange
+        Sample sample = sample(50, 5);
+
+        // Act & Assert
+        assertThatThrownBy(() -> new BetaBootstrapEngine(singleWorker).bootstrap(sample.factors, sample.returns,
+                BetaBootstrapEngine.Method.BLOCK, 100, 51, 0.95, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private record Sample(double[][] factors, double[] returns) {
+    }
+
+    private static Sample sample(int days, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] factors = new double[days][5];
+        double[] returns = new double[days];
+        for (int t = 0; t < days; t++) {
+            double market = 0.0003 + 0.01 * random.nextGaussian();
+            factors[t] = new double[]{market, 0.2 * market + 0.005 * random.nextGaussian(),
+                    0.005 * random.nextGaussian(), 0.004 * random.nextGaussian(), 0.004 * random.nextGaussian()};
+            returns[t] = TRUE_COEFFICIENTS[0] + NOISE * random.nextGaussian();
+            for (int k = 0; k < 5; k++) {
+                returns[t] += TRUE_COEFFICIENTS[k + 1] * factors[t][k];
+            }
+        }
+        return new Sample(factors, returns);
+    }
+}
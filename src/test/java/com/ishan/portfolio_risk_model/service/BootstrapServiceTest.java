@@ -0,0 +1,179 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.dto.AnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.BootstrapAnalysisResponse;
+import com.ishan.portfolio_risk_model.dto.CoefficientInterval;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BootstrapService.
+ */
+@ExtendWith(MockitoExtension.class)
+class BootstrapServiceTest {
+
+    @Mock
+    private AnalysisService analysisService;
+
+    @Mock
+    private FamaFrenchFactorRepository factorRepository;
+
+    private final RiskComputePool pool = new RiskComputePool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BootstrapService bootstrapService;
+    private AnalysisResponse result;
+
+    @BeforeEach
+    void setUp() {
+        bootstrapService = new BootstrapService(analysisService, factorRepository, new BetaBootstrapEngine(pool),
+                meterRegistry, 2000, 100_000);
+        result = new AnalysisResponse();
+        result.setId(12L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("runBootstrap - Should line the returns up with the factor store and return an interval per coefficient")
+    void runBootstrap_returnsIntervalsForEveryCoefficient() {
+        // Arrange: factor data for every day, returns for all but the first ten
+        List<FamaFrenchFactorEntity> rows = FactorStatisticsTest.randomRows(300, 1);
+        List<FlaskAnalysisResponse.DailyReturn> returns = portfolioReturns(rows.subList(10, rows.size()));
+        flaskReturns(returns);
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(
+                rows.get(10).getFactorDate(), rows.get(299).getFactorDate())).thenReturn(rows);
+
+        // Act
+        BootstrapAnalysisResponse response = bootstrapService.runBootstrap(null, null, null, null, null, null, null);
+
+        // Assert
+        assertThat(response.getResult()).isSameAs(result);
+        assertThat(response.getMethod()).isEqualTo("residual");
+        assertThat(response.getIterations()).isEqualTo(2000);
+        assertThat(response.getSingularResamples()).isZero();
+        assertThat(response.getBlockDays()).isNull();
+        assertThat(response.getConfidence()).isEqualByComparingTo("0.95");
+        assertThat(response.getSeed()).isEqualTo(12L);
+        assertThat(response.getObservations()).isEqualTo(290);
+        assertThat(response.getIntervals()).extracting(CoefficientInterval::getCoefficient)
+                .containsExactly("alpha", "mkt", "smb", "hml", "rmw", "cma");
+        CoefficientInterval market = response.getIntervals().get(1);
+        assertThat(market.getEstimate().doubleValue()).isCloseTo(1.1, within(0.05));
+        assertThat(market.getLower()).isLessThan(market.getEstimate());
+        assertThat(market.getUpper()).isGreaterThan(market.getEstimate());
+        assertThat(meterRegistry.get("risk.bootstrap").tag("method", "residual").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("runBootstrap - Should default the block length to the cube root of the days")
+    void runBootstrap_block_defaultsBlockDays() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = FactorStatisticsTest.randomRows(250, 2);
+        flaskReturns(portfolioReturns(rows));
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(any(), any())).thenReturn(rows);
+
+        // Act
+        BootstrapAnalysisResponse response = bootstrapService.runBootstrap(null, null, "Block", 500, null, 0.9, 3L);
+
+        // Assert
+        assertThat(response.getMethod()).isEqualTo("block");
+        assertThat(response.getBlockDays()).isEqualTo(6);
+        assertThat(response.getSeed()).isEqualTo(3L);
+        assertThat(response.getIntervals()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("runBootstrap - Should reject bad parameters before running the analysis")
+    void runBootstrap_badParameters_throwBeforeRunning() {
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, "pairs", null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("residual or block");
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, null, 99, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("iterations");
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, null, null, null, 1.0, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("confidence");
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, "block", null, 61, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("blockDays");
+
+        verifyNoInteractions(analysisService);
+    }
+
+    @Test
+    @DisplayName("runBootstrap - Should reject too few days with factor data")
+    void runBootstrap_tooFewDays_throwsException() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = FactorStatisticsTest.randomRows(40, 3);
+        flaskReturns(portfolioReturns(rows));
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(any(), any())).thenReturn(rows);
+
+        // Act & Assert
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, null, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("40 days, need 60");
+    }
+
+    @Test
+    @DisplayName("runBootstrap - Should fail with BAD_GATEWAY when flask sends no daily returns")
+    void runBootstrap_noDailyReturns_throwsBadGateway() {
+        // Arrange
+        flaskReturns(null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> bootstrapService.runBootstrap(null, null, null, null, null, null, null))
+                .isInstanceOf(FlaskServiceException.class)
+                .satisfies(ex -> assertThat(((FlaskServiceException) ex).getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+
+    // flask answers with these returns; the service's check runs on them as it would before the save
+    private void flaskReturns(List<FlaskAnalysisResponse.DailyReturn> returns) {
+        when(analysisService.runAnalysis(any(), any(), eq(true), any(), any())).thenAnswer(invocation -> {
+            Function<FlaskAnalysisResponse, ?> check = invocation.getArgument(4);
+            FlaskAnalysisResponse flaskResponse = new FlaskAnalysisResponse();
+            flaskResponse.setDailyReturns(returns);
+            return new AnalysisService.CheckedAnalysis<>(result, check.apply(flaskResponse));
+        });
+    }
+
+    // rf + 0.0002 + known betas . factors + noise for each row
+    static List<FlaskAnalysisResponse.DailyReturn> portfolioReturns(List<FamaFrenchFactorEntity> rows) {
+        SplittableRandom random = new SplittableRandom(99);
+        List<FlaskAnalysisResponse.DailyReturn> returns = new ArrayList<>();
+        double[] returnsByDay = HistoricalVarEngine.factorImpliedReturns(rows, 0.0002,
+                new double[]{1.1, 0.3, -0.2, 0.1, 0.05});
+        for (int day = 0; day < rows.size(); day++) {
+            returns.add(new FlaskAnalysisResponse.DailyReturn(rows.get(day).getFactorDate().toString(),
+                    BigDecimal.valueOf(returnsByDay[day] + 0.002 * random.nextGaussian())));
+        }
+        return returns;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for FactorStatistics.
+ */
+class FactorStatisticsTest {
+
+    @Test
+    @DisplayName("estimate - Should compute the sample means and covariance of the factors")
+    void estimate_computesMeansAndCovariance() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = List.of(
+                row(0, 0.01, 0.002, 0.001, 0.0, -0.001, 0.0001),
+                row(1, -0.02, 0.001, 0.003, 0.002, 0.001, 0.0001),
+                row(2, 0.03, -0.003, -0.001, 0.001, 0.0, 0.0002));
+
+        // Act
+        FactorStatistics statistics = FactorStatistics.estimate(rows);
+
+        // Assert
+        assertThat(statistics.days()).isEqualTo(3);
+        assertThat(statistics.means()[0]).isCloseTo(0.02 / 3, within(1e-12));
+        assertThat(statistics.riskFreeMean()).isCloseTo(0.0004 / 3, within(1e-12));
+        double[][] covariance = statistics.covariance();
+        double mean = 0.02 / 3;
+        double expected = (Math.pow(0.01 - mean, 2) + Math.pow(-0.02 - mean, 2) + Math.pow(0.03 - mean, 2)) / 2;
+        assertThat(covariance[0][0]).isCloseTo(expected, within(1e-12));
+        assertThat(covariance[0][1]).isEqualTo(covariance[1][0]);
+    }
+
+    @Test
+    @DisplayName("choleskyLower - Should return a lower factor that reproduces the covariance")
+    void choleskyLower_reproducesCovariance() {
+        // Arrange
+        FactorStatistics statistics = FactorStatistics.estimate(randomRows(500, 7));
+
+        // Act
+        double[][] lower = statistics.choleskyLower();
+
+        // Assert
+        double[][] covariance = statistics.covariance();
+        for (int i = 0; i < FactorStatistics.FACTORS; i++) {
+            for (int j = 0; j < FactorStatistics.FACTORS; j++) {
+                if (j > i) {
+                    assertThat(lower[i][j]).isZero();
+                }
+                double product = 0;
+                for (int k = 0; k < FactorStatistics.FACTORS; k++) {
+                    product += lower[i][k] * lower[j][k];
+                }
+                assertThat(product).isCloseTo(covariance[i][j], within(1e-15));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("choleskyLower - Should reject factor data with a constant factor")
+    void choleskyLower_constantFactor_throws() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = new ArrayList<>();
+        for (FamaFrenchFactorEntity row : randomRows(100, 3)) {
+            row.setCma(new BigDecimal("0.001"));
+            rows.add(row);
+        }
+        FactorStatistics statistics = FactorStatistics.estimate(rows);
+
+        // Act & Assert
+        assertThatThrownBy(statistics::choleskyLower)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not positive definite");
+    }
+
+    @Test
+    @DisplayName("estimate - Should reject a single day of factor data")
+    void estimate_oneDay_throws() {
+        assertThatThrownBy(() -> FactorStatistics.estimate(List.of(row(0, 0.01, 0, 0, 0, 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // daily factor returns roughly the size of the published series
+    static List<FamaFrenchFactorEntity> randomRows(int days, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<FamaFrenchFactorEntity> rows = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            double market = 0.0003 + 0.01 * random.nextGaussian();
+            rows.add(row(day, market,
+                    0.2 * market + 0.005 * random.nextGaussian(),
+                    0.005 * random.nextGaussian(),
+                    0.004 * random.nextGaussian(),
+                    0.004 * random.nextGaussian(),
+                    0.0001));
+        }
+        return rows;
+    }
+
+    private static FamaFrenchFactorEntity row(int day, double mktRf, double smb, double hml, double rmw,
+                                              double cma, double rf) {
+        FamaFrenchFactorEntity row = new FamaFrenchFactorEntity();
+        row.setFactorDate(LocalDate.of(2024, 1, 1).plusDays(day));
+        row.setMktRf(BigDecimal.valueOf(mktRf));
+        row.setSmb(BigDecimal.valueOf(smb));
+        row.setHml(BigDecimal.valueOf(hml));
+        row.setRmw(BigDecimal.valueOf(rmw));
+        row.setCma(BigDecimal.valueOf(cma));
+        row.setRf(BigDecimal.valueOf(rf));
+        return row;
+    }
+}
@@ -2,19 +2,28 @@ package com.ishan.portfolio_risk_model.service;
 
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
 import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import com.ishan.portfolio_risk_model.support.JfrEventRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClient.RequestBodySpec;
 import org.springframework.web.client.RestClient.RequestBodyUriSpec;
+import org.springframework.web.client.RestClient.RequestHeadersSpec.ConvertibleClientHttpResponse;
+import org.springframework.web.client.RestClient.RequestHeadersSpec.ExchangeFunction;
 import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -36,12 +45,17 @@ class FlaskClientTest {
     @Mock
     private RequestBodySpec requestBodySpec;
 
+    @Mock
+    private ConvertibleClientHttpResponse clientResponse;
+
+    private SimpleMeterRegistry meterRegistry;
     private FlaskClient flaskClient;
     private FlaskAnalysisRequest testRequest;
 
     @BeforeEach
     void setUp() {
-        flaskClient = new FlaskClient(restClient);
+        meterRegistry = new SimpleMeterRegistry();
+        flaskClient = new FlaskClient(restClient, meterRegistry);
 
         testRequest = new FlaskAnalysisRequest(
                 List.of(new FlaskAnalysisRequest.FlaskHolding("AAPL", 10)),
@@ -114,4 +128,92 @@ class FlaskClientTest {
                     assertThat(fse.getMessage()).contains("Invalid ticker");
                 });
     }
+
+    @Test
+    @DisplayName("Should time successful calls")
+    void runFactorRegression_success_recordsTimer() {
+        // Arrange
+        stubRequest();
+        when(requestBodySpec.exchange(any())).thenAnswer(invocation -> new FlaskAnalysisResponse());
+
+        // Act
+        flaskClient.runFactorRegression(testRequest);
+
+        // Assert
+        assertThat(meterRegistry.get("flask.regression").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("flask.errors").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should count flask error responses under the status they are mapped to")
+    void runFactorRegression_flaskServerError_countsMappedStatus() throws IOException {
+        // Arrange: run the real exchange callback against a 503 from flask
+        stubRequest();
+        when(clientResponse.getStatusCode()).thenReturn(HttpStatusCode.valueOf(503));
+        when(clientResponse.bodyTo(String.class)).thenReturn("Service unavailable");
+        when(requestBodySpec.exchange(any())).thenAnswer(invocation -> {
+            ExchangeFunction<?> exchange = invocation.getArgument(0);
+            return exchange.exchange(mock(HttpRequest.class), clientResponse);
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> flaskClient.runFactorRegression(testRequest))
+                .isInstanceOf(FlaskServiceException.class);
+        assertThat(meterRegistry.get("flask.errors").tag("status", "502").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("flask.regression").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count connection failures as 502")
+    void runFactorRegression_connectionError_countsBadGateway() {
+        // Arrange
+        stubRequest();
+        when(requestBodySpec.exchange(any())).thenThrow(new RestClientException("Connection refused"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> flaskClient.runFactorRegression(testRequest))
+                .isInstanceOf(FlaskServiceException.class);
+        assertThat(meterRegistry.get("flask.errors").tag("status", "502").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should emit a FlaskCall JFR event with status, response size and portfolio size")
+    void runFactorRegression_recordsJfrEvent() throws IOException {
+        // Arrange
+        stubRequest();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(42);
+        when(clientResponse.getStatusCode()).thenReturn(HttpStatusCode.valueOf(404));
+        when(clientResponse.getHeaders()).thenReturn(headers);
+        when(clientResponse.bodyTo(String.class)).thenReturn("Invalid ticker: XYZ");
+        when(requestBodySpec.exchange(any())).thenAnswer(invocation -> {
+            ExchangeFunction<?> exchange = invocation.getArgument(0);
+            return exchange.exchange(mock(HttpRequest.class), clientResponse);
+        });
+
+        // Act
+        List<RecordedEvent> events;
+        try (JfrEventRecorder recorder = new JfrEventRecorder(FlaskCallEvent.NAME)) {
+            recorder.start();
+            assertThatThrownBy(() -> flaskClient.runFactorRegression(testRequest))
+                    .isInstanceOf(FlaskServiceException.class);
+            recorder.stop();
+            events = recorder.getEvents(FlaskCallEvent.NAME);
+        }
+
+        // Assert
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getInt("status")).isEqualTo(404);
+        assertThat(event.getLong("responseBytes")).isEqualTo(42);
+        assertThat(event.getInt("holdings")).isEqualTo(1);
+        assertThat(event.getDuration()).isPositive();
+    }
+
+    private void stubRequest() {
+        when(restClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri("/api/analysis/factor-regression")).thenReturn(requestBodySpec);
+        when(requestBodySpec.contentType(MediaType.APPLICATION_JSON)).thenReturn(requestBodySpec);
+        when(requestBodySpec.body(testRequest)).thenReturn(requestBodySpec);
+    }
 }
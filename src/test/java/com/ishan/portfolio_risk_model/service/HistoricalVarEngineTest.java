@@ -0,0 +1,159 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for HistoricalVarEngine.
+ */
+class HistoricalVarEngineTest {
+
+    private static final double ACCURACY = 0.001;
+
+    private final RiskComputePool singleWorker = new RiskComputePool(1);
+    private final RiskComputePool fourWorkers = new RiskComputePool(4);
+
+    @AfterEach
+    void tearDown() {
+        singleWorker.close();
+        fourWorkers.close();
+    }
+
+    @Test
+    @DisplayName("replay - Should match the exact quantiles of the compounded window losses")
+    void replay_matchesExactWindowLosses() {
+        // Arrange
+        double[] returns = randomReturns(1000, 1);
+        int[] horizons = {1, 10};
+
+        // Act
+        List<RiskEstimate> estimates = HistoricalVarEngine.estimates(
+                new HistoricalVarEngine(fourWorkers).replay(returns, horizons, ACCURACY), horizons,
+                new double[]{0.95, 0.99});
+
+        // Assert
+        assertThat(estimates).hasSize(4);
+        for (RiskEstimate estimate : estimates) {
+            double[] losses = exactLosses(returns, estimate.horizonDays());
+            int rank = (int) RiskEstimate.tailRank(estimate.confidence(), losses.length);
+            double cvar = Arrays.stream(losses, rank, losses.length).average().orElseThrow();
+            assertThat(estimate.var()).isCloseTo(losses[rank], within(Math.abs(losses[rank]) * ACCURACY + 1e-12));
+            assertThat(estimate.cvar()).isCloseTo(cvar, within(Math.abs(cvar) * ACCURACY + 1e-12));
+        }
+        assertThat(exactLosses(returns, 10)).hasSize(991);
+    }
+
+    @Test
+    @DisplayName("replay - Should give the same answer in chunks as one sketch over the whole history")
+    void replay_longHistory_sameAsUnchunked() {
+        // Arrange: several chunks' worth of days, and the same losses in one sketch per horizon
+        double[] returns = randomReturns(5 * HistoricalVarEngine.CHUNK_DAYS + 123, 2);
+        int[] horizons = {1, 5, 20};
+        double[] confidences = {0.9, 0.99, 0.999};
+        double[] logWealth = new double[returns.length + 1];
+        for (int day = 0; day < returns.length; day++) {
+            logWealth[day + 1] = logWealth[day] + Math.log1p(returns[day]);
+        }
+        LossQuantileSketch[] unchunked = new LossQuantileSketch[horizons.length];
+        for (int h = 0; h < horizons.length; h++) {
+            unchunked[h] = new LossQuantileSketch(ACCURACY);
+            for (int start = 0; start + horizons[h] <= returns.length; start++) {
+                unchunked[h].add(-Math.expm1(logWealth[start + horizons[h]] - logWealth[start]));
+            }
+        }
+
+        // Act
+        LossQuantileSketch[] parallel = new HistoricalVarEngine(fourWorkers).replay(returns, horizons, ACCURACY);
+        LossQuantileSketch[] serial = new HistoricalVarEngine(singleWorker).replay(returns, horizons, ACCURACY);
+
+        // Assert
+        List<RiskEstimate> expected = HistoricalVarEngine.estimates(unchunked, horizons, confidences);
+        assertThat(HistoricalVarEngine.estimates(parallel, horizons, confidences)).isEqualTo(expected);
+        assertThat(HistoricalVarEngine.estimates(serial, horizons, confidences)).isEqualTo(expected);
+        assertThat(parallel[0].count()).isEqualTo(returns.length);
+        assertThat(parallel[2].count()).isEqualTo(returns.length - 19);
+    }
+
+    @Test
+    @DisplayName("replay - Should lose everything over windows with a day of -100% or worse, and only those")
+    void replay_totalLoss_losesWholeWindow() {
+        // Arrange
+        double[] returns = randomReturns(300, 3);
+        returns[100] = -1;
+        returns[200] = -1.4;
+        int[] horizons = {1, 10};
+
+        // Act
+        LossQuantileSketch[] sketches = new HistoricalVarEngine(fourWorkers).replay(returns, horizons, ACCURACY);
+        List<RiskEstimate> estimates = HistoricalVarEngine.estimates(sketches, horizons, new double[]{0.5, 0.95, 0.99});
+
+        // Assert: 20 of the 291 ten-day windows hold one of the two days
+        assertThat(sketches[1].count()).isEqualTo(291);
+        for (RiskEstimate estimate : estimates) {
+            double[] losses = exactLosses(returns, estimate.horizonDays());
+            int rank = (int) RiskEstimate.tailRank(estimate.confidence(), losses.length);
+            assertThat(estimate.var()).isCloseTo(losses[rank], within(Math.abs(losses[rank]) * ACCURACY + 1e-12));
+        }
+        assertThat(Arrays.stream(exactLosses(returns, 10)).filter(loss -> loss == 1).count()).isEqualTo(20);
+        assertThat(estimates.get(4).var()).isCloseTo(1, within(ACCURACY + 1e-12));
+    }
+
+    @Test
+    @DisplayName("replay - Should reject a horizon longer than the history")
+    void replay_horizonTooLong_throws() {
+        HistoricalVarEngine engine = new HistoricalVarEngine(singleWorker);
+
+        assertThatThrownBy(() -> engine.replay(new double[5], new int[]{6}, ACCURACY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("factorImpliedReturns - Should add the risk-free rate and alpha to the beta-weighted factors")
+    void factorImpliedReturns_combinesFactors() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = FactorStatisticsTest.randomRows(3, 4);
+        FamaFrenchFactorEntity first = rows.get(0);
+
+        // Act
+        double[] returns = HistoricalVarEngine.factorImpliedReturns(rows, 0.0002, new double[]{1, 0.5, 0, 0, -1});
+
+        // Assert
+        assertThat(returns).hasSize(3);
+        assertThat(returns[0]).isCloseTo(first.getRf().doubleValue() + 0.0002 + first.getMktRf().doubleValue()
+                + 0.5 * first.getSmb().doubleValue() - first.getCma().doubleValue(), within(1e-15));
+    }
+
+    private static double[] exactLosses(double[] returns, int horizon) {
+        double[] losses = new double[returns.length - horizon + 1];
+        for (int start = 0; start < losses.length; start++) {
+            double wealth = 1;
+            for (int day = start; day < start + horizon; day++) {
+                // a return below -100% loses everything, not more
+                wealth *= Math.max(0, 1 + returns[day]);
+            }
+            losses[start] = 1 - wealth;
+        }
+        Arrays.sort(losses);
+        return losses;
+    }
+
+    private static double[] randomReturns(int days, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] returns = new double[days];
+        for (int day = 0; day < days; day++) {
+            returns[day] = 0.0003 + 0.011 * random.nextGaussian();
+        }
+        return returns;
+    }
+}
@@ -2,9 +2,14 @@ package com.ishan.portfolio_risk_model.service;
 
 import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
 import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.projection.UserHoldingsVersion;
 import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
 import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
 import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import com.ishan.portfolio_risk_model.dto.HoldingsSyncResponse;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,14 +17,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -35,9 +45,18 @@ class HoldingServiceTest {
     @Mock
     private HoldingsRepository holdingsRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private SecurityContext securityContext;
 
+    @Spy
+    private HoldingsCache holdingsCache = new HoldingsCache(100);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private HoldingService holdingService;
 
@@ -64,10 +83,10 @@ class HoldingServiceTest {
         // Create request
         holdingRequest = new HoldingsRequest("AAPL", new BigDecimal("10.5"));
 
-        // Mock security context
+        // Mock security context; lenient since the cache warm-up runs without a signed-in user
         UsernamePasswordAuthenticationToken auth =
                 new UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities());
-        when(securityContext.getAuthentication()).thenReturn(auth);
+        lenient().when(securityContext.getAuthentication()).thenReturn(auth);
         SecurityContextHolder.setContext(securityContext);
     }
 
@@ -219,4 +238,238 @@ class HoldingServiceTest {
 
         verify(holdingsRepository, never()).delete(any());
     }
+
+    @Test
+    @DisplayName("Should import all holdings with a single duplicate lookup and one batch save")
+    void importHoldings_validRows_savesAllAtOnce() {
+        // Arrange
+        List<HoldingsRequest> requests = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10")),
+                new HoldingsRequest("MSFT", new BigDecimal("5")),
+                new HoldingsRequest("NVDA", new BigDecimal("2.5")));
+        when(holdingsRepository.findTickersByUser(testUser)).thenReturn(Set.of("GOOGL"));
+        when(holdingsRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<HoldingsResponse> result = holdingService.importHoldings(requests);
+
+        // Assert
+        assertThat(result).extracting(HoldingsResponse::getTicker).containsExactly("AAPL", "MSFT", "NVDA");
+
+        ArgumentCaptor<List<HoldingsEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(holdingsRepository, times(1)).findTickersByUser(testUser);
+        verify(holdingsRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(3).allMatch(h -> h.getUser() == testUser);
+        verify(holdingsRepository, never()).existsByUserAndTicker(any(), any());
+        verify(holdingsRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole import and report every invalid row")
+    void importHoldings_invalidRows_throwsWithAllErrors() {
+        // Arrange
+        List<HoldingsRequest> requests = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10")),
+                new HoldingsRequest("", new BigDecimal("5")),
+                new HoldingsRequest("MSFT", new BigDecimal("-1")),
+                new HoldingsRequest("AAPL", new BigDecimal("3")));
+        when(holdingsRepository.findTickersByUser(testUser)).thenReturn(Set.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> holdingService.importHoldings(requests))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("row 2: Ticker is required")
+                .hasMessageContaining("row 3: Quantity must be positive")
+                .hasMessageContaining("row 4: Duplicate ticker AAPL");
+
+        verify(holdingsRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject an import containing a ticker the user already holds")
+    void importHoldings_existingTicker_throwsException() {
+        // Arrange
+        List<HoldingsRequest> requests = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10")),
+                new HoldingsRequest("MSFT", new BigDecimal("5")));
+        when(holdingsRepository.findTickersByUser(testUser)).thenReturn(Set.of("MSFT"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> holdingService.importHoldings(requests))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("row 2: You already have a holding for MSFT");
+
+        verify(holdingsRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty import")
+    void importHoldings_empty_throwsException() {
+        // Act & Assert
+        assertThatThrownBy(() -> holdingService.importHoldings(List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No holdings to import");
+
+        verifyNoInteractions(holdingsRepository);
+    }
+
+    @Test
+    @DisplayName("Should sync holdings by writing only inserts, changed quantities and deletes")
+    void syncHoldings_mixedChanges_appliesOnlyTheDiff() {
+        // Arrange
+        HoldingsEntity msft = new HoldingsEntity();
+        msft.setId(2L);
+        msft.setUser(testUser);
+        msft.setTicker("MSFT");
+        msft.setQuantity(new BigDecimal("5"));
+
+        HoldingsEntity googl = new HoldingsEntity();
+        googl.setId(3L);
+        googl.setUser(testUser);
+        googl.setTicker("GOOGL");
+        googl.setQuantity(new BigDecimal("1"));
+
+        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding, msft, googl));
+
+        List<HoldingsRequest> desired = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("10.50")),
+                new HoldingsRequest("MSFT", new BigDecimal("7")),
+                new HoldingsRequest("NVDA", new BigDecimal("3")));
+
+        // Act
+        HoldingsSyncResponse result = holdingService.syncHoldings(desired);
+
+        // Assert
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getDeleted()).isEqualTo(1);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+
+        assertThat(msft.getQuantity()).isEqualByComparingTo("7");
+        verify(holdingsRepository).deleteAllInBatch(List.of(googl));
+
+        ArgumentCaptor<List<HoldingsEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(holdingsRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(HoldingsEntity::getTicker).containsExactly("NVDA");
+        verify(holdingsRepository, never()).save(any());
+        verify(holdingsRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should write nothing when the desired set matches current holdings")
+    void syncHoldings_noChanges_writesNothing() {
+        // Arrange
+        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+
+        // Act
+        HoldingsSyncResponse result = holdingService.syncHoldings(List.of(holdingRequest));
+
+        // Assert
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        verify(holdingsRepository, never()).saveAll(any());
+        verify(holdingsRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a sync with duplicate tickers before touching holdings")
+    void syncHoldings_duplicateTicker_throwsException() {
+        // Arrange
+        List<HoldingsRequest> desired = List.of(
+                new HoldingsRequest("AAPL", new BigDecimal("1")),
+                new HoldingsRequest("AAPL", new BigDecimal("2")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> holdingService.syncHoldings(desired))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("row 2: Duplicate ticker AAPL");
+
+        verifyNoInteractions(holdingsRepository);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from the cache and reload after a write")
+    void getHoldings_cachedUntilWrite() {
+        // Arrange
+        AtomicLong version = databaseVersion();
+        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding));
+        when(holdingsRepository.existsByUserAndTicker(testUser, "MSFT")).thenReturn(false);
+        when(holdingsRepository.save(any(HoldingsEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        long firstVersion = holdingService.getHoldingsSnapshot(testUser).getVersion();
+        holdingService.getHoldings();
+        holdingService.getHoldings();
+        verify(holdingsRepository, times(1)).findByUser(testUser);
+
+        holdingService.createHolding(new HoldingsRequest("MSFT", new BigDecimal("1")));
+        long secondVersion = holdingService.getHoldingsSnapshot(testUser).getVersion();
+
+        // Assert
+        verify(holdingsRepository, times(2)).findByUser(testUser);
+        verify(userRepository).incrementHoldingsVersion(1L);
+        assertThat(version).hasValue(1L);
+        assertThat(secondVersion).isGreaterThan(firstVersion);
+    }
+
+    @Test
+    @DisplayName("Should reload holdings written through another instance")
+    void getHoldings_writtenElsewhere_reloads() {
+        // Arrange
+        AtomicLong version = databaseVersion();
+        when(holdingsRepository.findByUser(testUser)).thenReturn(List.of(testHolding), List.of());
+        holdingService.getHoldings();
+
+        // Act: the other instance's write bumps the version, but nothing here is invalidated
+        version.incrementAndGet();
+        List<HoldingsResponse> holdings = holdingService.getHoldings();
+
+        // Assert
+        assertThat(holdings).isEmpty();
+        verify(holdingsRepository, times(2)).findByUser(testUser);
+        verify(holdingsCache, never()).invalidate(any());
+    }
+
+    @Test
+    @DisplayName("Should restore snapshot holdings only for users whose version hasn't moved")
+    void restoreCache_installsUnchangedUsers() {
+        // Arrange: user 2 wrote after the snapshot, user 3 no longer exists
+        when(userRepository.findHoldingsVersionsByIdIn(any())).thenReturn(List.of(version(1L, 4L), version(2L, 8L)));
+        List<HoldingsResponse> saved = List.of(new HoldingsResponse(1L, "AAPL", BigDecimal.TEN));
+        Map<Long, HoldingsCache.CachedHoldings> snapshot = new LinkedHashMap<>();
+        snapshot.put(1L, new HoldingsCache.CachedHoldings(saved, 4L));
+        snapshot.put(2L, new HoldingsCache.CachedHoldings(saved, 7L));
+        snapshot.put(3L, new HoldingsCache.CachedHoldings(saved, 0L));
+
+        // Act
+        List<Long> changed = holdingService.restoreCache(snapshot);
+
+        // Assert
+        assertThat(changed).containsExactly(2L, 3L);
+        assertThat(holdingsCache.cachedVersion(1L)).isEqualTo(4L);
+        assertThat(holdingsCache.cachedVersion(2L)).isNull();
+        assertThat(holdingsCache.cachedVersion(3L)).isNull();
+        verifyNoInteractions(holdingsRepository);
+    }
+
+    private static UserHoldingsVersion version(Long userId, long holdingsVersion) {
+        return new UserHoldingsVersion() {
+            @Override
+            public Long getId() {
+                return userId;
+            }
+
+            @Override
+            public long getHoldingsVersion() {
+                return holdingsVersion;
+            }
+        };
+    }
+
+    // the user's holdings version as the database would keep it
+    private AtomicLong databaseVersion() {
+        AtomicLong version = new AtomicLong();
+        when(userRepository.findHoldingsVersionById(1L)).thenAnswer(invocation -> version.get());
+        lenient().doAnswer(invocation -> version.incrementAndGet()).when(userRepository).incrementHoldingsVersion(1L);
+        return version;
+    }
 }
@@ -0,0 +1,95 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for HoldingsCacheSnapshot.
+ */
+class HoldingsCacheSnapshotTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final List<HoldingsResponse> holdings = List.of(new HoldingsResponse(7L, "AAPL", new BigDecimal("12.5")));
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should save the hot user ids hottest first, without holdings by default")
+    void save_keysOnly_roundTrips() {
+        // Arrange
+        HoldingsCache cache = cacheWith(1L, 2L, 3L);
+        HoldingsCacheSnapshot snapshot = new HoldingsCacheSnapshot(cache, jsonMapper,
+                directory.resolve("cache/holdings.json").toString(), false);
+
+        // Act
+        snapshot.save();
+        HoldingsCacheSnapshot.Contents loaded = snapshot.load().orElseThrow();
+
+        // Assert
+        assertThat(loaded.users()).extracting(HoldingsCacheSnapshot.Entry::userId).containsExactly(3L, 2L, 1L);
+        assertThat(loaded.users()).allSatisfy(entry -> {
+            assertThat(entry.holdings()).isNull();
+            assertThat(entry.version()).isNull();
+        });
+        assertThat(loaded.savedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should save and load the holdings with their version when values are on")
+    void save_withValues_roundTripsHoldings() {
+        // Arrange
+        HoldingsCacheSnapshot snapshot = new HoldingsCacheSnapshot(cacheWith(1L), jsonMapper,
+                directory.resolve("holdings.json").toString(), true);
+
+        // Act
+        snapshot.save();
+        HoldingsCacheSnapshot.Contents loaded = snapshot.load().orElseThrow();
+
+        // Assert
+        assertThat(loaded.users()).singleElement().satisfies(entry -> {
+            assertThat(entry.version()).isEqualTo(1L);
+            assertThat(entry.holdings()).singleElement().satisfies(holding -> {
+                assertThat(holding.getTicker()).isEqualTo("AAPL");
+                assertThat(holding.getQuantity()).isEqualByComparingTo("12.5");
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Should load nothing when snapshots are off, the file is missing or it can't be read")
+    void load_missingOrUnreadable_isEmpty() throws Exception {
+        // Arrange
+        Path corrupt = directory.resolve("corrupt.json");
+        Files.writeString(corrupt, "{\"savedAt\": ");
+        HoldingsCache cache = cacheWith(1L);
+
+        // Act
+        HoldingsCacheSnapshot off = new HoldingsCacheSnapshot(cache, jsonMapper, "", false);
+        off.save();
+
+        // Assert
+        assertThat(off.load()).isEmpty();
+        assertThat(new HoldingsCacheSnapshot(cache, jsonMapper, directory.resolve("missing.json").toString(), false)
+                .load()).isEmpty();
+        assertThat(new HoldingsCacheSnapshot(cache, jsonMapper, corrupt.toString(), false).load()).isEmpty();
+    }
+
+    private HoldingsCache cacheWith(Long... userIds) {
+        HoldingsCache cache = new HoldingsCache(10);
+        for (Long userId : userIds) {
+            cache.getOrLoad(userId, userId, () -> holdings);
+        }
+        return cache;
+    }
+}
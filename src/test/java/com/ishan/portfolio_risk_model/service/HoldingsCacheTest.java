@@ -0,0 +1,168 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for HoldingsCache.
+ */
+class HoldingsCacheTest {
+
+    private final List<HoldingsResponse> holdings = List.of(new HoldingsResponse(1L, "AAPL", BigDecimal.TEN));
+
+    @Test
+    @DisplayName("Should load once and serve the entry until the database version moves on")
+    void getOrLoad_hit_doesNotReloadUntilVersionChanges() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act: version 4 is a write made through any instance
+        HoldingsCache.CachedHoldings first = cache.getOrLoad(1L, 3L, () -> {
+            loads.incrementAndGet();
+            return holdings;
+        });
+        HoldingsCache.CachedHoldings second = cache.getOrLoad(1L, 3L, () -> {
+            loads.incrementAndGet();
+            return holdings;
+        });
+        HoldingsCache.CachedHoldings third = cache.getOrLoad(1L, 4L, () -> {
+            loads.incrementAndGet();
+            return holdings;
+        });
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(first.getVersion()).isEqualTo(3L);
+        assertThat(second).isSameAs(first);
+        assertThat(third.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Should keep a newer entry stored while an older load was running")
+    void getOrLoad_olderLoadFinishesLast_keepsNewerEntry() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+        List<HoldingsResponse> newer = List.of(new HoldingsResponse(2L, "MSFT", BigDecimal.ONE));
+
+        // Act: a read at version 6 completes while the read at version 5 is still loading
+        HoldingsCache.CachedHoldings result = cache.getOrLoad(1L, 5L, () -> {
+            cache.getOrLoad(1L, 6L, () -> newer);
+            return holdings;
+        });
+
+        // Assert
+        assertThat(result.getVersion()).isEqualTo(6L);
+        assertThat(result.getHoldings()).isEqualTo(newer);
+        assertThat(cache.cachedVersion(1L)).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used user beyond the size bound")
+    void getOrLoad_overCapacity_evictsLeastRecentlyUsed() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        for (long userId : new long[]{1L, 2L, 1L, 3L, 1L, 2L}) {
+            cache.getOrLoad(userId, 0L, () -> {
+                loads.incrementAndGet();
+                return holdings;
+            });
+        }
+
+        // Assert: user 1 stays hot, user 2 is evicted by user 3 and reloaded
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Should expose the cached version only while holdings are cached")
+    void cachedVersion_followsCacheState() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+
+        // Act
+        Long beforeLoad = cache.cachedVersion(1L);
+        cache.getOrLoad(1L, 7L, () -> holdings);
+        Long afterLoad = cache.cachedVersion(1L);
+        cache.invalidate(1L);
+        Long afterInvalidate = cache.cachedVersion(1L);
+
+        // Assert
+        assertThat(beforeLoad).isNull();
+        assertThat(afterLoad).isEqualTo(7L);
+        assertThat(afterInvalidate).isNull();
+    }
+
+    @Test
+    @DisplayName("Should bulk load only the users not cached yet, including users without holdings")
+    void loadMissing_loadsUncachedUsersOnce() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+        cache.getOrLoad(1L, 2L, () -> holdings);
+        List<List<Long>> requested = new ArrayList<>();
+
+        // Act
+        int loaded = cache.loadMissing(List.of(1L, 2L, 3L), missing -> {
+            requested.add(missing);
+            return Map.of(2L, new HoldingsCache.CachedHoldings(holdings, 4L),
+                    3L, new HoldingsCache.CachedHoldings(List.of(), 0L));
+        });
+
+        // Assert: user 3 has no holdings, which is cached too
+        assertThat(loaded).isEqualTo(2);
+        assertThat(requested).containsExactly(List.of(2L, 3L));
+        assertThat(cache.cachedVersion(1L)).isEqualTo(2L);
+        assertThat(cache.getOrLoad(2L, 4L, List::of).getHoldings()).isEqualTo(holdings);
+        assertThat(cache.getOrLoad(3L, 0L, () -> holdings).getHoldings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reload a bulk-loaded user whose holdings were written since")
+    void loadMissing_writtenSince_isReloaded() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+        cache.loadMissing(List.of(1L), missing -> Map.of(1L, new HoldingsCache.CachedHoldings(holdings, 1L)));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act: another instance wrote, so the database is at version 2
+        HoldingsCache.CachedHoldings current = cache.getOrLoad(1L, 2L, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        // Assert
+        assertThat(loads).hasValue(1);
+        assertThat(current.getHoldings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should list cached users most recently used first, leaving out invalidated ones")
+    void hottest_mostRecentlyUsedFirst() {
+        // Arrange
+        HoldingsCache cache = new HoldingsCache(10);
+        for (long userId : new long[]{1L, 2L, 3L, 4L}) {
+            cache.getOrLoad(userId, userId, () -> holdings);
+        }
+        cache.getOrLoad(2L, 2L, () -> holdings);
+        cache.invalidate(3L);
+
+        // Act
+        Map<Long, HoldingsCache.CachedHoldings> hottest = cache.hottest();
+
+        // Assert
+        assertThat(hottest.keySet()).containsExactly(2L, 4L, 1L);
+        assertThat(hottest.get(2L).getHoldings()).isEqualTo(holdings);
+        assertThat(hottest.get(2L).getVersion()).isEqualTo(2L);
+    }
+}
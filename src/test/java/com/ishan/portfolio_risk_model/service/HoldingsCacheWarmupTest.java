@@ -0,0 +1,144 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.dto.HoldingsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for HoldingsCacheWarmup.
+ */
+@ExtendWith(MockitoExtension.class)
+class HoldingsCacheWarmupTest {
+
+    @Mock
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private HoldingsCacheSnapshot snapshot;
+
+    private final HoldingsCache holdingsCache = new HoldingsCache(100);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<HoldingsResponse> holdings = List.of(new HoldingsResponse(1L, "AAPL", BigDecimal.TEN));
+
+    @Test
+    @DisplayName("Should restore a recent snapshot with values, loading only the users written since")
+    void warmUp_recentSnapshotWithValues_restoresUnchangedUsers() {
+        // Arrange: user 2's holdings changed after the snapshot was saved
+        when(snapshot.load()).thenReturn(Optional.of(new HoldingsCacheSnapshot.Contents(
+                Instant.now().minusSeconds(60),
+                List.of(new HoldingsCacheSnapshot.Entry(1L, holdings, 3L),
+                        new HoldingsCacheSnapshot.Entry(2L, List.of(), 0L)))));
+        ArgumentCaptor<Map<Long, HoldingsCache.CachedHoldings>> restored = ArgumentCaptor.captor();
+        when(holdingService.restoreCache(restored.capture())).thenReturn(List.of(2L));
+        when(holdingService.warmCache(List.of(2L))).thenReturn(1);
+
+        // Act
+        warmup(0).warmUp();
+
+        // Assert
+        assertThat(restored.getValue().keySet()).containsExactly(1L, 2L);
+        assertThat(restored.getValue().get(1L).getHoldings()).isEqualTo(holdings);
+        assertThat(restored.getValue().get(1L).getVersion()).isEqualTo(3L);
+        verify(holdingService).warmCache(List.of(2L));
+        verifyNoInteractions(resultsRepository);
+        assertThat(meterRegistry.get("holdings.cache.warmup.users.done").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reload the users of a stale snapshot from the database, hottest first")
+    void warmUp_staleSnapshot_loadsUsersInOrder() {
+        // Arrange
+        when(snapshot.load()).thenReturn(Optional.of(new HoldingsCacheSnapshot.Contents(
+                Instant.now().minus(Duration.ofHours(1)),
+                List.of(new HoldingsCacheSnapshot.Entry(9L, holdings, 1L),
+                        new HoldingsCacheSnapshot.Entry(4L, holdings, 1L)))));
+        when(holdingService.warmCache(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // Act
+        warmup(0).warmUp();
+
+        // Assert
+        verify(holdingService).warmCache(List.of(9L, 4L));
+        verifyNoInteractions(resultsRepository);
+        assertThat(holdingsCache.cachedVersion(9L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reload the users of a snapshot saved without holdings versions")
+    void warmUp_snapshotWithoutVersions_loadsUsers() {
+        // Arrange: written before versions were saved
+        when(snapshot.load()).thenReturn(Optional.of(new HoldingsCacheSnapshot.Contents(
+                Instant.now().minusSeconds(60), List.of(new HoldingsCacheSnapshot.Entry(6L, holdings, null)))));
+        when(holdingService.warmCache(anyList())).thenReturn(1);
+
+        // Act
+        warmup(0).warmUp();
+
+        // Assert
+        verify(holdingService).warmCache(List.of(6L));
+        assertThat(holdingsCache.cachedVersion(6L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should warm the most recently active users when there is no snapshot")
+    void warmUp_noSnapshot_loadsRecentlyActiveUsers() {
+        // Arrange
+        when(snapshot.load()).thenReturn(Optional.empty());
+        when(resultsRepository.findRecentResultUserIds(any(Limit.class))).thenReturn(List.of(5L, 3L, 5L, 8L));
+
+        // Act
+        warmup(0).warmUp();
+
+        // Assert
+        verify(holdingService).warmCache(List.of(5L, 3L, 8L));
+        assertThat(meterRegistry.get("holdings.cache.warmup.users.total").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should pace database loads to the warm-up rate in small chunks")
+    void warmUp_rateLimited_spreadsLoads() {
+        // Arrange: 30 users at 100/s go in chunks of 10, 100ms apart
+        when(snapshot.load()).thenReturn(Optional.empty());
+        when(resultsRepository.findRecentResultUserIds(any(Limit.class)))
+                .thenReturn(LongStream.rangeClosed(1, 30).boxed().toList());
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.captor();
+
+        // Act
+        long start = System.nanoTime();
+        warmup(100).warmUp();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        verify(holdingService, times(3)).warmCache(chunks.capture());
+        assertThat(chunks.getAllValues()).allSatisfy(chunk -> assertThat(chunk).hasSize(10));
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+    }
+
+    private HoldingsCacheWarmup warmup(int rate) {
+        return new HoldingsCacheWarmup(resultsRepository, holdingService, holdingsCache, snapshot, meterRegistry,
+                1000, rate, Duration.ofMinutes(15));
+    }
+}
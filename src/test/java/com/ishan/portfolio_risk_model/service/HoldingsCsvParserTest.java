@@ -0,0 +1,49 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.dto.HoldingsRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for HoldingsCsvParser.
+ */
+class HoldingsCsvParserTest {
+
+    @Test
+    @DisplayName("Should skip the header and blank lines and trim cells")
+    void parse_withHeader_returnsRows() {
+        // Act
+        List<HoldingsRequest> result = HoldingsCsvParser.parse("Ticker,Quantity\r\n AAPL , 10.5\r\n\r\nMSFT,3\n");
+
+        // Assert
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getTicker()).isEqualTo("AAPL");
+        assertThat(result.get(0).getQuantity()).isEqualByComparingTo(new BigDecimal("10.5"));
+        assertThat(result.get(1).getTicker()).isEqualTo("MSFT");
+    }
+
+    @Test
+    @DisplayName("Should leave an empty quantity for validation to report")
+    void parse_emptyQuantity_returnsNullQuantity() {
+        // Act
+        List<HoldingsRequest> result = HoldingsCsvParser.parse("AAPL,");
+
+        // Assert
+        assertThat(result.get(0).getQuantity()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should report malformed lines by line number")
+    void parse_malformedLines_throwsException() {
+        // Act & Assert
+        assertThatThrownBy(() -> HoldingsCsvParser.parse("ticker,quantity\nAAPL,ten\nMSFT\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("line 2: invalid quantity 'ten'; line 3: expected ticker,quantity");
+    }
+}
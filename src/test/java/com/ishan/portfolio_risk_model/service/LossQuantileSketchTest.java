@@ -0,0 +1,111 @@
+package com.ishan.portfolio_risk_model.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for LossQuantileSketch.
+ */
+class LossQuantileSketchTest {
+
+    private static final double ACCURACY = 0.001;
+
+    @Test
+    @DisplayName("quantile - Should be within the relative accuracy of the exact quantile")
+    void quantile_withinRelativeAccuracy() {
+        // Arrange: losses and gains of a ~1% a day portfolio, and some exact zeros
+        double[] values = randomValues(100_000, 1);
+        values[0] = 0;
+        values[1] = 0;
+        LossQuantileSketch sketch = new LossQuantileSketch(ACCURACY);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        Arrays.sort(values);
+
+        // Act & Assert
+        assertThat(sketch.count()).isEqualTo(values.length);
+        for (double q : new double[]{0.001, 0.01, 0.25, 0.5, 0.75, 0.95, 0.99, 0.999, 1.0}) {
+            double exact = values[(int) RiskEstimate.tailRank(q, values.length)];
+            assertThat(sketch.quantile(q)).as("q=%s", q).isCloseTo(exact, within(Math.abs(exact) * ACCURACY));
+        }
+    }
+
+    @Test
+    @DisplayName("tailMean - Should be within the relative accuracy of the exact mean beyond the quantile")
+    void tailMean_withinRelativeAccuracy() {
+        // Arrange
+        double[] values = randomValues(50_000, 2);
+        LossQuantileSketch sketch = new LossQuantileSketch(ACCURACY);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        Arrays.sort(values);
+
+        // Act & Assert
+        for (double q : new double[]{0.95, 0.99}) {
+            int rank = (int) RiskEstimate.tailRank(q, values.length);
+            double exact = Arrays.stream(values, rank, values.length).average().orElseThrow();
+            assertThat(sketch.tailMean(q)).isCloseTo(exact, within(exact * ACCURACY));
+            assertThat(sketch.tailMean(q)).isGreaterThanOrEqualTo(sketch.quantile(q));
+        }
+    }
+
+    @Test
+    @DisplayName("merge - Should give the same answers as one sketch over all the values")
+    void merge_sameAsSingleSketch() {
+        // Arrange
+        double[] values = randomValues(30_000, 3);
+        LossQuantileSketch whole = new LossQuantileSketch(ACCURACY);
+        LossQuantileSketch[] parts = {
+                new LossQuantileSketch(ACCURACY), new LossQuantileSketch(ACCURACY), new LossQuantileSketch(ACCURACY)};
+        for (int i = 0; i < values.length; i++) {
+            whole.add(values[i]);
+            // uneven parts, one of them only gains
+            parts[values[i] < 0 ? 2 : i % 2].add(values[i]);
+        }
+
+        // Act
+        LossQuantileSketch merged = new LossQuantileSketch(ACCURACY).merge(parts[2]).merge(parts[0]).merge(parts[1]);
+
+        // Assert
+        assertThat(merged.count()).isEqualTo(whole.count());
+        for (double q : new double[]{0.01, 0.5, 0.95, 0.99}) {
+            assertThat(merged.quantile(q)).isEqualTo(whole.quantile(q));
+            assertThat(merged.tailMean(q)).isEqualTo(whole.tailMean(q));
+        }
+    }
+
+    @Test
+    @DisplayName("merge - Should reject a sketch with a different accuracy")
+    void merge_differentAccuracy_throws() {
+        LossQuantileSketch sketch = new LossQuantileSketch(0.001);
+
+        assertThatThrownBy(() -> sketch.merge(new LossQuantileSketch(0.01)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("quantile - Should refuse to answer for an empty sketch")
+    void quantile_empty_throws() {
+        assertThatThrownBy(() -> new LossQuantileSketch(ACCURACY).quantile(0.99))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static double[] randomValues(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            // fat-tailed: a mix of calm and volatile days
+            values[i] = (random.nextDouble() < 0.9 ? 0.008 : 0.03) * random.nextGaussian() - 0.0003;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,154 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for MonteCarloVarEngine.
+ */
+class MonteCarloVarEngineTest {
+
+    private static final double Z_95 = 1.6448536270;
+    private static final double Z_99 = 2.3263478740;
+
+    private final RiskComputePool singleWorker = new RiskComputePool(1);
+    private final RiskComputePool fourWorkers = new RiskComputePool(4);
+
+    // a market-heavy portfolio with correlated market and size factors
+    private final MonteCarloVarEngine.Model model = new MonteCarloVarEngine.Model(
+            0.0001,
+            new double[]{1.1, 0.3, -0.2, 0.1, 0.05},
+            new double[]{0.0003, 0.0001, 0.0, 0.0001, 0.0},
+            new double[][]{
+                    {0.010, 0, 0, 0, 0},
+                    {0.002, 0.005, 0, 0, 0},
+                    {-0.001, 0.001, 0.005, 0, 0},
+                    {0, 0, 0.001, 0.004, 0},
+                    {0, 0, 0.002, 0, 0.004}},
+            0.006);
+
+    @AfterEach
+    void tearDown() {
+        singleWorker.close();
+        fourWorkers.close();
+    }
+
+    @Test
+    @DisplayName("simulate - Should give the same estimates for a seed whatever the parallelism")
+    void simulate_sameSeed_sameResultAcrossParallelism() {
+        // Arrange
+        int[] horizons = {1, 10};
+        double[] confidences = {0.95, 0.99};
+
+        // Act
+        List<RiskEstimate> serial =
+                new MonteCarloVarEngine(singleWorker).simulate(model, horizons, confidences, 50_000, 42);
+        List<RiskEstimate> parallel =
+                new MonteCarloVarEngine(fourWorkers).simulate(model, horizons, confidences, 50_000, 42);
+        List<RiskEstimate> otherSeed =
+                new MonteCarloVarEngine(fourWorkers).simulate(model, horizons, confidences, 50_000, 43);
+
+        // Assert
+        assertThat(parallel).isEqualTo(serial);
+        assertThat(otherSeed).isNotEqualTo(serial);
+    }
+
+    @Test
+    @DisplayName("simulate - Should match the closed-form one-day VaR and CVaR of a normal return")
+    void simulate_oneDay_matchesAnalyticNormal() {
+        // Arrange: one day's return is normal with mean drift + beta . mu and variance |L^T beta|^2 + sigma^2
+        double mean = model.dailyDrift();
+        double variance = model.residualVolatility() * model.residualVolatility();
+        for (int k = 0; k < 5; k++) {
+            mean += model.betas()[k] * model.factorMeans()[k];
+            double loading = 0;
+            for (int i = 0; i < 5; i++) {
+                loading += model.choleskyLower()[i][k] * model.betas()[i];
+            }
+            variance += loading * loading;
+        }
+        double sd = Math.sqrt(variance);
+
+        // Act
+        List<RiskEstimate> estimates = new MonteCarloVarEngine(fourWorkers)
+                .simulate(model, new int[]{1}, new double[]{0.95, 0.99}, 400_000, 7);
+
+        // Assert
+        assertThat(estimates.get(0).var()).isCloseTo(-mean + Z_95 * sd, within(0.02 * Z_95 * sd));
+        assertThat(estimates.get(1).var()).isCloseTo(-mean + Z_99 * sd, within(0.02 * Z_99 * sd));
+        double expectedShortfall = -mean + sd * density(Z_99) / 0.01;
+        assertThat(estimates.get(1).cvar()).isCloseTo(expectedShortfall, within(0.03 * expectedShortfall));
+    }
+
+    @Test
+    @DisplayName("simulate - Should grow with confidence and horizon, with CVaR at least VaR")
+    void simulate_tailOrdering() {
+        // Act
+        List<RiskEstimate> estimates = new MonteCarloVarEngine(fourWorkers)
+                .simulate(model, new int[]{1, 5, 20}, new double[]{0.95, 0.99}, 20_000, 1);
+
+        // Assert
+        assertThat(estimates).hasSize(6);
+        for (int h = 0; h < 3; h++) {
+            RiskEstimate at95 = estimates.get(2 * h);
+            RiskEstimate at99 = estimates.get(2 * h + 1);
+            assertThat(at95.confidence()).isEqualTo(0.95);
+            assertThat(at99.var()).isGreaterThan(at95.var());
+            assertThat(at95.cvar()).isGreaterThanOrEqualTo(at95.var());
+            assertThat(at99.cvar()).isGreaterThanOrEqualTo(at99.var());
+            if (h > 0) {
+                assertThat(at99.var()).isGreaterThan(estimates.get(2 * h - 1).var());
+            }
+        }
+        assertThat(estimates.get(4).horizonDays()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("simulate - Should handle a path count that isn't a whole number of blocks")
+    void simulate_partialBlock() {
+        // Act
+        List<RiskEstimate> estimates = new MonteCarloVarEngine(fourWorkers)
+                .simulate(model, new int[]{1}, new double[]{0.99}, MonteCarloVarEngine.BLOCK_SIZE + 17, 3);
+
+        // Assert
+        assertThat(estimates.get(0).var()).isPositive();
+    }
+
+    @Test
+    @DisplayName("simulate - Should reject horizons that aren't ascending")
+    void simulate_unsortedHorizons_throws() {
+        MonteCarloVarEngine engine = new MonteCarloVarEngine(singleWorker);
+
+        assertThatThrownBy(() -> engine.simulate(model, new int[]{10, 1}, new double[]{0.95}, 1000, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("tail - Should take the VaR at the confidence quantile and average the losses beyond it")
+    void tail_quantileAndMean() {
+        // Arrange: losses 1..100
+        double[] losses = new double[100];
+        for (int i = 0; i < losses.length; i++) {
+            losses[i] = i + 1;
+        }
+
+        // Act
+        RiskEstimate estimate = MonteCarloVarEngine.tail(1, 0.95, losses);
+
+        // Assert
+        assertThat(estimate.var()).isEqualTo(95);
+        assertThat(estimate.cvar()).isEqualTo(97.5);
+    }
+
+    private static double density(double z) {
+        return Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+    }
+}
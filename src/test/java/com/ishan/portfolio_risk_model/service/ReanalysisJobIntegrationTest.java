@@ -0,0 +1,368 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.entity.HoldingsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.ReanalysisCheckpointEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.domain.repository.HoldingsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.ReanalysisCheckpointRepository;
+import com.ishan.portfolio_risk_model.domain.repository.UserRepository;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisRequest;
+import com.ishan.portfolio_risk_model.dto.FlaskAnalysisResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the re-analysis job against H2 with a mocked flask service.
+ * Not @Transactional: the job commits each chunk itself. Tables are cleared after each test instead.
+ */
+@SpringBootTest(properties = {
+        "analysis.reanalysis.chunk-size=2",
+        "analysis.reanalysis.parallelism=2"
+})
+@ActiveProfiles("test")
+class ReanalysisJobIntegrationTest {
+
+    private static final LocalDate FACTOR_DATE = LocalDate.of(2025, 1, 31);
+
+    @Autowired
+    private ReanalysisJob reanalysisJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingsRepository holdingsRepository;
+
+    @Autowired
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Autowired
+    private FamaFrenchFactorRepository factorRepository;
+
+    @Autowired
+    private ReanalysisCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private AnalysisService analysisService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private FlaskClient flaskClient;
+
+    private List<UserEntity> users;
+
+    @BeforeEach
+    void setUp() {
+        clearTables();
+        // five users with holdings (three chunks of two) and one without
+        users = List.of(createUser("a"), createUser("b"), createUser("c"), createUser("d"), createUser("e"));
+        for (UserEntity user : users) {
+            createHolding(user, "AAPL");
+            createHolding(user, "MSFT");
+        }
+        createUser("no-holdings");
+        createFactors(FACTOR_DATE);
+
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(flaskResponse());
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    @Test
+    @DisplayName("Should analyze every user with holdings once and mark the run complete")
+    void run_newFactorData_analyzesEveryUser() {
+        double analyzedBefore = counter("analyzed");
+
+        boolean ran = reanalysisJob.run();
+
+        assertThat(ran).isTrue();
+        assertThat(resultsRepository.findAll()).hasSize(5)
+                .extracting(result -> result.getUser().getId())
+                .containsExactlyInAnyOrderElementsOf(users.stream().map(UserEntity::getId).toList());
+        ReanalysisCheckpointEntity checkpoint = checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getFactorDate()).isEqualTo(FACTOR_DATE);
+        assertThat(checkpoint.getLastUserId()).isEqualTo(users.get(4).getId());
+        assertThat(checkpoint.getCompletedAt()).isNotNull();
+        assertThat(counter("analyzed") - analyzedBefore).isEqualTo(5);
+        assertThat(meterRegistry.get("reanalysis.users.done").gauge().value()).isEqualTo(5);
+        assertThat(meterRegistry.get("reanalysis.chunk").timer().count()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should save the regression output in every result column")
+    void run_savesFullResult() {
+        reanalysisJob.run();
+
+        FactorAnalysisResultsEntity result = resultsRepository.findAll().get(0);
+        assertThat(result.getBetaMkt()).isEqualByComparingTo("0.856420");
+        assertThat(result.getRSquared()).isEqualByComparingTo("0.876543");
+        assertThat(result.getTStatMkt()).isEqualByComparingTo("15.6789");
+        assertThat(result.getStdErrMkt()).isEqualByComparingTo("0.054622");
+        assertThat(result.getTStatCma()).isNull();
+        assertThat(result.getNObservations()).isEqualTo(752);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the run for the latest factor data is complete")
+    void run_alreadyComplete_doesNothing() {
+        reanalysisJob.run();
+
+        boolean ranAgain = reanalysisJob.run();
+
+        assertThat(ranAgain).isFalse();
+        assertThat(resultsRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpoint of an unfinished run")
+    void run_unfinishedRun_resumesAfterCheckpoint() {
+        // a previous run got through the first chunk before stopping
+        ReanalysisCheckpointEntity checkpoint = new ReanalysisCheckpointEntity();
+        checkpoint.setJobName(ReanalysisJob.JOB_NAME);
+        checkpoint.setFactorDate(FACTOR_DATE);
+        checkpoint.setLastUserId(users.get(1).getId());
+        checkpoint.setStartedAt(LocalDateTime.now().minusHours(1));
+        checkpoint.setUpdatedAt(LocalDateTime.now().minusHours(1));
+        checkpointRepository.save(checkpoint);
+
+        reanalysisJob.run();
+
+        assertThat(resultsRepository.findAll())
+                .extracting(result -> result.getUser().getId())
+                .containsExactlyInAnyOrder(users.get(2).getId(), users.get(3).getId(), users.get(4).getId());
+        assertThat(checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow().getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should start over from the first user when newer factor data arrives")
+    void run_newerFactorData_startsNewRun() {
+        reanalysisJob.run();
+        createFactors(FACTOR_DATE.plusMonths(1));
+
+        boolean ran = reanalysisJob.run();
+
+        assertThat(ran).isTrue();
+        assertThat(resultsRepository.count()).isEqualTo(10);
+        assertThat(checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow().getFactorDate())
+                .isEqualTo(FACTOR_DATE.plusMonths(1));
+    }
+
+    @Test
+    @DisplayName("Should skip a user whose regression fails and finish the rest")
+    void run_oneUserFails_analyzesTheOthers() {
+        double failedBefore = counter("failed");
+        FlaskAnalysisResponse response = flaskResponse();
+        // the third user is the only one holding TSLA
+        createHolding(users.get(2), "TSLA");
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            FlaskAnalysisRequest request = invocation.getArgument(0);
+            if (request.getHoldings().stream().anyMatch(h -> h.getTicker().equals("TSLA"))) {
+                throw new FlaskServiceException("No price data for TSLA", HttpStatus.NOT_FOUND);
+            }
+            return response;
+        });
+
+        reanalysisJob.run();
+
+        assertThat(resultsRepository.findAll())
+                .extracting(result -> result.getUser().getId())
+                .hasSize(4)
+                .doesNotContain(users.get(2).getId());
+        assertThat(counter("failed") - failedBefore).isEqualTo(1);
+        assertThat(checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow().getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should leave the checkpoint where it was when flask is down for the whole run")
+    void run_flaskDown_leavesRunUnfinished() {
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class)))
+                .thenThrow(new FlaskServiceException("Factor analysis service is unavailable", HttpStatus.BAD_GATEWAY));
+
+        boolean ran = reanalysisJob.run();
+
+        assertThat(ran).isFalse();
+        assertThat(resultsRepository.count()).isZero();
+        ReanalysisCheckpointEntity checkpoint = checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getLastUserId()).isZero();
+        assertThat(checkpoint.getCompletedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should retry the users of a chunk abandoned while flask was down on the next run")
+    void run_flaskDownMidRun_nextRunRetriesChunk() {
+        // flask goes down while the second chunk (users c and d) is running
+        FlaskAnalysisResponse response = flaskResponse();
+        createHolding(users.get(2), "TSLA");
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            FlaskAnalysisRequest request = invocation.getArgument(0);
+            if (request.getHoldings().stream().anyMatch(h -> h.getTicker().equals("TSLA"))) {
+                throw new FlaskServiceException("Flask service returned status 503", HttpStatus.BAD_GATEWAY);
+            }
+            return response;
+        });
+
+        reanalysisJob.run();
+
+        assertThat(resultsRepository.findAll())
+                .extracting(result -> result.getUser().getId())
+                .containsExactlyInAnyOrder(users.get(0).getId(), users.get(1).getId());
+        ReanalysisCheckpointEntity checkpoint = checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getLastUserId()).isEqualTo(users.get(1).getId());
+        assertThat(checkpoint.getCompletedAt()).isNull();
+
+        // flask is back
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenReturn(response);
+        boolean ran = reanalysisJob.run();
+
+        assertThat(ran).isTrue();
+        assertThat(resultsRepository.findAll())
+                .extracting(result -> result.getUser().getId())
+                .containsExactlyInAnyOrderElementsOf(users.stream().map(UserEntity::getId).toList());
+        assertThat(checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow().getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should save each user's result once when two instances run the job together")
+    void run_twoInstances_writeNoDuplicateResults() throws Exception {
+        // Arrange: a second instance sharing the database, and both instances resuming the same
+        // unfinished run. flask holds each call until both instances are analyzing the first chunk
+        ReanalysisJob otherInstance = new ReanalysisJob(holdingsRepository, factorRepository, checkpointRepository,
+                analysisService, flaskClient, jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(),
+                2, 2, 50, 300);
+        ReanalysisCheckpointEntity checkpoint = new ReanalysisCheckpointEntity();
+        checkpoint.setJobName(ReanalysisJob.JOB_NAME);
+        checkpoint.setFactorDate(FACTOR_DATE);
+        checkpoint.setLastUserId(0L);
+        checkpoint.setStartedAt(LocalDateTime.now().minusHours(1));
+        checkpoint.setUpdatedAt(LocalDateTime.now().minusHours(1));
+        checkpointRepository.save(checkpoint);
+        FlaskAnalysisResponse response = flaskResponse();
+        CountDownLatch firstChunks = new CountDownLatch(4);
+        when(flaskClient.runFactorRegression(any(FlaskAnalysisRequest.class))).thenAnswer(invocation -> {
+            firstChunks.countDown();
+            firstChunks.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+
+        // Act
+        List<Boolean> ran;
+        try (ExecutorService instances = Executors.newFixedThreadPool(2)) {
+            Future<Boolean> first = instances.submit(reanalysisJob::run);
+            Future<Boolean> second = instances.submit(otherInstance::run);
+            ran = List.of(first.get(30, TimeUnit.SECONDS), second.get(30, TimeUnit.SECONDS));
+        }
+
+        // Assert: one instance claimed the first chunk and finished the run, the other backed off
+        assertThat(ran).containsExactlyInAnyOrder(true, false);
+        assertThat(resultsRepository.findAll())
+                .extracting(result -> result.getUser().getId())
+                .containsExactlyInAnyOrderElementsOf(users.stream().map(UserEntity::getId).toList());
+        assertThat(checkpointRepository.findById(ReanalysisJob.JOB_NAME).orElseThrow().getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should do nothing before any factor data is loaded")
+    void run_noFactorData_doesNothing() {
+        factorRepository.deleteAll();
+
+        assertThat(reanalysisJob.run()).isFalse();
+        assertThat(resultsRepository.count()).isZero();
+    }
+
+    private double counter(String outcome) {
+        return meterRegistry.get("reanalysis.users.processed").tag("outcome", outcome).counter().count();
+    }
+
+    private UserEntity createUser(String name) {
+        UserEntity user = new UserEntity();
+        user.setEmail(name + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        user.setRole(UserEntity.Role.USER);
+        return userRepository.save(user);
+    }
+
+    private void createHolding(UserEntity user, String ticker) {
+        HoldingsEntity holding = new HoldingsEntity();
+        holding.setUser(user);
+        holding.setTicker(ticker);
+        holding.setQuantity(new BigDecimal("10"));
+        holdingsRepository.save(holding);
+    }
+
+    private void createFactors(LocalDate date) {
+        FamaFrenchFactorEntity factors = new FamaFrenchFactorEntity();
+        factors.setFactorDate(date);
+        factors.setMktRf(new BigDecimal("0.01"));
+        factors.setSmb(new BigDecimal("0.002"));
+        factors.setHml(new BigDecimal("-0.001"));
+        factors.setRmw(new BigDecimal("0.0005"));
+        factors.setCma(new BigDecimal("0.0003"));
+        factors.setRf(new BigDecimal("0.0001"));
+        factorRepository.save(factors);
+    }
+
+    private FlaskAnalysisResponse flaskResponse() {
+        FlaskAnalysisResponse response = new FlaskAnalysisResponse();
+        response.setAlpha(new BigDecimal("0.000234"));
+        response.setBetaMkt(new BigDecimal("0.856420"));
+        response.setBetaSmb(new BigDecimal("0.123456"));
+        response.setBetaHml(new BigDecimal("-0.045678"));
+        response.setBetaRmw(new BigDecimal("0.032145"));
+        response.setBetaCma(new BigDecimal("-0.012345"));
+        response.setRSquared(new BigDecimal("0.876543"));
+        response.setTStats(Map.of("alpha", new BigDecimal("1.2345"), "mkt", new BigDecimal("15.6789")));
+        response.setStdErrors(Map.of("mkt", new BigDecimal("0.054622")));
+        response.setResidualVariance(new BigDecimal("0.000042"));
+        response.setNObservations(752);
+        return response;
+    }
+
+    private void clearTables() {
+        checkpointRepository.deleteAll();
+        resultsRepository.deleteAll();
+        holdingsRepository.deleteAll();
+        userRepository.deleteAll();
+        factorRepository.deleteAll();
+    }
+}
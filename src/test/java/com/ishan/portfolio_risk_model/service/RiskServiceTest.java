@@ -0,0 +1,314 @@
+package com.ishan.portfolio_risk_model.service;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import com.ishan.portfolio_risk_model.domain.entity.FactorAnalysisResultsEntity;
+import com.ishan.portfolio_risk_model.domain.entity.FamaFrenchFactorEntity;
+import com.ishan.portfolio_risk_model.domain.entity.UserEntity;
+import com.ishan.portfolio_risk_model.domain.repository.FactorAnalysisResultsRepository;
+import com.ishan.portfolio_risk_model.domain.repository.FamaFrenchFactorRepository;
+import com.ishan.portfolio_risk_model.dto.VarResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RiskService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RiskServiceTest {
+
+    @Mock
+    private FactorAnalysisResultsRepository resultsRepository;
+
+    @Mock
+    private FamaFrenchFactorRepository factorRepository;
+
+    @Mock
+    private MonteCarloVarEngine engine;
+
+    private final RiskComputePool pool = new RiskComputePool(2);
+    private RiskService riskService;
+    private UserEntity testUser;
+    private FactorAnalysisResultsEntity result;
+
+    @BeforeEach
+    void setUp() {
+        riskService = new RiskService(resultsRepository, factorRepository, engine,
+                new HistoricalVarEngine(pool), new SimpleMeterRegistry(), Period.ofYears(3), 100_000, 1_000_000, 25_000_000, 1, 0.001);
+
+        testUser = new UserEntity();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+        testUser.setRole(UserEntity.Role.USER);
+
+        result = new FactorAnalysisResultsEntity();
+        result.setId(9L);
+        result.setUser(testUser);
+        result.setAnalysisDate(LocalDateTime.of(2025, 6, 30, 12, 0));
+        result.setAlpha(new BigDecimal("0.0002"));
+        result.setBetaMkt(new BigDecimal("1.1"));
+        result.setBetaSmb(new BigDecimal("0.3"));
+        result.setBetaHml(new BigDecimal("-0.2"));
+        result.setBetaRmw(new BigDecimal("0.1"));
+        result.setBetaCma(new BigDecimal("0.05"));
+        result.setResidualVariance(new BigDecimal("0.000036"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should build the model from the result and the factor store")
+    void monteCarloVar_buildsModelAndResponse() {
+        // Arrange
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetween(LocalDate.of(2022, 6, 30), LocalDate.of(2025, 6, 30)))
+                .thenReturn(FactorStatisticsTest.randomRows(250, 1));
+        when(engine.simulate(any(), any(), any(), anyInt(), anyLong())).thenReturn(List.of(
+                new RiskEstimate(1, 0.95, 0.0181234567891, 0.0231)));
+        ArgumentCaptor<MonteCarloVarEngine.Model> model = ArgumentCaptor.forClass(MonteCarloVarEngine.Model.class);
+
+        // Act
+        VarResponse response = riskService.monteCarloVar(9L, null, null, null, null);
+
+        // Assert
+        verify(engine).simulate(model.capture(), eq(new int[]{1, 10}), eq(new double[]{0.95, 0.99}),
+                eq(100_000), eq(9L));
+        assertThat(model.getValue().dailyDrift()).isCloseTo(0.0001 + 0.0002, within(1e-12));
+        assertThat(model.getValue().betas()).containsExactly(1.1, 0.3, -0.2, 0.1, 0.05);
+        assertThat(model.getValue().residualVolatility()).isCloseTo(0.006, within(1e-12));
+
+        assertThat(response.getAnalysisId()).isEqualTo(9L);
+        assertThat(response.getMethod()).isEqualTo("monte-carlo");
+        assertThat(response.getFactorDays()).isEqualTo(250);
+        assertThat(response.getFactorEndDate()).isEqualTo(LocalDate.of(2025, 6, 30));
+        assertThat(response.getSeed()).isEqualTo(9L);
+        assertThat(response.getEstimates()).hasSize(1);
+        assertThat(response.getEstimates().get(0).getVar()).isEqualByComparingTo("0.01812346");
+        assertThat(response.getEstimates().get(0).getConfidence()).isEqualByComparingTo("0.95");
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should pass horizons to the engine sorted and without duplicates")
+    void monteCarloVar_sortsHorizons() {
+        // Arrange
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetween(any(), any()))
+                .thenReturn(FactorStatisticsTest.randomRows(250, 1));
+
+        // Act
+        riskService.monteCarloVar(9L, List.of(0.99), List.of(20, 1, 5, 1), 5000, 77L);
+
+        // Assert
+        verify(engine).simulate(any(), eq(new int[]{1, 5, 20}), eq(new double[]{0.99}), eq(5000), eq(77L));
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should not reveal another user's result")
+    void monteCarloVar_otherUsersResult_throws() {
+        // Arrange
+        UserEntity other = new UserEntity();
+        other.setId(2L);
+        result.setUser(other);
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+
+        // Act & Assert
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Analysis result not found");
+        verifyNoInteractions(engine);
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should ask for a re-run when the result has no residual variance")
+    void monteCarloVar_noResidualVariance_throws() {
+        // Arrange
+        result.setResidualVariance(null);
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+
+        // Act & Assert
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("run the analysis again");
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should reject a factor window with too few days")
+    void monteCarloVar_tooFewFactorDays_throws() {
+        // Arrange
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetween(any(), any()))
+                .thenReturn(FactorStatisticsTest.randomRows(RiskService.MIN_FACTOR_DAYS - 1, 1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not enough factor data");
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should validate confidence, horizon and paths before loading anything")
+    void monteCarloVar_invalidParameters_throw() {
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, List.of(1.0), null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("confidence");
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, List.of(0), null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("horizon");
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, List.of(1, 2, 3, 4, 5, 6), null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("horizons");
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, 999, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("paths");
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, 1_000_001, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("paths");
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, List.of(1, 250), 1_000_000, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("longest horizon");
+        verifyNoInteractions(resultsRepository, engine);
+    }
+
+    @Test
+    @DisplayName("monteCarloVar - Should answer 429 while the allowed number of simulations is running")
+    void monteCarloVar_simulationsFull_throwsTooManyRequests() throws Exception {
+        // Arrange: one simulation allowed, and the first one waits until released
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetween(any(), any()))
+                .thenReturn(FactorStatisticsTest.randomRows(250, 1));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(engine.simulate(any(), any(), any(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return List.of(new RiskEstimate(1, 0.95, 0.02, 0.03));
+        }).thenReturn(List.of(new RiskEstimate(1, 0.95, 0.02, 0.03)));
+        SecurityContext context = SecurityContextHolder.getContext();
+        Thread first = Thread.ofVirtual().start(() -> {
+            SecurityContextHolder.setContext(context);
+            riskService.monteCarloVar(9L, null, null, null, null);
+        });
+        running.await();
+
+        // Act & Assert
+        assertThatThrownBy(() -> riskService.monteCarloVar(9L, null, null, null, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode())
+                        .isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        release.countDown();
+        first.join();
+        assertThat(riskService.monteCarloVar(9L, null, null, null, null).getEstimates()).hasSize(1);
+        verify(engine, times(2)).simulate(any(), any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("historicalVar - Should replay the factor-implied returns over the window")
+    void historicalVar_replaysWindow() {
+        // Arrange
+        List<FamaFrenchFactorEntity> rows = FactorStatisticsTest.randomRows(500, 5);
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2025, 5, 14))).thenReturn(rows);
+
+        // Act
+        VarResponse response = riskService.historicalVar(9L, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 5, 14),
+                List.of(0.99), List.of(1));
+
+        // Assert: the exact 99% one-day loss, to within the sketch's accuracy
+        double[] returns = HistoricalVarEngine.factorImpliedReturns(rows, 0.0002,
+                new double[]{1.1, 0.3, -0.2, 0.1, 0.05});
+        double[] losses = new double[returns.length];
+        for (int i = 0; i < returns.length; i++) {
+            losses[i] = -returns[i];
+        }
+        Arrays.sort(losses);
+        double exact = losses[(int) RiskEstimate.tailRank(0.99, losses.length)];
+
+        assertThat(response.getMethod()).isEqualTo("historical");
+        assertThat(response.getFactorDays()).isEqualTo(500);
+        assertThat(response.getPaths()).isNull();
+        assertThat(response.getSeed()).isNull();
+        assertThat(response.getEstimates()).hasSize(1);
+        assertThat(response.getEstimates().get(0).getVar().doubleValue())
+                .isCloseTo(exact, within(exact * 0.001 + 1e-8));
+        verifyNoInteractions(engine);
+    }
+
+    @Test
+    @DisplayName("historicalVar - Should default to the lookback before the analysis date")
+    void historicalVar_defaultWindow() {
+        // Arrange
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(any(), any()))
+                .thenReturn(FactorStatisticsTest.randomRows(300, 5));
+
+        // Act
+        VarResponse response = riskService.historicalVar(9L, null, null, null, null);
+
+        // Assert
+        verify(factorRepository).findByFactorDateBetweenOrderByFactorDateAsc(
+                LocalDate.of(2022, 6, 30), LocalDate.of(2025, 6, 30));
+        assertThat(response.getEstimates()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("historicalVar - Should need at least as many days as the longest horizon")
+    void historicalVar_horizonLongerThanHistory_throws() {
+        // Arrange
+        when(resultsRepository.findById(9L)).thenReturn(Optional.of(result));
+        when(factorRepository.findByFactorDateBetweenOrderByFactorDateAsc(any(), any()))
+                .thenReturn(FactorStatisticsTest.randomRows(100, 5));
+
+        // Act & Assert
+        assertThatThrownBy(() -> riskService.historicalVar(9L, null, null, null, List.of(1, 200)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("need 200");
+    }
+
+    @Test
+    @DisplayName("historicalVar - Should reject a window that ends before it starts")
+    void historicalVar_startAfterEnd_throws() {
+        assertThatThrownBy(() -> riskService.historicalVar(9L, LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 1),
+                null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("startDate");
+        verifyNoInteractions(resultsRepository);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ishan.portfolio_risk_model.support;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the named JFR events in-process, for checking that our own events are emitted with the
+ * expected fields. Events are collected from every thread, so tests should assert on the events
+ * their own code produced (by field values) rather than on exact counts where other tests may run.
+ */
+public class JfrEventRecorder implements AutoCloseable {
+
+    private final RecordingStream stream = new RecordingStream();
+    private final List<RecordedEvent> events = Collections.synchronizedList(new ArrayList<>());
+
+    public JfrEventRecorder(String... eventNames) {
+        for (String eventName : eventNames) {
+            stream.enable(eventName).withThreshold(Duration.ZERO);
+            stream.onEvent(eventName, events::add);
+        }
+    }
+
+    public void start() {
+        stream.startAsync();
+    }
+
+    // stops recording once every event recorded so far has been processed
+    public void stop() {
+        stream.stop();
+    }
+
+    public List<RecordedEvent> getEvents(String eventName) {
+        synchronized (events) {
+            return events.stream().filter(event -> event.getEventType().getName().equals(eventName)).toList();
+        }
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
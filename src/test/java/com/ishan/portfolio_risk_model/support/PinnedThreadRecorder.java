@@ -0,0 +1,100 @@
+package com.ishan.portfolio_risk_model.support;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records jdk.VirtualThreadPinned JFR events in-process. Each event belongs to the code that blocked:
+ * walking down from the top of the stack past JDK frames, the first frame that is ours makes it our
+ * pinning, and the first library frame makes it the library's. Test classes, this support package and
+ * filters passing the request down the chain are on nearly every stack without blocking anything
+ * themselves, so they are walked past too. Only the top of the stack decides, so JFR cutting off deep
+ * stacks doesn't change the outcome. Library pinnings are kept for the report but not attributed to us.
+ */
+public class PinnedThreadRecorder implements AutoCloseable {
+
+    private static final String APPLICATION_PACKAGE = "com.ishan.portfolio_risk_model.";
+    private static final String SUPPORT_PACKAGE = PinnedThreadRecorder.class.getPackageName() + ".";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final List<String> ownPinnings = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> libraryPinnings = Collections.synchronizedList(new ArrayList<>());
+
+    public PinnedThreadRecorder() {
+        stream.enable(EVENT).withThreshold(Duration.ZERO).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+    }
+
+    public void start() {
+        stream.startAsync();
+    }
+
+    // stops recording once every event recorded so far has been processed
+    public void stop() {
+        stream.stop();
+    }
+
+    public List<String> getOwnPinnings() {
+        return List.copyOf(ownPinnings);
+    }
+
+    public List<String> getLibraryPinnings() {
+        return List.copyOf(libraryPinnings);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void record(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+        String report = "pinned for " + event.getDuration().toMillis() + "ms\n" + stack;
+
+        if (blockedInOurCode(frames)) {
+            ownPinnings.add(report);
+        } else {
+            libraryPinnings.add(report);
+        }
+    }
+
+    // frames run from the top of the stack down
+    private static boolean blockedInOurCode(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (JDK_PACKAGES.stream().anyMatch(type::startsWith)) {
+                continue;
+            }
+            if (!type.startsWith(APPLICATION_PACKAGE)) {
+                return false;
+            }
+            if (!isPassThrough(type, frame.getMethod().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPassThrough(String type, String method) {
+        String outerType = type.contains("$") ? type.substring(0, type.indexOf('$')) : type;
+        return type.startsWith(SUPPORT_PACKAGE)
+                || outerType.endsWith("Test") || outerType.endsWith("Tests")
+                || method.equals("doFilter") || method.equals("doFilterInternal");
+    }
+}
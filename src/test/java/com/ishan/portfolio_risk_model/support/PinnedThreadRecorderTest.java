@@ -0,0 +1,119 @@
+package com.ishan.portfolio_risk_model.support;
+
+import com.ishan.portfolio_risk_model.config.RiskComputePool;
+import com.zaxxer.hikari.util.UtilityElf;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the pinning recorder used by the pinning-check profile actually catches our code blocking
+ * while pinned, leaves blocking inside a library to the library even with a test method underneath,
+ * and does not flag a java.util.concurrent lock.
+ */
+class PinnedThreadRecorderTest {
+
+    private final Object monitor = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Test
+    @DisplayName("Our code waiting inside synchronized on a virtual thread should be reported as our pinning")
+    void synchronizedApplicationWait_isReported() throws Exception {
+        RiskComputePool pool = new RiskComputePool(1);
+        try (PinnedThreadRecorder recorder = new PinnedThreadRecorder()) {
+            recorder.start();
+
+            // RiskComputePool.invoke is the first frame below the JDK's wait for the task
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    pool.invoke(new SleepingTask());
+                }
+            }).join();
+
+            recorder.stop();
+            assertThat(recorder.getOwnPinnings()).isNotEmpty();
+            assertThat(recorder.getOwnPinnings().get(0)).contains("RiskComputePool.invoke");
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A library blocking underneath a test method should be reported as a library pinning")
+    void synchronizedLibraryCall_isLibraryPinning() throws Exception {
+        try (PinnedThreadRecorder recorder = new PinnedThreadRecorder()) {
+            recorder.start();
+
+            // the first frame below the JDK's sleep is hikari's; the test holding the monitor is further down
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    UtilityElf.quietlySleep(50);
+                }
+            }).join();
+
+            recorder.stop();
+            assertThat(recorder.getOwnPinnings()).isEmpty();
+            assertThat(recorder.getLibraryPinnings()).isNotEmpty();
+            assertThat(recorder.getLibraryPinnings().get(0)).contains("UtilityElf.quietlySleep")
+                    .contains("PinnedThreadRecorderTest");
+        }
+    }
+
+    @Test
+    @DisplayName("A test method blocking on its own should not count as application code")
+    void synchronizedSleepInTest_isNotOurs() throws Exception {
+        try (PinnedThreadRecorder recorder = new PinnedThreadRecorder()) {
+            recorder.start();
+
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    sleep();
+                }
+            }).join();
+
+            recorder.stop();
+            assertThat(recorder.getOwnPinnings()).isEmpty();
+            assertThat(recorder.getLibraryPinnings()).isNotEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Blocking while holding a ReentrantLock should not pin")
+    void lockSleep_isNotReported() throws Exception {
+        try (PinnedThreadRecorder recorder = new PinnedThreadRecorder()) {
+            recorder.start();
+
+            Thread.ofVirtual().start(() -> {
+                lock.lock();
+                try {
+                    sleep();
+                } finally {
+                    lock.unlock();
+                }
+            }).join();
+
+            recorder.stop();
+            assertThat(recorder.getOwnPinnings()).isEmpty();
+        }
+    }
+
+    private static final class SleepingTask extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            sleep();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ishan.portfolio_risk_model.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Runs each test method body on a virtual thread while recording pinned-carrier JFR events, and
+ * fails the test class if any pinning is attributed to application code.
+ * <p>
+ * Registered through META-INF/services and only active when extension autodetection is on, which
+ * the {@code pinning-check} maven profile does for the controller integration suites. The test's
+ * transaction (begun by Spring on the JUnit thread) is handed to the virtual thread for the
+ * duration of the test body so rollback-per-test still applies.
+ */
+@Slf4j
+public class PinningDetectionExtension implements BeforeAllCallback, AfterAllCallback, InvocationInterceptor {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PinningDetectionExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        PinnedThreadRecorder recorder = new PinnedThreadRecorder();
+        recorder.start();
+        context.getStore(NAMESPACE).put(PinnedThreadRecorder.class, recorder);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        PinnedThreadRecorder recorder = context.getStore(NAMESPACE)
+                .remove(PinnedThreadRecorder.class, PinnedThreadRecorder.class);
+        try {
+            recorder.stop();
+            if (!recorder.getLibraryPinnings().isEmpty()) {
+                log.info("{}: {} pinned events inside libraries", context.getDisplayName(),
+                        recorder.getLibraryPinnings().size());
+            }
+            List<String> own = recorder.getOwnPinnings();
+            if (!own.isEmpty()) {
+                fail(own.size() + " virtual thread pinning(s) in application code:\n" + String.join("\n\n", own));
+            }
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        TransactionState state = TransactionState.capture();
+        Throwable[] failure = new Throwable[1];
+        List<TransactionSynchronization> registeredOnVirtualThread = new ArrayList<>();
+
+        Thread virtualThread = Thread.ofVirtual().name("test-" + invocationContext.getExecutable().getName()).start(() -> {
+            state.bind();
+            try {
+                invocation.proceed();
+            } catch (Throwable t) {
+                failure[0] = t;
+            } finally {
+                registeredOnVirtualThread.addAll(state.unbind());
+            }
+        });
+        virtualThread.join();
+
+        // synchronizations registered by the code under test belong to the test transaction
+        registeredOnVirtualThread.forEach(TransactionSynchronizationManager::registerSynchronization);
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private record TransactionState(Map<Object, Object> resources, List<TransactionSynchronization> synchronizations,
+                                    String name, boolean readOnly, Integer isolationLevel, boolean active) {
+
+        static TransactionState capture() {
+            boolean synchronizationActive = TransactionSynchronizationManager.isSynchronizationActive();
+            return new TransactionState(
+                    Map.copyOf(TransactionSynchronizationManager.getResourceMap()),
+                    synchronizationActive ? TransactionSynchronizationManager.getSynchronizations() : null,
+                    TransactionSynchronizationManager.getCurrentTransactionName(),
+                    TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+                    TransactionSynchronizationManager.getCurrentTransactionIsolationLevel(),
+                    TransactionSynchronizationManager.isActualTransactionActive());
+        }
+
+        void bind() {
+            resources.forEach(TransactionSynchronizationManager::bindResource);
+            if (synchronizations != null) {
+                TransactionSynchronizationManager.initSynchronization();
+            }
+            TransactionSynchronizationManager.setCurrentTransactionName(name);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+            TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(isolationLevel);
+            TransactionSynchronizationManager.setActualTransactionActive(active);
+        }
+
+        // returns synchronizations registered while bound
+        List<TransactionSynchronization> unbind() {
+            List<TransactionSynchronization> registered = List.of();
+            if (synchronizations != null) {
+                registered = TransactionSynchronizationManager.getSynchronizations();
+            }
+            resources.keySet().forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+            TransactionSynchronizationManager.clear();
+            return registered;
+        }
+    }
+}